@@ -10,7 +10,7 @@ import ks.common.model.*;
  * @author: Diane Jordan (dijordan@wpi.edu)
  * For A1.implementation in CS3733 B01
  */
-public class Pyramid extends Element {
+public class Pyramid extends Element implements IPackable {
   /* array of PositionCards that makes up Pyramid */
   protected PositionCard[][] pyrArray;
 
@@ -29,6 +29,9 @@ public class Pyramid extends Element {
   /* selected position (or -1 if nothing selected). */
   protected int selectedPos = -1;
 
+  /* byte written by pack() for a position without a card */
+  protected static final byte EMPTY = (byte) 0xFF;
+
   
   /*********************************************************************
    * Construct a Pyramid with the default of 7 rows and a generated name
@@ -308,6 +311,57 @@ public PositionCard getSelected() {
 	}
 	return false;
   }      
+  /*****************************************************************************
+   * Write the number of cards, then each position of the pyramid (row by row) as
+   * its CardCode byte, or EMPTY if there is no card there.
+   */
+  public int pack(byte[] buf, int offset, ModelSnapshot snap) {
+	buf[offset++] = (byte) numCards;
+	for(int r = 1; r <= numRows; r++) {
+	  for(int p = 1; p <= r; p++) {
+		PositionCard pc = pyrArray[r][p];
+		if(pc == null) {
+		  buf[offset++] = EMPTY;
+		} else {
+		  snap.register(pc);
+		  buf[offset++] = (byte) pc.getCode();
+		}
+	  }
+	}
+	return offset;
+  }
+  /*****************************************************
+   * Bytes needed by pack(), independent of cards in play
+   */
+  public int packedSize(int totalCards) {
+	return 1 + numRows * (numRows + 1) / 2;
+  }
+  /*****************************************************************************
+   * Restore the pyramid written by pack(). Any selection is cleared.
+   */
+  public int unpack(byte[] buf, int offset, ModelSnapshot snap) {
+	numCards = buf[offset++];
+	for(int r = 1; r <= numRows; r++) {
+	  for(int p = 1; p <= r; p++) {
+		byte code = buf[offset++];
+		if(code == EMPTY) {
+		  pyrArray[r][p] = null;
+		  continue;
+		}
+
+		Card c = snap.take(code);
+		if((c instanceof PositionCard) && (((PositionCard) c).getRow() == r) && (((PositionCard) c).getPosition() == p)) {
+		  pyrArray[r][p] = (PositionCard) c;
+		} else {
+		  pyrArray[r][p] = new PositionCard(c, r, p);
+		}
+	  }
+	}
+
+	selectedRow = selectedPos = -1;
+	hasChanged();
+	return offset;
+  }
   /**********************
    * print name as string
    */
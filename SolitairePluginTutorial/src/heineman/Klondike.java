@@ -4,9 +4,10 @@ import ks.common.controller.SolitaireMouseMotionAdapter;
 import ks.common.controller.SolitaireReleasedAdapter;
 import ks.common.games.Solitaire;
 import ks.common.games.SolitaireUndoAdapter;
-import ks.common.games.SolvableSolitaire;
+import ks.common.games.SafeMoveSolitaire;
 import ks.common.model.BuildablePile;
 import ks.common.model.Card;
+import ks.common.model.CardCode;
 import ks.common.model.Deck;
 import ks.common.model.Move;
 import ks.common.model.Pile;
@@ -54,7 +55,7 @@ import heineman.klondike.*;
  * Creation date: (11/9/01 9:44:37 PM)
  * @author: George T. Heineman (heineman@cs.wpi.edu)
  */
-public class Klondike extends Solitaire implements SolvableSolitaire {
+public class Klondike extends Solitaire implements SafeMoveSolitaire {
 
 	/** Each Game has a Deck. */
 	protected Deck deck;
@@ -95,6 +96,13 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 	/** View for the number of cards left in the deck. */
 	protected IntegerView numLeftView;
 
+	/** Re-targeted by availableMoves() to test candidate moves; only valid ones are copied. */
+	private final MoveWasteToFoundationMove wasteToFoundationProbe = new MoveWasteToFoundationMove (null, null, null);
+	private final FlipCardMove flipProbe = new FlipCardMove (null);
+	private final MoveCardToFoundationMove cardToFoundationProbe = new MoveCardToFoundationMove (null, null, null);
+	private final MoveColumnMove columnProbe = new MoveColumnMove (null, null, null, 0);
+	private final MoveWasteToPileMove wasteToPileProbe = new MoveWasteToPileMove (null, null, null);
+
 	/**
 	 * Klondike constructor comment.
 	 */
@@ -104,6 +112,9 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 	/**
 	 * Return list of available moves. 
 	 * <p>
+	 * Candidates are tested by re-targeting a single probe move of each kind, so
+	 * only the moves returned are allocated.
+	 * <p>
 	 * @return java.util.Enumeration
 	 */
 	public java.util.Enumeration<Move> availableMoves() {
@@ -112,9 +123,8 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 		// 1. try to move waste Pile to foundation
 		if (!wastePile.empty()) {
 			for (int f = 1; f<=4; f++) {
-				Move m = new MoveWasteToFoundationMove (wastePile, null, foundation[f]);
-				if (m.valid (this)) {
-					v.addElement (m);
+				if (wasteToFoundationProbe.reset (wastePile, null, foundation[f]).valid (this)) {
+					v.addElement (wasteToFoundationProbe.copy());
 					break;
 				}
 			}
@@ -127,9 +137,8 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 				continue;
 
 			if (piles[c].getNumFaceUp() == 0) {
-				Move m = new FlipCardMove (piles[c]);
-				if (m.valid(this))
-					v.addElement (m);
+				if (flipProbe.reset (piles[c]).valid(this))
+					v.addElement (flipProbe.copy());
 			}
 		}
 
@@ -142,9 +151,8 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 			// See if we can move this one card.
 			for (int f = 1; f <=4; f++) {
 
-				Move m = new MoveCardToFoundationMove (piles[c], null, foundation[f]);
-				if (m.valid(this)) {
-					v.addElement (m);
+				if (cardToFoundationProbe.reset (piles[c], null, foundation[f]).valid(this)) {
+					v.addElement (cardToFoundationProbe.copy());
 				}
 			}
 		}
@@ -169,9 +177,8 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 					if (piles[c2].empty()) continue;   // nothing to reveal? no progress...
 				}
 
-				Move m = new MoveColumnMove (piles[c], piles[c2], null, numFaceUp);
-				if (m.valid (this)) {
-					v.addElement (m);
+				if (columnProbe.reset (piles[c], piles[c2], null, numFaceUp).valid (this)) {
+					v.addElement (columnProbe.copy());
 					break;   // once a move is established, that's it for this column
 				}
 			}
@@ -180,9 +187,8 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 		// 5. Try to move waste down to an available pile (left to right)
 		if (!wastePile.empty()) {
 			for (int c = 1; c<=7; c++) {
-				Move m = new MoveWasteToPileMove (wastePile, null, piles[c]);
-				if (m.valid (this)) {
-					v.addElement (m);
+				if (wasteToPileProbe.reset (wastePile, null, piles[c]).valid (this)) {
+					v.addElement (wasteToPileProbe.copy());
 				}
 			}
 		}
@@ -197,6 +203,57 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 
 		return v.elements();
 	}
+	/**
+	 * Return a move that can always be made at once, or null if there is none.
+	 * <p>
+	 * A face-down card on top of a column is always turned over. A card may always
+	 * go up to its foundation if it is an Ace or a Two, or if both cards of the
+	 * opposite colour and next lower rank are already on the foundations, since
+	 * nothing else could be built on it in a column.
+	 * <p>
+	 * @return ks.common.model.Move
+	 */
+	public Move safeMove() {
+		for (int c = 1; c <= 7; c++) {
+			if (!piles[c].empty() && piles[c].getNumFaceUp() == 0) {
+				if (flipProbe.reset (piles[c]).valid (this))
+					return flipProbe.copy();
+			}
+		}
+
+		if (!wastePile.empty() && safeToFoundation (wastePile.peekCode())) {
+			for (int f = 1; f <= 4; f++) {
+				if (wasteToFoundationProbe.reset (wastePile, null, foundation[f]).valid (this))
+					return wasteToFoundationProbe.copy();
+			}
+		}
+
+		for (int c = 1; c <= 7; c++) {
+			if (piles[c].empty() || !safeToFoundation (piles[c].peekCode()))
+				continue;
+
+			for (int f = 1; f <= 4; f++) {
+				if (cardToFoundationProbe.reset (piles[c], null, foundation[f]).valid (this))
+					return cardToFoundationProbe.copy();
+			}
+		}
+
+		return null;
+	}
+	/**
+	 * Determine whether no card still in play could be built on the card with the given code.
+	 */
+	protected boolean safeToFoundation (int code) {
+		int rank = CardCode.rank (code);
+		if (rank <= Card.TWO) return true;
+
+		int below = 0;   // opposite colour cards of rank - 1 on the foundations
+		for (int f = 1; f <= 4; f++) {
+			if (!foundation[f].empty() && CardCode.oppositeColor (code, foundation[f].peekCode()) && foundation[f].peekRank() >= rank - 1)
+				below++;
+		}
+		return below == 2;
+	}
 	/**
 	 * getName method comment.
 	 */
@@ -228,7 +285,24 @@ public class Klondike extends Solitaire implements SolvableSolitaire {
 		initializeView();
 		initializeControllers();
 
-		// prepare game by dealing facedown cards to all columns, then one face up
+		deal();
+	}
+
+	/**
+	 * Deal the hand against the model alone, so it can be solved headless.
+	 * <p>
+	 * @since V2.3
+	 */
+	protected boolean initializeHeadless() {
+		initializeModel(getSeed());
+		deal();
+		return true;
+	}
+
+	/**
+	 * Prepare game by dealing facedown cards to all columns, then one face up.
+	 */
+	private void deal() {
 		for (int pileNum=1; pileNum <= 7; pileNum++) {
 			for (int num = 2; num <= pileNum; num++) {
 				Card c = deck.get();
@@ -21,6 +21,18 @@ public FlipCardMove(BuildablePile bp) {
 	
 	pile = bp;
 }
+/**
+ * Re-target this move, so a single instance can be used to test many candidate moves.
+ * <p>
+ * Takes the same parameters as the constructor.
+ * @return this move.
+ * @since V2.3
+ */
+public FlipCardMove reset(BuildablePile bp) {
+	pile = bp;
+
+	return this;
+}
 /**
  * Flip card in this BuildablePile
  * <p>
@@ -30,6 +30,20 @@ public MoveCardToFoundationMove(BuildablePile bp, Card card, Pile foundation) {
 	this.draggingCard = card;
 	this.foundation = foundation;
 }
+/**
+ * Re-target this move, so a single instance can be used to test many candidate moves.
+ * <p>
+ * Takes the same parameters as the constructor.
+ * @return this move.
+ * @since V2.3
+ */
+public MoveCardToFoundationMove reset(BuildablePile bp, Card card, Pile foundation) {
+	buildablePile = bp;
+	this.draggingCard = card;
+	this.foundation = foundation;
+
+	return this;
+}
 /**
  * Each move should knows how to execute itself.
  * <p>
@@ -2,8 +2,9 @@ package heineman.klondike;
 
 import ks.common.games.Solitaire;
 import ks.common.model.BuildablePile;
+import ks.common.model.Card;
+import ks.common.model.CardCode;
 import ks.common.model.Column;
-import ks.common.model.Stack;
 
 
 /**
@@ -44,6 +45,21 @@ public MoveColumnMove(BuildablePile fromPile, BuildablePile toPile, Column colum
 	this.columnBeingDragged = columnBeingDragged;
 	this.numCards = numCards;
 }
+/**
+ * Re-target this move, so a single instance can be used to test many candidate moves.
+ * <p>
+ * Takes the same parameters as the constructor.
+ * @return this move.
+ * @since V2.3
+ */
+public MoveColumnMove reset(BuildablePile fromPile, BuildablePile toPile, Column columnBeingDragged, int numCards) {
+	from = fromPile;
+	to = toPile;
+	this.columnBeingDragged = columnBeingDragged;
+	this.numCards = numCards;
+
+	return this;
+}
 /**
  * Each move should knows how to execute itself.
  * <p>
@@ -58,9 +74,7 @@ public boolean doMove (Solitaire theGame) {
 
 	// EXECUTE:
 	if (columnBeingDragged == null) {
-		from.select (numCards);
-		Stack st = from.getSelected ();
-		to.push (st);
+		from.moveTopTo (to, numCards);
 	} else {
 		// already have the column
 		to.push (columnBeingDragged);
@@ -75,11 +89,8 @@ public boolean undo(ks.common.games.Solitaire game) {
 	// VALIDATE:
 	if (to.count() < numCards) return false;
 	
-	// We know the number of cards moved, so we select them, extract the
-	// stack, and move them all back to the fromPile.
-	to.select (numCards);
-	Stack st = to.getSelected ();
-	from.push (st);
+	// We know the number of cards moved, so we move them all back to the fromPile.
+	to.moveTopTo (from, numCards);
 
 	return true;
 }
@@ -92,15 +103,13 @@ public boolean valid (Solitaire game) {
 	// VALIDATION:
 	boolean validation = false;
 
-	// If move hasn't happened yet, we must extract the desired column to move.
-	Column targetColumn;
+	// If move hasn't happened yet, the bottom card of the column is still within from.
+	// Cards are examined by their codes, so that probing creates no Card.
+	int bottom;
 	if (columnBeingDragged == null) {
-		targetColumn = new Column();
-		for (int i = numCards; i>=1; i--) {
-			targetColumn.add (from.peek(from.count() - i));
-		}
+		bottom = from.peekCode (from.count() - numCards);
 	} else {
-		targetColumn = columnBeingDragged;
+		bottom = columnBeingDragged.peekCode (0);
 	}
 	
 	//   moveColumnBetweenPiles(Column col, BuildablePile to) : to.empty()
@@ -108,7 +117,8 @@ public boolean valid (Solitaire game) {
 		validation = true;
 
 	// 	  moveColumnBetweenPiles(Column col,BuildablePile to) : not col.empty() and col.bottom() == to.rank() - 1 and to.peek().faceUp() == true
-	if (!to.empty() && (targetColumn.peek(0).getRank() == to.rank() - 1) && (targetColumn.peek(0).oppositeColor(to.peek())) && to.peek().isFaceUp()) 
+	int top = to.peekCode();
+	if (!to.empty() && (CardCode.rank (bottom) == CardCode.rank (top) - 1) && CardCode.oppositeColor (bottom, top) && CardCode.isFaceUp (top)) 
 		validation = true;
 
 	return validation;
@@ -33,6 +33,20 @@ public MoveWasteToFoundationMove(Pile waste, Card draggingCard, Pile foundation)
 	this.draggingCard = draggingCard;
 	this.foundation = foundation;
 }
+/**
+ * Re-target this move, so a single instance can be used to test many candidate moves.
+ * <p>
+ * Takes the same parameters as the constructor.
+ * @return this move.
+ * @since V2.3
+ */
+public MoveWasteToFoundationMove reset(Pile waste, Card draggingCard, Pile foundation) {
+	this.waste = waste;
+	this.draggingCard = draggingCard;
+	this.foundation = foundation;
+
+	return this;
+}
 /**
  * Each move should knows how to execute itself.
  * <p>
@@ -86,20 +100,22 @@ public boolean valid(ks.common.games.Solitaire game) {
 	boolean validation = false;
 
 	// If draggingCard is null, then no action has yet taken place.
-	Card c;
+	int rank, suit;
 	if (draggingCard == null) {
 		if (waste.empty()) return false;   // NOTHING TO EXTRACT!
-		c = waste.peek();
+		rank = waste.peekRank();
+		suit = waste.peekSuit();
 	} else {
-		c = draggingCard;
+		rank = draggingCard.getRank();
+		suit = draggingCard.getSuit();
 	}
 	
 	// moveWasteToFoundation(waste,pile) : not foundation.empty() and not waste.empty() and 
-	if (!foundation.empty() && (c.getRank() == foundation.rank() + 1) && (c.getSuit() == foundation.suit()))
+	if (!foundation.empty() && (rank == foundation.rank() + 1) && (suit == foundation.suit()))
 		validation = true;
 
 		// moveWasteToFoundation(waste,pile) : foundation.empty() and card.rank() == ACE
-	if (foundation.empty() && (c.getRank() == Card.ACE))
+	if (foundation.empty() && (rank == Card.ACE))
 		validation = true;
 
 	return validation;
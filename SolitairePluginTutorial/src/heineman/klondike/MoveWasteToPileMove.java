@@ -3,6 +3,7 @@ package heineman.klondike;
 import ks.common.games.Solitaire;
 import ks.common.model.BuildablePile;
 import ks.common.model.Card;
+import ks.common.model.CardCode;
 import ks.common.model.Pile;
 
 /**
@@ -28,6 +29,20 @@ public MoveWasteToPileMove(Pile waste, Card cardBeingDragged, BuildablePile toPi
 	this.to = toPile;
 	this.cardBeingDragged = cardBeingDragged;
 }
+/**
+ * Re-target this move, so a single instance can be used to test many candidate moves.
+ * <p>
+ * Takes the same parameters as the constructor.
+ * @return this move.
+ * @since V2.3
+ */
+public MoveWasteToPileMove reset(Pile waste, Card cardBeingDragged, BuildablePile toPile) {
+	this.waste = waste;
+	this.to = toPile;
+	this.cardBeingDragged = cardBeingDragged;
+
+	return this;
+}
 /**
  * Each move should knows how to execute itself.
  * <p>
@@ -77,7 +92,9 @@ public boolean valid (Solitaire theGame) {
 
 	if (cardBeingDragged == null) {
 		// 	  moveColumnBetweenPiles(Waste from,BuildablePile to) : not to.empty() and waste.rank() == to.rank() - 1 and to.peek().faceUp()
-		if (!to.empty() && (waste.rank() == to.rank() - 1) && (waste.peek().oppositeColor(to.peek())) && to.peek().isFaceUp()) 
+		int card = waste.peekCode();
+		int top = to.peekCode();
+		if (!to.empty() && !waste.empty() && (CardCode.rank (card) == CardCode.rank (top) - 1) && CardCode.oppositeColor (card, top) && CardCode.isFaceUp (top)) 
 			validation = true;
 
 	} else {
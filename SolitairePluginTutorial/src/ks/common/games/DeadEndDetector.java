@@ -0,0 +1,26 @@
+package ks.common.games;
+
+/**
+ * Recognizes positions that can no longer be won, so that a
+ * <code>SolitaireSolver</code> need not search the moves that follow them.
+ * <p>
+ * The solver asks about every new position it reaches, so the check should be
+ * cheap and must leave the game unchanged. It must also be conservative: a
+ * position reported as a dead end is never searched, so a detector that errs
+ * may lose a win, while one that misses a dead end merely costs a larger
+ * search.
+ * <p>
+ * @since V2.3
+ */
+public interface DeadEndDetector {
+
+	/**
+	 * Determine whether the current position of the game certainly cannot be
+	 * won.
+	 * 
+	 * @param game
+	 *            the game, in the position to be checked.
+	 * @return boolean true only if no sequence of moves wins the game.
+	 */
+	boolean isDeadEnd(Solitaire game);
+}
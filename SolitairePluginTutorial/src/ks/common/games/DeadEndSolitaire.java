@@ -0,0 +1,23 @@
+package ks.common.games;
+
+/**
+ * A <code>SolvableSolitaire</code> game that can recognize positions that can
+ * no longer be won.
+ * <p>
+ * <code>SolitaireSolver</code> does not search the moves that follow a
+ * position the detector of such a game reports as a dead end, unless another
+ * detector is given to <code>setDeadEndDetector</code>.
+ *
+ * @since V2.3
+ */
+public interface DeadEndSolitaire extends SolvableSolitaire {
+
+	/**
+	 * Return the detector of positions of this game that can no longer be
+	 * won.
+	 * <p>
+	 * 
+	 * @return ks.common.games.DeadEndDetector
+	 */
+	DeadEndDetector getDeadEndDetector();
+}
@@ -0,0 +1,23 @@
+package ks.common.games;
+
+/**
+ * A <code>SolvableSolitaire</code> game that knows how best to estimate its
+ * distance from a win.
+ * <p>
+ * <code>SolitaireSolver</code> guides its best-first strategies by the heuristic
+ * of such a game, unless another is given to <code>setHeuristic</code>; other
+ * games get a <code>ScoreHeuristic</code>.
+ *
+ * @since V2.3
+ */
+public interface HeuristicSolitaire extends SolvableSolitaire {
+
+	/**
+	 * Return the heuristic that estimates how far a position of this game is
+	 * from a win.
+	 * <p>
+	 * 
+	 * @return ks.common.games.SolverHeuristic
+	 */
+	SolverHeuristic getHeuristic();
+}
@@ -0,0 +1,363 @@
+package ks.common.games;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import ks.common.model.ModelSnapshot;
+import ks.common.model.Move;
+
+/**
+ * Searches for a win on several threads at once.
+ * <p>
+ * The moves available near the current position are expanded breadth first
+ * until there are a few tasks for every thread. Each task is the sequence of
+ * moves (by their index within <code>availableMoves()</code>) leading to one of
+ * these shallow positions. Every thread plays its own instance of the game,
+ * dealt headless from the same seed and brought to the current position with a
+ * <code>ModelSnapshot</code>; it takes tasks from a shared queue, plays the
+ * moves of each, and searches from there with a headless
+ * <code>SolitaireSolver</code>. All threads share one
+ * <code>TranspositionTable</code>, so no position is searched by two threads.
+ * Since another thread may evict any entry of the table, each solver also keeps
+ * the positions on its own path apart, and each thread has a large stack for
+ * its recursive search.
+ * <p>
+ * Once any thread wins the game, every other search is stopped and the
+ * remaining tasks are abandoned. The winning moves are then played again on the
+ * game being solved, from their indices: those of the winning task, then those
+ * left in place by the winning thread's solver (each followed by its safe
+ * moves). As with <code>SolitaireSolver.solve()</code>, they are recorded by
+ * the game after the moves it had already made.
+ * <p>
+ * The game must provide a public no-argument constructor and support
+ * <code>Solitaire.resetHeadless()</code>:
+ * <pre>
+ * game.setSeed (seed);
+ * game.resetHeadless();
+ * boolean solved = new ParallelSolitaireSolver (game, numThreads).solve();
+ * </pre>
+ *
+ * @since V2.3
+ */
+public class ParallelSolitaireSolver {
+
+	/** Tasks prepared for each thread, so threads with easy tasks find more work. */
+	public static final int TASKS_PER_THREAD = 8;
+
+	/** Moves beyond the current position at which tasks are split off. */
+	public static final int MAX_SPLIT_DEPTH = 6;
+
+	/** Stack for each searching thread, since the search recurses once per move. */
+	public static final long STACK_SIZE = 64L << 20;
+
+	/** Game being solved. */
+	protected final Solitaire theGame;
+
+	/** Number of threads searching. */
+	protected final int numThreads;
+
+	/** Positions already reached, shared by every thread. */
+	protected TranspositionTable table = new TranspositionTable();
+
+	/** The solvers at work, so they can be stopped. */
+	protected final List<SolitaireSolver> solvers = new ArrayList<SolitaireSolver>();
+
+	/** Stop when this is raised to true. */
+	protected volatile boolean terminate = false;
+
+	/** Was the game won by the last search. */
+	protected volatile boolean won = false;
+
+	/** Moves of the winning task, and then those of the winning thread's solver, by index. */
+	protected int[] winningTask, winningLine;
+
+	/** Number of moves tried by all threads. */
+	protected long numMoves;
+
+	/** Number of tasks prepared by the last search. */
+	protected int numTasks;
+
+	/**
+	 * ParallelSolitaireSolver constructor.
+	 *
+	 * @param theGame
+	 *            a Solitaire game that implements <code>SolvableSolitaire</code>.
+	 * @param numThreads
+	 *            number of threads to search with.
+	 */
+	public ParallelSolitaireSolver(Solitaire theGame, int numThreads) {
+		if (!(theGame instanceof SolvableSolitaire)) {
+			throw new IllegalArgumentException(
+					"ParallelSolitaireSolver::ParallelSolitaireSolver() given Solitaire plugin that does not implement SolvableSolitaire.");
+		}
+		if (numThreads < 1) {
+			throw new IllegalArgumentException(
+					"ParallelSolitaireSolver::ParallelSolitaireSolver() received invalid number of threads.");
+		}
+
+		this.theGame = theGame;
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Set the table shared by the threads.
+	 *
+	 * @param table
+	 *            the table; must not be null.
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		if (table == null) {
+			throw new IllegalArgumentException(
+					"ParallelSolitaireSolver::setTranspositionTable() received null table.");
+		}
+		this.table = table;
+	}
+
+	/**
+	 * Return the table shared by the threads.
+	 *
+	 * @return TranspositionTable
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Return the number of moves tried by all threads during the last search.
+	 *
+	 * @return long
+	 */
+	public long getNumMoves() {
+		return numMoves;
+	}
+
+	/**
+	 * Return the number of tasks prepared by the last search.
+	 *
+	 * @return int
+	 */
+	public int getNumTasks() {
+		return numTasks;
+	}
+
+	/**
+	 * Determine whether the last search won the game.
+	 *
+	 * @return boolean
+	 */
+	public boolean hasWon() {
+		return won;
+	}
+
+	/**
+	 * Stop the search, on every thread.
+	 */
+	public void stop() {
+		terminate = true;
+		stopSolvers();
+	}
+
+	/** Stop every solver at work. */
+	protected void stopSolvers() {
+		synchronized (solvers) {
+			for (SolitaireSolver s : solvers) {
+				s.stop();
+			}
+		}
+	}
+
+	/**
+	 * Search for a win, returning once every thread has finished. When the game
+	 * is won, the winning position is left in place.
+	 *
+	 * @return boolean true if the game was won.
+	 */
+	public boolean solve() {
+		numMoves = 0;
+		won = theGame.hasWon();
+		winningTask = winningLine = null;
+		table.clear();
+		if (won) return true;
+
+		ModelSnapshot snap = new ModelSnapshot(theGame.getModel());
+		final byte[] start = snap.newBuffer();
+		snap.snapshot(start);
+
+		List<int[]> tasks = split(start);
+		numTasks = tasks.size();
+		final ConcurrentLinkedQueue<int[]> queue = new ConcurrentLinkedQueue<int[]>(tasks);
+
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(null, r, "ParallelSolitaireSolver", STACK_SIZE);
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		try {
+			List<Future<?>> results = new ArrayList<Future<?>>();
+			for (int t = 0; t < numThreads; t++) {
+				results.add(pool.submit(new Runnable() {
+					public void run() {
+						work(start, queue);
+					}
+				}));
+			}
+
+			for (Future<?> f : results) {
+				f.get();
+			}
+		} catch (InterruptedException ie) {
+			stopSolvers();
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ee) {
+			stopSolvers();
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new RuntimeException(cause);
+		} finally {
+			pool.shutdownNow();
+			synchronized (solvers) {
+				solvers.clear();
+			}
+		}
+
+		if (won) {
+			// the game is still in the start position.
+			play(theGame, winningTask);
+			new SolitaireSolver(theGame, true, null).play(winningLine, null);
+		}
+		return won;
+	}
+
+	/**
+	 * Expand the moves from the start position breadth first, until there are
+	 * enough tasks for every thread. Positions without moves are dropped; a
+	 * position that is already won becomes a task of its own.
+	 */
+	protected List<int[]> split(byte[] start) {
+		Solitaire game = newGame();
+		ModelSnapshot snap = new ModelSnapshot(game.getModel());
+
+		List<int[]> tasks = new ArrayList<int[]>();
+		tasks.add(new int[0]);
+		for (int d = 0; d < MAX_SPLIT_DEPTH && tasks.size() < numThreads * TASKS_PER_THREAD; d++) {
+			List<int[]> next = new ArrayList<int[]>();
+			for (int[] path : tasks) {
+				snap.restore(start);
+				game.undoLog.clear();
+				game.moves.clear();
+				play(game, path);
+				if (game.hasWon()) {
+					next.add(path);
+					continue;
+				}
+
+				int n = count(((SolvableSolitaire) game).availableMoves());
+				for (int i = 0; i < n; i++) {
+					int[] child = new int[path.length + 1];
+					System.arraycopy(path, 0, child, 0, path.length);
+					child[path.length] = i;
+					next.add(child);
+				}
+			}
+
+			tasks = next;
+		}
+
+		return tasks;
+	}
+
+	/**
+	 * Take tasks from the queue until it is empty or the search is over. Run by
+	 * each thread on its own instance of the game.
+	 */
+	protected void work(byte[] start, ConcurrentLinkedQueue<int[]> queue) {
+		Solitaire game = newGame();
+		ModelSnapshot snap = new ModelSnapshot(game.getModel());
+		SolitaireSolver solver = new SolitaireSolver(game, true, table);
+		synchronized (solvers) {
+			solvers.add(solver);
+		}
+		if (terminate || won) return;
+
+		int[] path;
+		while (!terminate && !won && (path = queue.poll()) != null) {
+			snap.restore(start);
+			game.undoLog.clear();
+			game.moves.clear();
+			play(game, path);
+
+			boolean found = solver.search(path.length);
+			synchronized (this) {
+				numMoves += solver.getNumMoves();
+				if (found && !won) {
+					winningTask = path;
+					winningLine = solver.getTrail();
+					won = true;
+				}
+			}
+
+			if (found) {
+				stopSolvers();
+			}
+		}
+	}
+
+	/** Play and record the moves of a task, each given by its index within the available moves. */
+	protected void play(Solitaire game, int[] path) {
+		for (int idx : path) {
+			Enumeration<Move> en = ((SolvableSolitaire) game).availableMoves();
+			Move m = null;
+			for (int i = 0; i <= idx; i++) {
+				m = en.nextElement();
+			}
+
+			m.doMove(game);
+			game.pushMove(m);
+		}
+	}
+
+	/** Count the elements of an enumeration. */
+	static int count(Enumeration<Move> en) {
+		int n = 0;
+		if (en == null) return n;
+
+		while (en.hasMoreElements()) {
+			en.nextElement();
+			n++;
+		}
+		return n;
+	}
+
+	/** Create another instance of the game, dealt headless from the same seed. */
+	protected Solitaire newGame() {
+		Solitaire game;
+		try {
+			game = theGame.getClass().getDeclaredConstructor().newInstance();
+		} catch (NoSuchMethodException nsme) {
+			throw new IllegalStateException("ParallelSolitaireSolver::newGame() " + theGame.getName() + " has no constructor without arguments.");
+		} catch (InstantiationException ie) {
+			throw new IllegalStateException("ParallelSolitaireSolver::newGame() unable to create " + theGame.getName());
+		} catch (IllegalAccessException iae) {
+			throw new IllegalStateException("ParallelSolitaireSolver::newGame() unable to create " + theGame.getName());
+		} catch (InvocationTargetException ite) {
+			throw new IllegalStateException("ParallelSolitaireSolver::newGame() unable to create " + theGame.getName() + ": " + ite.getCause());
+		}
+
+		game.setSeed(theGame.getSeed());
+		if (!game.resetHeadless()) {
+			throw new IllegalStateException("ParallelSolitaireSolver::newGame() " + theGame.getName() + " cannot be played headless.");
+		}
+		return game;
+	}
+}
@@ -0,0 +1,30 @@
+package ks.common.games;
+
+import ks.common.model.Move;
+
+/**
+ * A <code>SolvableSolitaire</code> game that can also tell which moves never hurt.
+ * <p>
+ * A move is safe when making it at once cannot turn a position that could be won
+ * into one that cannot; a card that nothing could still be built on, for
+ * instance, may always go to its foundation. <code>SolitaireSolver</code> makes
+ * safe moves as soon as they are available, as a single forced step, rather than
+ * branching on them.
+ * <p>
+ * A game need only return safe moves it is sure of: returning null where a
+ * move would have been safe costs a larger search, while returning a move
+ * that is not safe may lose a win.
+ *
+ * @since V2.3
+ */
+public interface SafeMoveSolitaire extends SolvableSolitaire {
+
+	/**
+	 * Return a safe move available in the current position, or null if there
+	 * is none. The same position must always yield the same move.
+	 * <p>
+	 * 
+	 * @return ks.common.model.Move
+	 */
+	Move safeMove();
+}
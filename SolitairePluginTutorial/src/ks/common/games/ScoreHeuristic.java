@@ -0,0 +1,44 @@
+package ks.common.games;
+
+/**
+ * Estimates the distance to a win as the points still missing from the score.
+ * <p>
+ * In games such as Klondike and FourSeasons the score counts the cards on the
+ * foundations, and each card needs at least one more move to get there, so this
+ * estimate is admissible. It is the heuristic a <code>SolitaireSolver</code> uses
+ * when none is given.
+ * <p>
+ * @since V2.3
+ */
+public class ScoreHeuristic implements SolverHeuristic {
+
+	/** Score of a won game, unless given to the constructor. */
+	public static final int DEFAULT_WINNING_SCORE = 52;
+
+	/** Score of a won game. */
+	protected final int winningScore;
+
+	/**
+	 * ScoreHeuristic constructor, for games won with a score of 52.
+	 */
+	public ScoreHeuristic() {
+		this(DEFAULT_WINNING_SCORE);
+	}
+
+	/**
+	 * ScoreHeuristic constructor.
+	 * 
+	 * @param winningScore
+	 *            score of a won game.
+	 */
+	public ScoreHeuristic(int winningScore) {
+		this.winningScore = winningScore;
+	}
+
+	public int estimate(Solitaire game) {
+		if (game.hasWon())
+			return 0;
+
+		return Math.max(1, winningScore - game.getScoreValue());
+	}
+}
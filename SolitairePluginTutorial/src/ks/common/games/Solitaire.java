@@ -2,6 +2,8 @@ package ks.common.games;
 
 import java.awt.Dimension;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Vector;
 
 import ks.common.controller.SolitaireMouseMotionAdapter;
 import ks.common.controller.SolitaireReleasedAdapter;
@@ -9,6 +11,9 @@ import ks.common.model.Element;
 import ks.common.model.Model;
 import ks.common.model.Move;
 import ks.common.model.MutableInteger;
+import ks.common.model.Stack;
+import ks.common.model.UndoLog;
+import ks.common.model.Zobrist;
 import ks.common.view.CardImages;
 import ks.common.view.CardImagesLoader;
 import ks.common.view.Container;
@@ -115,9 +120,22 @@ abstract public class Solitaire {
 	/** Name of special numLeft object. */
 	public static final String numLeftName = "numLeft";
 
-	/** Stack of recent Moves */
+	/**
+	 * History of recent Moves, one int per move. Moves that encode themselves
+	 * (see <code>Move.encode()</code>) are recorded only here.
+	 */
+	protected UndoLog undoLog = new UndoLog();
+
+	/**
+	 * Moves that cannot be encoded, oldest first; each has an OBJECT_MOVE entry
+	 * in undoLog. Since V2.3 encoded moves are not kept here, so subclasses
+	 * should make and undo moves through pushMove() and popMove().
+	 */
 	protected java.util.Stack<Move> moves = new java.util.Stack<Move>();
 
+	/** Entry in undoLog for a move whose Move object is retained in moves. */
+	protected static final int OBJECT_MOVE = -2;
+
 	/** The Model. */
 	protected Model model = new Model();
 
@@ -147,6 +165,32 @@ abstract public class Solitaire {
 		return model.addElement(me);
 	}
 
+	/**
+	 * Adds the given Element, playing the given role, to the model maintained by
+	 * this Solitaire Variation.
+	 * <p>
+	 * The Element is assigned a handle (see <code>Element.getHandle()</code>) through
+	 * which it can be retrieved by <code>getModelElement(int)</code> without a lookup
+	 * by name.
+	 * 
+	 * @exception IllegalArgumentException
+	 *                if Element is null.
+	 * @param me
+	 *            Element to be added to model.
+	 * @param role
+	 *            role of the Element, such as <code>Model.FOUNDATION</code>
+	 * @return boolean false if an Element with same name already exists in the model
+	 * @since V2.3
+	 */
+	protected boolean addModelElement(Element me, int role) {
+		if (me == null) {
+			throw new IllegalArgumentException(
+					"Solitaire::addModelElement() invoked with null Element.");
+		}
+
+		return model.addElement(me, role);
+	}
+
 	/**
 	 * Adds the given Widget to the view maintained by this Solitaire Variation.
 	 * <p>
@@ -221,6 +265,19 @@ abstract public class Solitaire {
 		return model.getElement(name);
 	}
 
+	/**
+	 * Returns the Model Element maintained by this Solitaire Variation with
+	 * the given handle.
+	 * 
+	 * @param handle
+	 *            the handle of the desired Model Element
+	 * @return The Element with the given handle, or null if it has been removed.
+	 * @since V2.3
+	 */
+	public Element getModelElement(int handle) {
+		return model.getElement(handle);
+	}
+
 	/**
 	 * Returns all Model Element maintained by this Solitaire variation.
 	 * 
@@ -230,14 +287,111 @@ abstract public class Solitaire {
 		return model.elements();
 	}
 
+	/**
+	 * Returns the Model maintained by this Solitaire variation.
+	 * <p>
+	 * Useful for tools (such as <code>ModelSnapshot</code>) that operate on the model
+	 * as a whole.
+	 * 
+	 * @return the Model of this game.
+	 * @since V2.3
+	 */
+	public Model getModel() {
+		return model;
+	}
+
+	/**
+	 * Return a 64-bit hash of the current position of the game.
+	 * <p>
+	 * The key combines the Zobrist hash maintained by every <code>Stack</code> in the
+	 * model with the position of that Stack within the model, so the cost is
+	 * proportional to the number of Stacks rather than the number of cards. Two
+	 * instances of the same variation in the same position have the same key.
+	 * Model Elements that are not Stacks do not contribute.
+	 * 
+	 * @return long
+	 * @since V2.3
+	 */
+	public long getPositionKey() {
+		long h = 0;
+		for (int i = 0; i < model.size(); i++) {
+			Element e = model.elementAt(i);
+			if (e instanceof Stack) {
+				h ^= Zobrist.mix(((Stack) e).getHashKey() + (i + 1) * 0x9E3779B97F4A7C15L);
+			}
+		}
+		return h;
+	}
+
 	/**
 	 * Return all moves made so far within this game.
 	 * <p>
+	 * Encoded moves are reconstructed by <code>decodeMove(int)</code>, so their
+	 * Move objects are not the ones originally pushed.
 	 * 
 	 * @return Enumeration Move objects that make up the history of the game.
 	 */
 	public Enumeration<Move> getMoves() {
-		return moves.elements();
+		Vector<Move> history = new Vector<Move>(undoLog.size());
+		Iterator<Move> objects = moves.iterator();
+		for (int i = 0; i < undoLog.size(); i++) {
+			int entry = undoLog.get(i);
+			history.add((entry == OBJECT_MOVE) ? objects.next() : decodeMove(entry));
+		}
+		return history.elements();
+	}
+
+	/**
+	 * Reconstruct a move from the value returned by its <code>encode()</code> method.
+	 * <p>
+	 * Variations whose moves encode themselves must override this method; the
+	 * default implementation returns null since, by default, no move is encoded.
+	 * 
+	 * @param entry
+	 *            an encoded move
+	 * @return Move the decoded move, ready to be undone.
+	 * @since V2.3
+	 */
+	protected Move decodeMove(int entry) {
+		return null;
+	}
+
+	/**
+	 * Return the log in which the history of this game is recorded.
+	 * 
+	 * @return UndoLog
+	 * @since V2.3
+	 */
+	public UndoLog getUndoLog() {
+		return undoLog;
+	}
+
+	/**
+	 * Limit the number of moves that can be undone. Once the limit is reached,
+	 * the oldest move is forgotten whenever a new one is made.
+	 * 
+	 * @param limit
+	 *            maximum number of moves to retain, or
+	 *            <code>UndoLog.UNBOUNDED</code>
+	 * @since V2.3
+	 */
+	public void setUndoLimit(int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException(
+					"Solitaire::setUndoLimit() received invalid limit " + limit);
+		}
+
+		while (limit != UndoLog.UNBOUNDED && undoLog.size() > limit) {
+			forget(undoLog.removeOldest());
+		}
+		undoLog.setLimit(limit);
+	}
+
+	/** Discard the Move object of an entry that has dropped out of the log. */
+	private void forget(int entry) {
+		if (entry == OBJECT_MOVE) {
+			moves.remove(0);
+		}
 	}
 
 	/**
@@ -365,15 +519,22 @@ abstract public class Solitaire {
 	 */
 	protected Move popMove() {
 		// Return null if the stack of moves is empty.
-		if (moves.isEmpty())
+		if (undoLog.isEmpty())
 			return null;
 
 		// pop most recent.
-		return (Move) moves.pop();
+		int entry = undoLog.pop();
+		if (entry == OBJECT_MOVE) {
+			return moves.pop();
+		}
+		return decodeMove(entry);
 	}
 
 	/**
 	 * Pushes given move onto our stack of existing moves.
+	 * <p>
+	 * If the move can be encoded (see <code>Move.encode()</code>) only its encoding
+	 * is recorded, and the Move object itself is not retained.
 	 * 
 	 * @return boolean
 	 * @param m
@@ -381,7 +542,12 @@ abstract public class Solitaire {
 	 *            solitaire game.
 	 */
 	public boolean pushMove(Move m) {
-		moves.push(m);
+		int entry = m.encode();
+		if (entry == UndoLog.NONE) {
+			moves.push(m);
+			entry = OBJECT_MOVE;
+		}
+		forget(undoLog.push(entry));
 		return true;
 	}
 
@@ -390,10 +556,51 @@ abstract public class Solitaire {
 	 * redrawn.
 	 */
 	public void refreshWidgets() {
-		container.refreshWidgets();
+		// nothing to refresh when played headless
+		if (container != null) {
+			container.refreshWidgets();
+		}
 	}
 
 
+	/**
+	 * Start a new hand of this game without any view, so that it can be played
+	 * against its model alone (typically by a <code>SolitaireSolver</code>),
+	 * even within a JVM running with <code>java.awt.headless=true</code>.
+	 * <p>
+	 * The game must not have been given a Container. The hand is dealt from the
+	 * current seed (see <code>setSeed</code>).
+	 * 
+	 * @return boolean false if this variation cannot be played headless.
+	 * @since V2.3
+	 */
+	public boolean resetHeadless() {
+		model.removeAllElements();
+
+		// reset moves
+		undoLog.clear();
+		moves.clear();
+
+		setScore();
+		setNumberCardsLeft();
+
+		return initializeHeadless();
+	}
+
+	/**
+	 * Initialize the model and deal a hand, without creating any view or
+	 * controller; invoked by <code>resetHeadless()</code>.
+	 * <p>
+	 * Variations that can be played headless override this method. The default
+	 * implementation does nothing and returns false.
+	 * 
+	 * @return boolean true if the hand was dealt.
+	 * @since V2.3
+	 */
+	protected boolean initializeHeadless() {
+		return false;
+	}
+
 	/**
 	 * User has requested to play hand again.
 	 */
@@ -411,7 +618,8 @@ abstract public class Solitaire {
 		model.removeAllElements();
 
 		// reset moves
-		moves = new java.util.Stack<Move>();
+		undoLog.clear();
+		moves.clear();
 
 		// set score and numCardsLeft
 		setScore();
@@ -517,8 +725,10 @@ abstract public class Solitaire {
 		Move m = popMove();
 		// unable to undo
 		if (m == null) {
-			// signal our disapproval.
-			java.awt.Toolkit.getDefaultToolkit().beep();
+			// signal our disapproval (there is no one to hear it when headless).
+			if (container != null) {
+				java.awt.Toolkit.getDefaultToolkit().beep();
+			}
 			return false;
 		}
 
@@ -564,7 +774,9 @@ abstract public class Solitaire {
 		score.setValue(sc);
 		
 		// update changes
-        container.updateScore(sc);
+		if (container != null) {
+			container.updateScore(sc);
+		}
 	}
 
 	/**
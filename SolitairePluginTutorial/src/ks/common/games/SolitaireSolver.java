@@ -1,15 +1,66 @@
 package ks.common.games;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.Vector;
 import java.util.Enumeration;
 
+import ks.common.model.Model;
+import ks.common.model.ModelSnapshot;
 import ks.common.model.Move;
 import ks.common.view.Container;
 
 /**
  * Starts separate thread to try each available move until the game is over.
- * Make use of the fact that there are no drags, only instantaneous moves. So we
- * can simply call refreshAllWidgets() to ensure all changes are reflected.
+ * <p>
+ * The search is depth first, unless <code>setStrategy</code> makes it best
+ * first or weighted A*, guided by a <code>SolverHeuristic</code>; these keep
+ * the positions on their frontier as <code>ModelSnapshot</code> buffers, so
+ * they use memory in proportion to the number of positions reached. Every
+ * position reached is remembered by its <code>Solitaire.getPositionKey()</code>
+ * in a bounded <code>TranspositionTable</code>, and is not searched again when
+ * reached along another sequence of moves. Since the table may forget a
+ * position, a depth-first search also keeps the exact set of positions on its
+ * current path, so a cycle of moves never leads it back to one of them, and it
+ * goes no deeper than its depth limit (see <code>setDepthLimit</code>). The
+ * moves of a <code>SafeMoveSolitaire</code> game that are known never to hurt
+ * are made as soon as they are available, as a single forced step after the
+ * move that allowed them, and a <code>DeadEndDetector</code> (see
+ * <code>setDeadEndDetector</code>) may recognize positions that can no longer
+ * be won, whose moves are then not searched. A game supplies its own heuristic
+ * by implementing <code>HeuristicSolitaire</code>, and its own detector by
+ * implementing <code>DeadEndSolitaire</code>.
+ * <p>
+ * The model does not notify its views of each move tried; the widgets are
+ * refreshed at most once per progress interval (50 milliseconds by default),
+ * so the speed of the search is not limited by rendering. A headless solver
+ * never touches the Container at all; it can solve a game that was dealt by
+ * <code>Solitaire.resetHeadless()</code>, and reports its progress only to its
+ * <code>SolverListener</code>.
+ * <p>
+ * A search may be limited to a number of moves tried, or to a time (see
+ * <code>setNodeBudget</code> and <code>setTimeBudget</code>). However it ends,
+ * <code>getResult()</code> then tells why, along with the line of moves that
+ * reached the highest score. A long search may also be saved to a checkpoint
+ * file every so often (see <code>setCheckpoint</code>), and picked up again
+ * where it stopped by <code>resume</code>, even after the JVM was restarted:
+ * <pre>
+ * game.setSeed (seed);
+ * game.resetHeadless();
+ * SolitaireSolver solver = new SolitaireSolver (game, true);
+ * solver.setTimeBudget (30000);
+ * solver.setCheckpoint (file, 60000);
+ * solver.solve();
+ * SolverResult result = solver.getResult();
+ *
+ * solver.resume (file);   // later, perhaps in another JVM
+ * </pre>
  * <p>
  * Creation date: (11/21/01 10:25:52 PM)
  * 
@@ -17,32 +68,65 @@ import ks.common.view.Container;
  */
 public class SolitaireSolver implements Runnable {
 
-	// record a state of possible moves, and our current one to process.
-	class PairMove implements Enumeration<Move> {
-		protected int idx; // where in Vector we are.
-
-		protected Vector<Move> moves; // the vector of moves
+	/**
+	 * Position on the frontier of a best-first search, with the move (by its
+	 * index within <code>availableMoves()</code>) that reached it from its parent.
+	 */
+	static class Node implements Comparable<Node> {
+		final Node parent;
+		final int moveIndex;
+		byte[] state; // released once expanded
+		final int depth;
+		final double priority;
+		final long order; // breaks ties first come, first served
 
-		public PairMove(Vector<Move> v) {
-			this.idx = 0;
-			this.moves = v;
+		Node(Node parent, int moveIndex, byte[] state, int depth, double priority, long order) {
+			this.parent = parent;
+			this.moveIndex = moveIndex;
+			this.state = state;
+			this.depth = depth;
+			this.priority = priority;
+			this.order = order;
 		}
 
-		// reset back to first
-		public void reset() {
-			idx = 0;
+		public int compareTo(Node n) {
+			if (priority != n.priority)
+				return (priority < n.priority) ? -1 : 1;
+			if (depth != n.depth)
+				return (depth > n.depth) ? -1 : 1;
+			return (order < n.order) ? -1 : ((order == n.order) ? 0 : 1);
 		}
+	}
 
-		// more to go?
-		public boolean hasMoreElements() {
-			return idx < moves.size();
-		}
+	/**
+	 * Strategy that tries each available move in turn, backtracking when stuck.
+	 * @since V2.3
+	 */
+	public static final int DEPTH_FIRST = 0;
 
-		// next Move in the set.
-		public Move nextElement() {
-			return moves.elementAt(idx++);
-		}
-	}
+	/**
+	 * Strategy that expands the frontier position with the smallest estimate.
+	 * @since V2.3
+	 */
+	public static final int BEST_FIRST = 1;
+
+	/**
+	 * Strategy that expands the position minimizing depth + weight * estimate.
+	 * @since V2.3
+	 */
+	public static final int WEIGHTED_ASTAR = 2;
+
+	/**
+	 * Default weight of the estimate in weighted A*.
+	 * @since V2.3
+	 */
+	public static final double DEFAULT_WEIGHT = 2.0;
+
+	/**
+	 * Default number of moves a depth-first search may make beyond its start.
+	 * @since V2.3
+	 */
+	public static final int DEFAULT_DEPTH_LIMIT = 1000;
 
 	/** Solvable game. */
 	protected Solitaire theGame = null;
@@ -51,10 +135,236 @@ public class SolitaireSolver implements Runnable {
 	protected SolvableSolitaire solvableInterface = null;
 
 	/** Number of moves tried so far. */
-	protected int numMoves = 0;
+	protected long numMoves = 0;
+
+	/**
+	 * Source of safe moves (null unless the game is a SafeMoveSolitaire).
+	 * @since V2.3
+	 */
+	protected SafeMoveSolitaire safeMoves = null;
+
+	/**
+	 * Number of safe moves made so far.
+	 * @since V2.3
+	 */
+	protected long numSafeMoves = 0;
+
+	/**
+	 * Recognizes positions that cannot be won (may be null).
+	 * @since V2.3
+	 */
+	protected DeadEndDetector deadEnds = null;
+
+	/**
+	 * Number of positions recognized as dead ends so far.
+	 * @since V2.3
+	 */
+	protected long numDeadEnds = 0;
+
+	/**
+	 * Most moves a search may try (zero for no limit).
+	 * @since V2.3
+	 */
+	protected long nodeBudget = 0;
+
+	/**
+	 * Longest a search may take, in milliseconds (zero for no limit).
+	 * @since V2.3
+	 */
+	protected long timeBudget = 0;
+
+	/**
+	 * Most moves a depth-first search may make beyond its start.
+	 * @since V2.3
+	 */
+	protected int depthLimit = DEFAULT_DEPTH_LIMIT;
+
+	/**
+	 * Has the current search left positions unsearched at its depth limit.
+	 * @since V2.3
+	 */
+	protected boolean cutOff = false;
+
+	/**
+	 * Keys of the positions on the path from the start of a depth-first search
+	 * to the current position.
+	 * @since V2.3
+	 */
+	protected Set<Long> path = new HashSet<Long>();
+
+	/**
+	 * When the current search must end (zero for never).
+	 * @since V2.3
+	 */
+	protected long deadline;
+
+	/**
+	 * Has the current search run out of its budget.
+	 * @since V2.3
+	 */
+	protected boolean exhausted = false;
+
+	/**
+	 * Highest score reached by the current search, and the moves that reached it.
+	 * @since V2.3
+	 */
+	protected int bestScore;
+	protected List<Move> bestLine;
+
+	/**
+	 * Number of moves in the history of the game when the search started.
+	 * @since V2.3
+	 */
+	protected int firstMove;
+
+	/**
+	 * Greatest depth reached by the current search.
+	 * @since V2.3
+	 */
+	protected int maxDepth;
+
+	/**
+	 * Depth of the position where the current search started.
+	 * @since V2.3
+	 */
+	protected int startDepth;
+
+	/**
+	 * When the current search started, less the time it took before it was resumed.
+	 * @since V2.3
+	 */
+	protected long startTime;
+
+	/**
+	 * Index of the move being tried at each level of a depth-first search.
+	 * @since V2.3
+	 */
+	protected int[] trail = new int[64];
+
+	/**
+	 * Number of levels of the trail whose move is in place.
+	 * @since V2.3
+	 */
+	protected int trailLength;
+
+	/**
+	 * The trail when the highest score was reached.
+	 * @since V2.3
+	 */
+	protected int[] bestTrail;
+
+	/**
+	 * File to which the search is saved (may be null), and how often, in milliseconds.
+	 * @since V2.3
+	 */
+	protected File checkpointFile = null;
+	protected long checkpointInterval;
+
+	/**
+	 * When the search was last saved, and whether it is time to save it again.
+	 * @since V2.3
+	 */
+	protected long lastCheckpoint;
+	protected boolean checkpointDue;
+
+	/**
+	 * Has the search been saved as it stopped.
+	 * @since V2.3
+	 */
+	protected boolean suspended;
+
+	/**
+	 * Snapshot of the position where the current search started (null unless it may be saved).
+	 * @since V2.3
+	 */
+	protected byte[] origin;
+
+	/**
+	 * Search being resumed, until it is back where it stopped.
+	 * @since V2.3
+	 */
+	SolverCheckpoint resumed = null;
+
+	/**
+	 * Outcome of the last search.
+	 * @since V2.3
+	 */
+	protected SolverResult result = null;
 
 	/** Stop when this is raised to true. */
-	protected boolean terminate = false;
+	protected volatile boolean terminate = false;
+
+	/**
+	 * Never refresh widgets or contact the Container.
+	 * @since V2.3
+	 */
+	protected boolean headless = false;
+
+	/**
+	 * Was the game won by the last search.
+	 * @since V2.3
+	 */
+	protected boolean won = false;
+
+	/**
+	 * Default time between progress reports, in milliseconds.
+	 * @since V2.3
+	 */
+	public static final long DEFAULT_PROGRESS_INTERVAL = 50;
+
+	/**
+	 * Time between progress reports, in milliseconds.
+	 * @since V2.3
+	 */
+	protected long progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+	/**
+	 * When progress was last reported.
+	 * @since V2.3
+	 */
+	protected long lastProgress;
+
+	/**
+	 * Should views be brought up to date at each progress report.
+	 * @since V2.3
+	 */
+	protected boolean refreshViews;
+
+	/**
+	 * Informed of progress (may be null).
+	 * @since V2.3
+	 */
+	protected SolverListener listener = null;
+
+	/**
+	 * Positions already reached (may be null).
+	 * @since V2.3
+	 */
+	protected TranspositionTable table;
+
+	/**
+	 * Number of moves from the initial position to the current one.
+	 * @since V2.3
+	 */
+	protected int depth = 0;
+
+	/**
+	 * One of DEPTH_FIRST, BEST_FIRST or WEIGHTED_ASTAR.
+	 * @since V2.3
+	 */
+	protected int strategy = DEPTH_FIRST;
+
+	/**
+	 * Guides the best-first strategies (null for a ScoreHeuristic).
+	 * @since V2.3
+	 */
+	protected SolverHeuristic heuristic = null;
+
+	/**
+	 * Weight of the estimate in weighted A*.
+	 * @since V2.3
+	 */
+	protected double weight = DEFAULT_WEIGHT;
 
 	/** Thread in which the loadAllCards will run. */
 	protected java.lang.Thread thread = null;
@@ -66,48 +376,988 @@ public class SolitaireSolver implements Runnable {
 	 * otherwise an exception will result.
 	 */
 	public SolitaireSolver(Solitaire theGame) {
+		this(theGame, false);
+	}
+
+	/**
+	 * SolitaireSolver constructor.
+	 * <p>
+	 * A headless solver works on the model alone and never refreshes widgets, nor
+	 * announces a win to the Container.
+	 * 
+	 * @param theGame
+	 *            a Solitaire game that implements <code>SolvableSolitaire</code>.
+	 * @param headless
+	 *            true to solve without any view.
+	 * @since V2.3
+	 */
+	public SolitaireSolver(Solitaire theGame, boolean headless) {
+		this(theGame, headless, new TranspositionTable());
+	}
+
+	/**
+	 * SolitaireSolver constructor.
+	 * <p>
+	 * The given table may be shared with other solvers working on other instances
+	 * of the same game.
+	 * 
+	 * @param theGame
+	 *            a Solitaire game that implements <code>SolvableSolitaire</code>.
+	 * @param headless
+	 *            true to solve without any view.
+	 * @param table
+	 *            the table in which reached positions are remembered, or null for none.
+	 * @since V2.3
+	 */
+	public SolitaireSolver(Solitaire theGame, boolean headless, TranspositionTable table) {
 		super();
 
 		if (theGame instanceof SolvableSolitaire) {
 			this.theGame = theGame;
 			this.solvableInterface = (SolvableSolitaire) theGame;
+			if (theGame instanceof SafeMoveSolitaire) {
+				this.safeMoves = (SafeMoveSolitaire) theGame;
+			}
+			if (theGame instanceof HeuristicSolitaire) {
+				this.heuristic = ((HeuristicSolitaire) theGame).getHeuristic();
+			}
+			if (theGame instanceof DeadEndSolitaire) {
+				this.deadEnds = ((DeadEndSolitaire) theGame).getDeadEndDetector();
+			}
 		} else {
 			throw new IllegalArgumentException(
 					"SolitaireSolver::SolitaireSolver() given Solitaire plugin that does not implement SolitaireSolver.");
 		}
+
+		this.headless = headless;
+		this.table = table;
+	}
+
+	/**
+	 * Set the listener to be informed of progress.
+	 * 
+	 * @param listener
+	 *            the listener, or null for none.
+	 * @since V2.3
+	 */
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Set the time between progress reports (and refreshes of the widgets).
+	 * 
+	 * @param millis
+	 *            minimum interval, in milliseconds.
+	 * @since V2.3
+	 */
+	public void setProgressInterval(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException(
+					"SolitaireSolver::setProgressInterval() received negative interval.");
+		}
+		this.progressInterval = millis;
+	}
+
+	/**
+	 * Set the table in which reached positions are remembered. Without one, the
+	 * search revisits every position each time it is reached along another
+	 * sequence of moves.
+	 * 
+	 * @param table
+	 *            the table, or null for none.
+	 * @since V2.3
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Return the table in which reached positions are remembered.
+	 * 
+	 * @return TranspositionTable (may be null).
+	 * @since V2.3
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Choose how the search proceeds.
+	 * 
+	 * @param strategy
+	 *            one of DEPTH_FIRST (the default), BEST_FIRST or WEIGHTED_ASTAR.
+	 * @since V2.3
+	 */
+	public void setStrategy(int strategy) {
+		if (strategy < DEPTH_FIRST || strategy > WEIGHTED_ASTAR) {
+			throw new IllegalArgumentException(
+					"SolitaireSolver::setStrategy() received invalid strategy " + strategy);
+		}
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Return how the search proceeds.
+	 * 
+	 * @return int one of DEPTH_FIRST, BEST_FIRST or WEIGHTED_ASTAR.
+	 * @since V2.3
+	 */
+	public int getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Set the heuristic guiding the BEST_FIRST and WEIGHTED_ASTAR strategies,
+	 * in place of the one a <code>HeuristicSolitaire</code> game supplies.
+	 * 
+	 * @param heuristic
+	 *            the heuristic, or null for a <code>ScoreHeuristic</code>.
+	 * @since V2.3
+	 */
+	public void setHeuristic(SolverHeuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Set the detector of positions that can no longer be won, which is asked
+	 * about every position reached, in place of the one a
+	 * <code>DeadEndSolitaire</code> game supplies.
+	 * 
+	 * @param deadEnds
+	 *            the detector, or null to search every position.
+	 * @since V2.3
+	 */
+	public void setDeadEndDetector(DeadEndDetector deadEnds) {
+		this.deadEnds = deadEnds;
+	}
+
+	/**
+	 * Return the number of positions the search recognized as dead ends so
+	 * far; the moves following each were not searched.
+	 * 
+	 * @return long
+	 * @since V2.3
+	 */
+	public long getNumDeadEnds() {
+		return numDeadEnds;
+	}
+
+	/**
+	 * Limit each search to the given number of moves tried. A search that
+	 * reaches its budget ends with the status <code>SolverResult.EXHAUSTED</code>.
+	 * 
+	 * @param nodes
+	 *            most moves to try, or zero for no limit.
+	 * @since V2.3
+	 */
+	public void setNodeBudget(long nodes) {
+		if (nodes < 0) {
+			throw new IllegalArgumentException(
+					"SolitaireSolver::setNodeBudget() received negative budget " + nodes);
+		}
+		this.nodeBudget = nodes;
+	}
+
+	/**
+	 * Limit each depth-first search to the given number of moves beyond the
+	 * position where it started, not counting safe moves. Each move takes a
+	 * few frames of the stack of the thread that searches. A search that left
+	 * positions unsearched at its limit, and was not won, ends with the status
+	 * <code>SolverResult.EXHAUSTED</code>.
+	 * 
+	 * @param moves
+	 *            most moves to make, at least one.
+	 * @since V2.3
+	 */
+	public void setDepthLimit(int moves) {
+		if (moves < 1) {
+			throw new IllegalArgumentException(
+					"SolitaireSolver::setDepthLimit() received invalid limit " + moves);
+		}
+		this.depthLimit = moves;
+	}
+
+	/**
+	 * Return the number of moves a depth-first search may make beyond its start.
+	 * 
+	 * @return int
+	 * @since V2.3
+	 */
+	public int getDepthLimit() {
+		return depthLimit;
+	}
+
+	/**
+	 * Limit each search to the given time. A search that reaches its budget ends
+	 * with the status <code>SolverResult.EXHAUSTED</code>.
+	 * 
+	 * @param millis
+	 *            longest time to search, in milliseconds, or zero for no limit.
+	 * @since V2.3
+	 */
+	public void setTimeBudget(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException(
+					"SolitaireSolver::setTimeBudget() received negative budget " + millis);
+		}
+		this.timeBudget = millis;
+	}
+
+	/**
+	 * Save each search to the given file every so often, and once more when it
+	 * runs out of its budget or is stopped, so that <code>resume</code> can pick
+	 * it up where it stopped. The file is deleted once a search is won or lost,
+	 * since there is nothing left to resume.
+	 * 
+	 * @param file
+	 *            the checkpoint file, or null to save nothing.
+	 * @param millis
+	 *            time between checkpoints, in milliseconds.
+	 * @since V2.3
+	 */
+	public void setCheckpoint(File file, long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException(
+					"SolitaireSolver::setCheckpoint() received negative interval " + millis);
+		}
+		this.checkpointFile = file;
+		this.checkpointInterval = millis;
+	}
+
+	/**
+	 * Resume the search saved in the given checkpoint, exactly where it
+	 * stopped, and carry on until it ends.
+	 * <p>
+	 * The game must be of the class that was searched, dealt from the same
+	 * seed. It is brought back to the position where the saved search started,
+	 * and the moves it recorded are discarded. The strategy, the weight of
+	 * weighted A*, whether safe moves are made, the transposition table and
+	 * the counters are those that were saved; a heuristic or dead-end
+	 * detector other than the game's own must be set again, as it was.
+	 * A node budget counts the moves tried before the search was saved, a time
+	 * budget only the time since it was resumed.
+	 * 
+	 * @param file
+	 *            a checkpoint written by a solver with <code>setCheckpoint</code>.
+	 * @return boolean true if the game was won.
+	 * @exception IOException
+	 *                if the checkpoint cannot be read.
+	 * @since V2.3
+	 */
+	public boolean resume(File file) throws IOException {
+		SolverCheckpoint cp = SolverCheckpoint.read(file, table);
+		if (!cp.gameClass.equals(theGame.getClass().getName()) || cp.seed != theGame.getSeed()) {
+			throw new IllegalArgumentException("SolitaireSolver::resume() checkpoint is of " + cp.gameClass
+					+ " dealt from seed " + cp.seed + ", not " + theGame.getClass().getName()
+					+ " dealt from seed " + theGame.getSeed());
+		}
+
+		ModelSnapshot snap = new ModelSnapshot(theGame.getModel());
+		if (cp.start.length != snap.capacity()) {
+			throw new IOException("SolitaireSolver::resume() checkpoint does not fit the model of "
+					+ theGame.getName());
+		}
+		snap.restore(cp.start);
+		theGame.undoLog.clear();
+		theGame.moves.clear();
+
+		strategy = cp.strategy;
+		weight = cp.weight;
+		setSafeMoves(cp.safeMoves);
+		table = cp.table;
+		resumed = cp;
+		return search(cp.startDepth);
+	}
+
+	/**
+	 * Return the outcome of the last search, or null if none has ended.
+	 * 
+	 * @return SolverResult
+	 * @since V2.3
+	 */
+	public SolverResult getResult() {
+		return result;
+	}
+
+	/**
+	 * Set the weight of the estimate in weighted A*. A weight of one finds the
+	 * shortest win when the heuristic is admissible; larger weights find a win
+	 * sooner, trusting the heuristic more.
+	 * 
+	 * @param weight
+	 *            weight of the estimate, no smaller than zero.
+	 * @since V2.3
+	 */
+	public void setWeight(double weight) {
+		if (!(weight >= 0)) {
+			throw new IllegalArgumentException(
+					"SolitaireSolver::setWeight() received invalid weight " + weight);
+		}
+		this.weight = weight;
+	}
+
+	/**
+	 * Decide whether the safe moves of a <code>SafeMoveSolitaire</code> game are
+	 * made at once (the default), or branched on like any other move.
+	 * 
+	 * @param eager
+	 *            true to make safe moves at once.
+	 * @since V2.3
+	 */
+	public void setSafeMoves(boolean eager) {
+		this.safeMoves = (eager && theGame instanceof SafeMoveSolitaire) ? (SafeMoveSolitaire) theGame : null;
+	}
+
+	/**
+	 * Return the number of safe moves made by the search so far, which are
+	 * not counted among the moves tried.
+	 * 
+	 * @return long
+	 * @since V2.3
+	 */
+	public long getNumSafeMoves() {
+		return numSafeMoves;
+	}
+
+	/**
+	 * Return the number of moves tried by the search so far.
+	 * 
+	 * @return long
+	 * @since V2.3
+	 */
+	public long getNumMoves() {
+		return numMoves;
+	}
+
+	/**
+	 * Determine whether the last search won the game.
+	 * 
+	 * @return boolean
+	 * @since V2.3
+	 */
+	public boolean hasWon() {
+		return won;
+	}
+
+	/**
+	 * Determine whether this solver runs without any view.
+	 * 
+	 * @return boolean
+	 * @since V2.3
+	 */
+	public boolean isHeadless() {
+		return headless;
 	}
 
 	/**
 	 * Do the dirty work. Creation date: (10/2/01 5:17:01 PM)
 	 */
 	public void run() {
+		if (solve() && !headless) {
+			// we have won! Let container know...
+			Container cont = theGame.getContainer();
+			cont.wonGame();
+		}
 
-		// keep count.
-		numMoves = 0;
+		System.err.println("SolitaireSolver tried " + numMoves + " positions"
+				+ ((safeMoves == null) ? "" : " (and made " + numSafeMoves + " safe moves)")
+				+ ((deadEnds == null) ? "" : ", cut " + numDeadEnds + " dead ends")
+				+ ((table == null) ? "." : "; " + table));
+		System.err.println(result);
+	}
+
+	/**
+	 * Search for a win in the calling thread. When the game is won, the
+	 * winning moves are left in place.
+	 * 
+	 * @return boolean true if the game was won.
+	 * @since V2.3
+	 */
+	public boolean solve() {
+		if (table != null) {
+			table.clear();
+		}
 
-		PairMove pm = new PairMove(unpack(solvableInterface.availableMoves()));
-		while (pm.hasMoreElements()) {
+		return search(0);
+	}
 
-			if (terminate)
-				break; // if user terminates prematurely, stop now.
+	/**
+	 * Search for a win from the current position, which was reached by the given
+	 * number of moves. Unlike <code>solve()</code>, the positions already in the
+	 * transposition table are kept, so several solvers sharing a table can each
+	 * search part of the same game.
+	 * 
+	 * @param startDepth
+	 *            number of moves that led to the current position.
+	 * @return boolean true if the game was won.
+	 * @since V2.3
+	 */
+	protected boolean search(int startDepth) {
 
-			Move m = (Move) pm.nextElement();
-			if (tryMove(m) == false) {
-				// undo and move on...
-				// NOTE: can't just ask m to undo, since the game stack won't be
-				// updated. We thus ask the game to undo the last move made.
-				// Subtle, subtle defect: Nov-11-2003.
-				theGame.undoMove();
+		// keep count.
+		long started = System.currentTimeMillis();
+		SolverCheckpoint cp = resumed;
+		if (cp == null) {
+			startTime = started;
+			numMoves = 0;
+			numSafeMoves = 0;
+			numDeadEnds = 0;
+			maxDepth = startDepth;
+			bestScore = theGame.getScoreValue();
+			bestTrail = new int[0];
+			cutOff = false;
+			origin = null;
+			if (checkpointFile != null) {
+				ModelSnapshot snap = new ModelSnapshot(theGame.getModel());
+				origin = snap.newBuffer();
+				snap.snapshot(origin);
+			}
+		} else {
+			// carry on counting from where the saved search stopped.
+			startTime = started - cp.elapsed;
+			numMoves = cp.numMoves;
+			numSafeMoves = cp.numSafeMoves;
+			numDeadEnds = cp.numDeadEnds;
+			maxDepth = cp.maxDepth;
+			bestScore = cp.bestScore;
+			bestTrail = cp.bestPath;
+			cutOff = cp.cutOff;
+			origin = cp.start;
+		}
+		this.startDepth = depth = startDepth;
+		trailLength = 0;
+		path.clear();
+		exhausted = false;
+		suspended = checkpointDue = false;
+		deadline = (timeBudget == 0) ? 0 : started + timeBudget;
+		lastCheckpoint = started;
+		firstMove = theGame.getUndoLog().size();
+		bestLine = new ArrayList<Move>();
+		won = theGame.hasWon();
+		if (won || (cp == null && table != null && table.visit(theGame.getPositionKey(), depth))) {
+			// nothing to do: won already, or searched by somebody else.
+			finish(started);
+			return won;
+		}
+
+		// views hear of the moves only at each progress report.
+		Model model = theGame.getModel();
+		boolean notifying = model.isNotifying();
+		refreshViews = notifying && !headless;
+		model.setNotifying(false);
+		lastProgress = System.currentTimeMillis();
+
+		try {
+			won = (strategy == DEPTH_FIRST) ? depthFirst() : bestFirst();
+		} finally {
+			model.setNotifying(notifying);
+			if (!headless) {
 				theGame.refreshWidgets();
+			}
+		}
+
+		finish(started);
+		return won;
+	}
+
+	/**
+	 * Record the outcome of the search that started at the given time, and
+	 * tell the listener.
+	 * 
+	 * @since V2.3
+	 */
+	protected void finish(long started) {
+		int status;
+		if (won) {
+			status = SolverResult.WON;
+			bestScore = theGame.getScoreValue();
+			bestLine = history(firstMove);
+		} else if (terminate) {
+			status = SolverResult.STOPPED;
+		} else if (exhausted || cutOff) {
+			status = SolverResult.EXHAUSTED;
+		} else {
+			status = SolverResult.LOST;
+		}
+		result = new SolverResult(status, bestLine, bestScore, numMoves, numSafeMoves,
+				numDeadEnds, maxDepth, System.currentTimeMillis() - startTime);
+		resumed = null;
+
+		// a search that was won or lost cannot be resumed.
+		if (checkpointFile != null && (status == SolverResult.WON || status == SolverResult.LOST)) {
+			checkpointFile.delete();
+		}
+
+		if (listener != null) {
+			listener.finished(this);
+		}
+	}
+
+	/**
+	 * Return the moves made since the given one, which was the first of them.
+	 * 
+	 * @since V2.3
+	 */
+	protected List<Move> history(int first) {
+		List<Move> line = new ArrayList<Move>();
+		Enumeration<Move> en = theGame.getMoves();
+		for (int i = 0; en.hasMoreElements(); i++) {
+			Move m = en.nextElement();
+			if (i >= first) {
+				line.add(m);
+			}
+		}
+		return line;
+	}
+
+	/**
+	 * Remember the moves made so far if they reach a higher score than any
+	 * before.
+	 * 
+	 * @since V2.3
+	 */
+	protected void improved() {
+		if (theGame.getScoreValue() > bestScore) {
+			bestScore = theGame.getScoreValue();
+			bestLine = history(firstMove);
+			bestTrail = Arrays.copyOf(trail, trailLength);
+		}
+	}
+
+	/**
+	 * Try each available move in turn, recursively.
+	 * 
+	 * @return boolean true if the game was won.
+	 * @since V2.3
+	 */
+	protected boolean depthFirst() {
+		boolean resuming = (resumed != null);
+		if (resuming) {
+			bestLine = line(origin, bestTrail);
+		}
+
+		int forced = makeSafeMoves(true);
+		if (resuming) {
+			numSafeMoves -= forced; // counted before the search was saved
+		}
+		if (theGame.hasWon())
+			return true;
+		improved();
+		path.add(theGame.getPositionKey());
+
+		if (!resuming && deadEnd()) {
+			undo(forced);
+			return false;
+		}
+
+		if (expand())
+			return true;
+
+		undo(forced);
+		return false;
+	}
+
+	/**
+	 * Try each available move from the current position in turn, recursively,
+	 * keeping the index of each within the trail. A search being resumed plays
+	 * again the moves it was trying when it was saved, and carries on from the
+	 * move it was about to try.
+	 * 
+	 * @return boolean true if the game was won.
+	 * @since V2.3
+	 */
+	protected boolean expand() {
+		int level = depth - startDepth;
+		if (level >= trail.length) {
+			trail = Arrays.copyOf(trail, 2 * trail.length);
+		}
+
+		Vector<Move> moves = unpack(solvableInterface.availableMoves());
+		int i = 0;
+		boolean replaying = false;
+		if (resumed != null) {
+			i = resumed.stack[level];
+			replaying = (level < resumed.stack.length - 1);
+			if (!replaying) {
+				resumed = null; // back where it stopped
+			}
+		}
+
+		for (; i < moves.size(); i++) {
+			if (saveNow())
+				checkpoint(level, i, false);
+			if (terminate || exhausted)
+				return false; // if user terminates prematurely, or out of budget, stop now.
+
+			trail[level] = i;
+			trailLength = level + 1;
+			Move m = moves.elementAt(i);
+			if (replaying ? replayMove(m) : tryMove(m))
+				return true;
+			replaying = false;
+
+			// undo and move on...
+			// NOTE: can't just ask m to undo, since the game stack won't be
+			// updated. We thus ask the game to undo the last move made.
+			// Subtle, subtle defect: Nov-11-2003.
+			undo();
+			trailLength = level;
+
+			// cut short: the move is tried again once the search is resumed.
+			if ((terminate || exhausted) && saveNow())
+				checkpoint(level, i, true);
+		}
+		return false;
+	}
+
+	/**
+	 * Make a move that a resumed search was trying when it was saved, and carry
+	 * on from where it stopped.
+	 */
+	boolean replayMove(Move m) {
+		m.doMove(theGame);
+		theGame.pushMove(m);
+		return descend(true);
+	}
+
+	/**
+	 * Repeatedly expand the frontier position of lowest priority: its estimate
+	 * for BEST_FIRST, or its depth plus the weighted estimate for WEIGHTED_ASTAR.
+	 * Each move is made and undone at once, the resulting position being saved
+	 * in a snapshot. Once a win is found, the moves leading to it are played
+	 * again from the initial position, so they are left in place; otherwise
+	 * the initial position is restored.
+	 * 
+	 * @return boolean true if the game was won.
+	 * @since V2.3
+	 */
+	protected boolean bestFirst() {
+		SolverHeuristic h = (heuristic == null) ? new ScoreHeuristic() : heuristic;
+		ModelSnapshot snap = new ModelSnapshot(theGame.getModel());
+		byte[] start = snap.newBuffer();
+		snap.snapshot(start);
+
+		long order = 0;
+		PriorityQueue<Node> frontier = new PriorityQueue<Node>();
+		Node best;
+		int score;
+		if (resumed != null) {
+			// pick up the saved search where it stopped.
+			frontier.addAll(resumed.frontier);
+			best = resumed.best;
+			score = resumed.score;
+			order = resumed.order;
+			resumed = null;
+		} else {
+			byte[] root = start;
+			best = new Node(null, -1, null, depth, 0, 0);
+			if (makeSafeMoves(false) > 0) {
+				if (theGame.hasWon()) {
+					replay(snap, start, best, null);
+					return true;
+				}
+				root = snap.newBuffer();
+				snap.snapshot(root);
+			}
+			score = theGame.getScoreValue();
+			if (deadEnd()) {
+				bestLine(snap, start, best, score);
+				return false;
+			}
+
+			frontier.add(new Node(null, -1, root, depth, 0, order++));
+		}
+
+		while (!frontier.isEmpty()) {
+			if (saveNow())
+				save(null, frontier, best, score, order);
+			if (terminate || exhausted)
+				break; // if user terminates prematurely, or out of budget, stop now.
+
+			Node node = frontier.poll();
+			byte[] here = node.state;
+			snap.restore(here);
+			node.state = null;
+
+			Vector<Move> moves = unpack(solvableInterface.availableMoves());
+			for (int i = 0; i < moves.size(); i++) {
+				Move m = moves.elementAt(i);
+				numMoves++;
+				if (!m.doMove(theGame))
+					continue;
+				int forced = makeSafeMoves(false);
+				progress();
+
+				if (theGame.hasWon()) {
+					replay(snap, start, new Node(node, i, null, node.depth + 1, 0, order), null);
+					return true;
+				}
+
+				int d = node.depth + 1;
+				if (d > maxDepth) {
+					maxDepth = d;
+				}
+				if (theGame.getScoreValue() > score) {
+					score = theGame.getScoreValue();
+					best = new Node(node, i, null, d, 0, order);
+				}
+				if ((table == null || !table.visit(theGame.getPositionKey(), d)) && !deadEnd()) {
+					int estimate = h.estimate(theGame);
+					double priority = (strategy == BEST_FIRST) ? estimate : d + weight * estimate;
+					byte[] state = snap.newBuffer();
+					snap.snapshot(state);
+					frontier.add(new Node(node, i, state, d, priority, order++));
+				}
+				if (forced == 0) {
+					m.undo(theGame);
+				} else {
+					snap.restore(here); // safe moves were not recorded
+				}
+			}
+		}
+
+		bestLine(snap, start, best, score);
+		return false;
+	}
+
+	/** Remember the moves reaching the given node, if it improved the score, and restore the start. */
+	void bestLine(ModelSnapshot snap, byte[] start, Node best, int score) {
+		if (score > bestScore) {
+			List<Move> line = new ArrayList<Move>();
+			replay(snap, start, best, line);
+			bestScore = score;
+			bestLine = line;
+		}
+		snap.restore(start);
+	}
+
+	/**
+	 * Play the moves that reach the given node from the start, and record them,
+	 * or instead add them to the given line.
+	 */
+	void replay(ModelSnapshot snap, byte[] start, Node node, List<Move> line) {
+		int[] path = new int[node.depth - depth];
+		for (Node n = node; n.parent != null; n = n.parent) {
+			path[n.depth - depth - 1] = n.moveIndex;
+		}
+		replay(snap, start, path, line);
+	}
+
+	/**
+	 * Play the moves given by their indices from the start, each followed by
+	 * the safe moves, and record them, or instead add them to the given line.
+	 */
+	void replay(ModelSnapshot snap, byte[] start, int[] path, List<Move> line) {
+		snap.restore(start);
+		play(path, line);
+	}
+
+	/**
+	 * Play the moves given by their indices from the current position, as
+	 * replay() does from the start.
+	 */
+	void play(int[] path, List<Move> line) {
+		long counted = numSafeMoves; // these were counted when first made
+		makeSafeMoves(line == null, line);
+		for (int idx : path) {
+			Move m = unpack(solvableInterface.availableMoves()).elementAt(idx);
+			m.doMove(theGame);
+			if (line == null) {
+				theGame.pushMove(m);
 			} else {
-				// we have won! Let container know...
-				Container cont = theGame.getContainer();
-				cont.wonGame();
+				line.add(m);
+			}
+			makeSafeMoves(line == null, line);
+		}
+		numSafeMoves = counted;
+	}
+
+	/**
+	 * Return the indices of the moves a won depth-first search left in place,
+	 * which play() makes again (along with the safe moves) on another instance.
+	 */
+	int[] getTrail() {
+		return Arrays.copyOf(trail, trailLength);
+	}
+
+	/** Return the moves reaching the end of the given path from the start, which is restored. */
+	List<Move> line(byte[] start, int[] path) {
+		ModelSnapshot snap = new ModelSnapshot(theGame.getModel());
+		List<Move> line = new ArrayList<Move>();
+		replay(snap, start, path, line);
+		snap.restore(start);
+		return line;
+	}
+
+	/**
+	 * Make every safe move available, until none is left or the game is won.
+	 * 
+	 * @param record
+	 *            true to push each move onto the game, so it can be undone.
+	 * @return int the number of safe moves made.
+	 * @since V2.3
+	 */
+	protected int makeSafeMoves(boolean record) {
+		return makeSafeMoves(record, null);
+	}
+
+	/** Make every safe move available, adding each to the given line (unless null). */
+	int makeSafeMoves(boolean record, List<Move> line) {
+		if (safeMoves == null)
+			return 0;
+
+		int n = 0;
+		Move m;
+		while (!theGame.hasWon() && (m = safeMoves.safeMove()) != null) {
+			if (!m.doMove(theGame))
 				break;
+			if (record) {
+				theGame.pushMove(m);
+			}
+			if (line != null) {
+				line.add(m);
 			}
+			n++;
+		}
+		numSafeMoves += n;
+		return n;
+	}
+
+	/**
+	 * Determine whether the detector recognizes the current position as a dead
+	 * end, counting those it does.
+	 * 
+	 * @since V2.3
+	 */
+	protected boolean deadEnd() {
+		if (deadEnds == null || !deadEnds.isDeadEnd(theGame))
+			return false;
+
+		numDeadEnds++;
+		return true;
+	}
+
+	/**
+	 * Undo the most recent move of the game, without refreshing any widgets.
+	 * 
+	 * @since V2.3
+	 */
+	protected void undo() {
+		Move m = theGame.popMove();
+		if (m != null) {
+			m.undo(theGame);
+		}
+	}
+
+	/**
+	 * Undo the given number of the most recent moves of the game.
+	 * 
+	 * @since V2.3
+	 */
+	protected void undo(int n) {
+		for (int i = 0; i < n; i++) {
+			undo();
+		}
+	}
+
+	/**
+	 * Report progress, if the progress interval has elapsed since the last report.
+	 * 
+	 * @since V2.3
+	 */
+	protected void progress() {
+		long now = System.currentTimeMillis();
+		if ((nodeBudget > 0 && numMoves >= nodeBudget) || (deadline > 0 && now >= deadline)) {
+			exhausted = true;
+		}
+		if (checkpointFile != null && now - lastCheckpoint >= checkpointInterval) {
+			checkpointDue = true;
+		}
+
+		if (now - lastProgress < progressInterval)
+			return;
+		lastProgress = now;
+
+		if (refreshViews) {
+			// views learn at once of every change since the last report.
+			Model model = theGame.getModel();
+			model.setNotifying(true);
+			theGame.refreshWidgets();
+			model.setNotifying(false);
+		}
+
+		if (listener != null) {
+			listener.progress(this);
+		}
+	}
+
+	/**
+	 * Determine whether the search should be saved now: when the checkpoint
+	 * interval has elapsed, and once more as it stops.
+	 * 
+	 * @since V2.3
+	 */
+	protected boolean saveNow() {
+		return checkpointFile != null && (checkpointDue || ((terminate || exhausted) && !suspended));
+	}
+
+	/**
+	 * Save a depth-first search that is about to try the given move at the
+	 * given level, or to try it again, in which case it is not counted twice.
+	 */
+	void checkpoint(int level, int next, boolean again) {
+		int[] stack = Arrays.copyOf(trail, level + 1);
+		stack[level] = next;
+		if (again) {
+			numMoves--;
+		}
+		save(stack, null, null, 0, 0);
+		if (again) {
+			numMoves++;
 		}
+	}
 
-		System.err.println("SolitaireSolver tried " + numMoves + " positions.");
+	/**
+	 * Save the search to the checkpoint file: the given stack of a depth-first
+	 * search, or the frontier, best node, its score and the next order of a
+	 * best-first one. Failing to save is reported, but does not end the search.
+	 */
+	void save(int[] stack, PriorityQueue<Node> frontier, Node best, int score, long order) {
+		SolverCheckpoint cp = new SolverCheckpoint();
+		cp.gameClass = theGame.getClass().getName();
+		cp.seed = theGame.getSeed();
+		cp.strategy = strategy;
+		cp.weight = weight;
+		cp.safeMoves = (safeMoves != null);
+		cp.startDepth = startDepth;
+		cp.numMoves = numMoves;
+		cp.numSafeMoves = numSafeMoves;
+		cp.numDeadEnds = numDeadEnds;
+		cp.maxDepth = maxDepth;
+		cp.bestScore = bestScore;
+		cp.cutOff = cutOff;
+		cp.elapsed = System.currentTimeMillis() - startTime;
+		cp.start = origin;
+		cp.bestPath = bestTrail;
+		cp.stack = stack;
+		if (frontier != null) {
+			cp.frontier = new ArrayList<Node>(frontier);
+		}
+		cp.best = best;
+		cp.score = score;
+		cp.order = order;
+		cp.table = table;
+
+		try {
+			cp.write(checkpointFile);
+		} catch (IOException ioe) {
+			System.err.println("SolitaireSolver::save() unable to write " + checkpointFile + ": " + ioe.getMessage());
+		}
+
+		checkpointDue = false;
+		suspended = terminate || exhausted;
+		lastCheckpoint = System.currentTimeMillis();
 	}
 
 	/**
@@ -142,26 +1392,76 @@ public class SolitaireSolver implements Runnable {
 		numMoves++;
 		m.doMove(theGame);
 		theGame.pushMove(m);
-		theGame.refreshWidgets();
+		progress();
+		if (depth >= maxDepth) {
+			maxDepth = depth + 1;
+		}
 
 		if (theGame.hasWon())
 			return true; // if we have won, we are done!
+		improved();
 
-		if (terminate)
-			return false; // if user terminates prematurely, stop now.
+		if (terminate || exhausted)
+			return false; // if user terminates prematurely, or out of budget, stop now.
 
-		PairMove pm = new PairMove(unpack(solvableInterface.availableMoves()));
-		while (pm.hasMoreElements()) {
-			Move nextMove = (Move) pm.nextElement();
-			if (tryMove(nextMove) == false) {
-				// we have run out of moves on this track. Undo and move on...
-				theGame.undoMove();
-			} else {
-				return true; // we have won!
-			}
+		// safe moves follow at once; on failure they are undone there, leaving m to the caller.
+		return descend(false);
+	}
+
+	/**
+	 * Make the safe moves that follow a move, then try each move from the
+	 * position reached, unless it is on the current path already or at the
+	 * depth limit. On failure the safe moves are undone here, leaving the move
+	 * to the caller. A resumed search replaying its way back to where it
+	 * stopped does not look up the positions it passes, which are in the table
+	 * already.
+	 * 
+	 * @since V2.3
+	 */
+	boolean descend(boolean replaying) {
+		int forced = makeSafeMoves(true);
+		if (replaying) {
+			numSafeMoves -= forced; // counted before the search was saved
+		}
+		if (theGame.hasWon())
+			return true;
+		if (forced > 0) {
+			improved();
 		}
 
-		return false;
+		depth++;
+		boolean found = false;
+		Long key = theGame.getPositionKey();
+		try {
+			if (!replaying) {
+				if (path.contains(key))
+					return false; // being searched further up.
+
+				if (depth - startDepth >= depthLimit) {
+					cutOff = true;
+					return false;
+				}
+
+				if (table != null && table.visit(key, depth))
+					return false; // searched already.
+
+				if (deadEnd())
+					return false;
+			}
+
+			path.add(key);
+			try {
+				found = expand();
+			} finally {
+				path.remove(key);
+			}
+			return found;
+		} finally {
+			depth--;
+			if (!found) {
+				undo(forced);
+			}
+		}
 	}
 
 	/**
@@ -24,6 +24,13 @@ import ks.common.model.Move;
  * <p>
  * To date, numerous plugins provide solvable implementations
  * <p>
+ * Since V2.3 a plugin may also implement <code>SafeMoveSolitaire</code>, to
+ * name the moves that can always be made at once; the solver then makes them
+ * without branching. A plugin may likewise implement
+ * <code>HeuristicSolitaire</code>, to supply the estimate that guides the
+ * best-first strategies of the solver, and <code>DeadEndSolitaire</code>, to
+ * name the positions that can no longer be won.
+ * <p>
  * Creation date: (11/21/01 9:13:44 PM)
  * 
  * @author George T. Heineman (heineman@cs.wpi.edu)
@@ -0,0 +1,373 @@
+package ks.common.games;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of a search by <code>SolitaireSolver</code>, as saved to a checkpoint
+ * file so that the search can be resumed after the JVM is restarted.
+ * <p>
+ * The file is binary, written through a <code>FileChannel</code>, with every
+ * number big-endian:
+ * <pre>
+ * header      magic, version, game class, seed, strategy, weight, safe moves
+ * counters    start depth, moves, safe moves, dead ends, max depth, best score, elapsed ms,
+ *             cut off (moves, safe moves, dead ends and elapsed ms as long, the rest as int)
+ * start       snapshot of the position where the search started
+ * search      DEPTH_FIRST: the best line, then the move being tried at each level;
+ *             otherwise: every node on the paths to the frontier, the frontier,
+ *             the best node, its score and the next order
+ * table       the transposition table (capacity zero for none)
+ * </pre>
+ * Moves are recorded by their index within <code>availableMoves()</code>, as
+ * by <code>ParallelSolitaireSolver</code>; the safe moves that follow each are
+ * not recorded, since they are made again. A checkpoint is written to a
+ * temporary file first, which then replaces the previous checkpoint, so a JVM
+ * that dies while writing leaves the previous checkpoint intact.
+ * <p>
+ * @since V2.3
+ */
+final class SolverCheckpoint {
+
+	/** First bytes of every checkpoint: "KSCK". */
+	static final int MAGIC = 0x4B53434B;
+
+	/** Version of the format. */
+	static final int VERSION = 3;
+
+	/** Size of the buffer through which checkpoints are written. */
+	static final int BUFFER = 1 << 16;
+
+	/** Game searched, and the seed it was dealt from. */
+	String gameClass;
+	int seed;
+
+	/** How the search proceeds. */
+	int strategy;
+	double weight;
+	boolean safeMoves;
+
+	/** Counters of the search. */
+	int startDepth, maxDepth, bestScore;
+	long numMoves, numSafeMoves, numDeadEnds, elapsed;
+	boolean cutOff;
+
+	/** Position where the search started. */
+	byte[] start;
+
+	/** DEPTH_FIRST: the moves reaching the best score, and the move being tried at each level. */
+	int[] bestPath;
+	int[] stack;
+
+	/** Best first: positions still to expand, the one with the best score, and that score. */
+	List<SolitaireSolver.Node> frontier;
+	SolitaireSolver.Node best;
+	int score;
+	long order;
+
+	/** Positions already reached (may be null). */
+	TranspositionTable table;
+
+	/**
+	 * Write the checkpoint to the given file, replacing any previous one.
+	 */
+	void write(File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+		try {
+			raf.setLength(0);
+			Output out = new Output(raf.getChannel());
+			write(out);
+			out.flush();
+			raf.getChannel().force(false);
+		} finally {
+			raf.close();
+		}
+
+		// renameTo() will not replace a file on every platform.
+		if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+			throw new IOException("SolverCheckpoint::write() unable to replace " + file);
+		}
+	}
+
+	/** Write every part of the checkpoint. */
+	void write(Output out) throws IOException {
+		out.putInt(MAGIC);
+		out.putInt(VERSION);
+		out.putString(gameClass);
+		out.putInt(seed);
+		out.putInt(strategy);
+		out.putDouble(weight);
+		out.putInt(safeMoves ? 1 : 0);
+
+		out.putInt(startDepth);
+		out.putLong(numMoves);
+		out.putLong(numSafeMoves);
+		out.putLong(numDeadEnds);
+		out.putInt(maxDepth);
+		out.putInt(bestScore);
+		out.putLong(elapsed);
+		out.putInt(cutOff ? 1 : 0);
+		out.putBytes(start);
+
+		if (strategy == SolitaireSolver.DEPTH_FIRST) {
+			out.putInts(bestPath);
+			out.putInts(stack);
+		} else {
+			writeNodes(out);
+		}
+
+		if (table == null) {
+			out.putInt(0);
+		} else {
+			table.save(out);
+		}
+	}
+
+	/**
+	 * Write the frontier along with every node on the path to each (and to the
+	 * best node), parents before their children.
+	 */
+	void writeNodes(Output out) throws IOException {
+		Map<SolitaireSolver.Node, Integer> ids = new IdentityHashMap<SolitaireSolver.Node, Integer>();
+		List<SolitaireSolver.Node> nodes = new ArrayList<SolitaireSolver.Node>();
+		List<SolitaireSolver.Node> path = new ArrayList<SolitaireSolver.Node>();
+		List<SolitaireSolver.Node> wanted = new ArrayList<SolitaireSolver.Node>(frontier);
+		wanted.add(best);
+		for (SolitaireSolver.Node n : wanted) {
+			path.clear();
+			for (SolitaireSolver.Node p = n; p != null && !ids.containsKey(p); p = p.parent) {
+				path.add(p);
+			}
+			for (int i = path.size() - 1; i >= 0; i--) {
+				ids.put(path.get(i), nodes.size());
+				nodes.add(path.get(i));
+			}
+		}
+
+		out.putInt(nodes.size());
+		for (SolitaireSolver.Node n : nodes) {
+			out.putInt((n.parent == null) ? -1 : ids.get(n.parent));
+			out.putInt(n.moveIndex);
+			out.putInt(n.depth);
+			out.putDouble(n.priority);
+			out.putLong(n.order);
+			if (n.state == null) {
+				out.putInt(-1);
+			} else {
+				out.putBytes(n.state);
+			}
+		}
+
+		out.putInt(frontier.size());
+		for (SolitaireSolver.Node n : frontier) {
+			out.putInt(ids.get(n));
+		}
+		out.putInt(ids.get(best));
+		out.putInt(score);
+		out.putLong(order);
+	}
+
+	/**
+	 * Read the checkpoint in the given file. Its table is loaded into the given
+	 * one when their capacities agree, and otherwise into a new table.
+	 *
+	 * @exception IOException if the file cannot be read, or is not a checkpoint.
+	 */
+	static SolverCheckpoint read(File file, TranspositionTable reuse) throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		ByteBuffer in;
+		try {
+			FileChannel ch = fis.getChannel();
+			if (ch.size() > Integer.MAX_VALUE) {
+				throw new IOException("SolverCheckpoint::read() " + file + " is too large.");
+			}
+			in = ByteBuffer.allocate((int) ch.size());
+			while (in.hasRemaining()) {
+				if (ch.read(in) < 0) {
+					throw new IOException("SolverCheckpoint::read() " + file + " was cut short.");
+				}
+			}
+			in.flip();
+		} finally {
+			fis.close();
+		}
+
+		try {
+			if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+				throw new IOException("SolverCheckpoint::read() " + file + " is not a checkpoint.");
+			}
+			return read(in, reuse);
+		} catch (BufferUnderflowException bue) {
+			throw new IOException("SolverCheckpoint::read() " + file + " was cut short.");
+		} catch (IndexOutOfBoundsException ioobe) {
+			throw new IOException("SolverCheckpoint::read() " + file + " is corrupt.");
+		} catch (NegativeArraySizeException nase) {
+			throw new IOException("SolverCheckpoint::read() " + file + " is corrupt.");
+		}
+	}
+
+	/** Read every part of the checkpoint that follows the header. */
+	static SolverCheckpoint read(ByteBuffer in, TranspositionTable reuse) throws IOException {
+		SolverCheckpoint cp = new SolverCheckpoint();
+		cp.gameClass = getString(in);
+		cp.seed = in.getInt();
+		cp.strategy = in.getInt();
+		cp.weight = in.getDouble();
+		cp.safeMoves = in.getInt() != 0;
+
+		cp.startDepth = in.getInt();
+		cp.numMoves = in.getLong();
+		cp.numSafeMoves = in.getLong();
+		cp.numDeadEnds = in.getLong();
+		cp.maxDepth = in.getInt();
+		cp.bestScore = in.getInt();
+		cp.elapsed = in.getLong();
+		cp.cutOff = in.getInt() != 0;
+		cp.start = getBytes(in);
+
+		if (cp.strategy == SolitaireSolver.DEPTH_FIRST) {
+			cp.bestPath = getInts(in);
+			cp.stack = getInts(in);
+		} else {
+			cp.readNodes(in);
+		}
+
+		int capacity = in.getInt();
+		if (capacity > 0) {
+			cp.table = (reuse != null && reuse.getCapacity() == capacity) ? reuse : new TranspositionTable(capacity);
+			cp.table.load(in);
+		}
+		return cp;
+	}
+
+	/** Read the nodes written by writeNodes(). */
+	void readNodes(ByteBuffer in) throws IOException {
+		SolitaireSolver.Node[] nodes = new SolitaireSolver.Node[in.getInt()];
+		for (int i = 0; i < nodes.length; i++) {
+			int parent = in.getInt();
+			if (parent >= i) {
+				throw new IOException("SolverCheckpoint::readNodes() found node " + i + " before its parent.");
+			}
+			int moveIndex = in.getInt();
+			int depth = in.getInt();
+			double priority = in.getDouble();
+			long order = in.getLong();
+			byte[] state = getBytes(in);
+			nodes[i] = new SolitaireSolver.Node((parent < 0) ? null : nodes[parent], moveIndex, state,
+					depth, priority, order);
+		}
+
+		frontier = new ArrayList<SolitaireSolver.Node>();
+		for (int i = in.getInt(); i > 0; i--) {
+			frontier.add(nodes[in.getInt()]);
+		}
+		best = nodes[in.getInt()];
+		score = in.getInt();
+		order = in.getLong();
+	}
+
+	/** Read an array of bytes preceded by its length (-1 for null). */
+	static byte[] getBytes(ByteBuffer in) {
+		int n = in.getInt();
+		if (n < 0)
+			return null;
+
+		byte[] b = new byte[n];
+		in.get(b);
+		return b;
+	}
+
+	/** Read an array of ints preceded by its length. */
+	static int[] getInts(ByteBuffer in) {
+		int[] a = new int[in.getInt()];
+		in.asIntBuffer().get(a);
+		in.position(in.position() + 4 * a.length);
+		return a;
+	}
+
+	/** Read a string written by Output.putString(). */
+	static String getString(ByteBuffer in) throws IOException {
+		return new String(getBytes(in), "UTF-8");
+	}
+
+	/**
+	 * Writes numbers and arrays to a channel through a direct buffer.
+	 */
+	static final class Output {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void putInt(int v) throws IOException {
+			room(4);
+			buffer.putInt(v);
+		}
+
+		void putLong(long v) throws IOException {
+			room(8);
+			buffer.putLong(v);
+		}
+
+		void putDouble(double v) throws IOException {
+			room(8);
+			buffer.putDouble(v);
+		}
+
+		/** Write the length of the array, then its contents. */
+		void putBytes(byte[] b) throws IOException {
+			putInt(b.length);
+			if (b.length > buffer.remaining()) {
+				flush();
+				if (b.length > buffer.capacity()) {
+					ByteBuffer w = ByteBuffer.wrap(b);
+					while (w.hasRemaining()) {
+						channel.write(w);
+					}
+					return;
+				}
+			}
+			buffer.put(b);
+		}
+
+		/** Write the length of the array, then its contents. */
+		void putInts(int[] a) throws IOException {
+			putInt(a.length);
+			for (int v : a) {
+				putInt(v);
+			}
+		}
+
+		void putString(String s) throws IOException {
+			putBytes(s.getBytes("UTF-8"));
+		}
+
+		/** Make sure the buffer has room for the given number of bytes. */
+		private void room(int n) throws IOException {
+			if (buffer.remaining() < n) {
+				flush();
+			}
+		}
+
+		/** Write out whatever the buffer holds. */
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package ks.common.games;
+
+/**
+ * Estimates how far a position is from a win, to guide the best-first and
+ * weighted A* strategies of a <code>SolitaireSolver</code>.
+ * <p>
+ * The solver asks for an estimate of every position it adds to its frontier,
+ * right after making the move that reached it, so the estimate should be cheap
+ * and must leave the game unchanged. It need not be admissible (never more than
+ * the true number of moves still needed), although weighted A* with a weight
+ * of one then finds the shortest wins.
+ * <p>
+ * @since V2.3
+ */
+public interface SolverHeuristic {
+
+	/**
+	 * Estimate the number of moves still needed to win from the current
+	 * position of the game.
+	 * 
+	 * @param game
+	 *            the game, in the position to be estimated.
+	 * @return int non-negative estimate; zero only when the game is won.
+	 */
+	int estimate(Solitaire game);
+}
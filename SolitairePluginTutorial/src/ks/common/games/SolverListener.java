@@ -0,0 +1,30 @@
+package ks.common.games;
+
+/**
+ * Receives progress reports from a <code>SolitaireSolver</code>.
+ * <p>
+ * Reports are made from the thread running the solver, at most once per progress
+ * interval (see <code>SolitaireSolver.setProgressInterval</code>), so a listener
+ * that updates a user interface must hand the work over to its own thread.
+ * <p>
+ * @since V2.3
+ */
+public interface SolverListener {
+
+	/**
+	 * The search is under way; see <code>solver.getNumMoves()</code>.
+	 * 
+	 * @param solver
+	 *            the solver making progress.
+	 */
+	void progress(SolitaireSolver solver);
+
+	/**
+	 * The search has ended, either because the game was won, all moves were
+	 * exhausted, or the solver was stopped; see <code>solver.hasWon()</code>.
+	 * 
+	 * @param solver
+	 *            the solver that has finished.
+	 */
+	void finished(SolitaireSolver solver);
+}
@@ -0,0 +1,167 @@
+package ks.common.games;
+
+import java.util.Collections;
+import java.util.List;
+
+import ks.common.model.Move;
+
+/**
+ * Outcome of a search by <code>SolitaireSolver</code>, as returned by its
+ * <code>getResult()</code> method.
+ * <p>
+ * Besides how the search ended, the result records the best line found: the
+ * moves, from the position where the search started, that reached the highest
+ * score (for most variations, the most cards on the foundations). Once the game
+ * is won this is the winning line. A search cut short by its budget thus still
+ * tells how close it came.
+ * <p>
+ * @since V2.3
+ */
+public final class SolverResult {
+
+	/** The game was won. */
+	public static final int WON = 0;
+
+	/** Every available move was tried without winning, so the game cannot be won. */
+	public static final int LOST = 1;
+
+	/** The search ran out of its node or time budget. */
+	public static final int EXHAUSTED = 2;
+
+	/** The search was stopped by <code>SolitaireSolver.stop()</code>. */
+	public static final int STOPPED = 3;
+
+	/** Names of the statuses, for toString(). */
+	private static final String[] names = { "won", "lost", "exhausted", "stopped" };
+
+	/** How the search ended. */
+	private final int status;
+
+	/** Moves reaching the highest score, from the initial position. */
+	private final List<Move> line;
+
+	/** Highest score reached. */
+	private final int bestScore;
+
+	/** Statistics of the search. */
+	private final long numMoves, numSafeMoves, numDeadEnds;
+
+	/** Greatest depth reached by the search. */
+	private final int maxDepth;
+
+	/** Duration of the search, in milliseconds. */
+	private final long elapsed;
+
+	/**
+	 * SolverResult constructor.
+	 */
+	SolverResult(int status, List<Move> line, int bestScore, long numMoves, long numSafeMoves,
+			long numDeadEnds, int maxDepth, long elapsed) {
+		this.status = status;
+		this.line = Collections.unmodifiableList(line);
+		this.bestScore = bestScore;
+		this.numMoves = numMoves;
+		this.numSafeMoves = numSafeMoves;
+		this.numDeadEnds = numDeadEnds;
+		this.maxDepth = maxDepth;
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * Return how the search ended.
+	 * 
+	 * @return int one of WON, LOST, EXHAUSTED or STOPPED.
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Determine whether the game was won.
+	 * 
+	 * @return boolean
+	 */
+	public boolean hasWon() {
+		return status == WON;
+	}
+
+	/**
+	 * Return the moves that reached the highest score, starting from the
+	 * position where the search started (the winning moves, if the game was
+	 * won).
+	 * 
+	 * @return java.util.List
+	 */
+	public List<Move> getLine() {
+		return line;
+	}
+
+	/**
+	 * Return the highest score reached by the search.
+	 * 
+	 * @return int
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * Return the number of moves tried by the search.
+	 * 
+	 * @return long
+	 */
+	public long getNumMoves() {
+		return numMoves;
+	}
+
+	/**
+	 * Return the number of safe moves made by the search.
+	 * 
+	 * @return long
+	 */
+	public long getNumSafeMoves() {
+		return numSafeMoves;
+	}
+
+	/**
+	 * Return the number of positions recognized as dead ends.
+	 * 
+	 * @return long
+	 */
+	public long getNumDeadEnds() {
+		return numDeadEnds;
+	}
+
+	/**
+	 * Return the greatest number of moves from the initial position to any
+	 * position searched.
+	 * 
+	 * @return int
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Return the duration of the search, in milliseconds.
+	 * 
+	 * @return long
+	 */
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * Summarize the result.
+	 * <p>
+	 * Representation of the form:
+	 * <p>
+	 *    [SolverResult:status=S,best score=B,line=L moves,nodes=N,max depth=D,ms=T]
+	 * @return java.lang.String
+	 */
+	public String toString() {
+		return "[SolverResult:status=" + names[status] + ",best score=" + bestScore
+			+ ",line=" + line.size() + " moves,nodes=" + numMoves
+			+ ",max depth=" + maxDepth + ",ms=" + elapsed + "]";
+	}
+}
@@ -0,0 +1,278 @@
+package ks.common.games;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bounded memory of the positions already reached by a search.
+ * <p>
+ * Positions are identified by a 64-bit key, such as the one returned by
+ * <code>Solitaire.getPositionKey()</code>. Each entry is a single <code>long</code>
+ * within a primitive array: the high bits of the key, which are not implied by
+ * the slot it occupies, together with the depth at which the position was
+ * reached. A key is looked up in a small bucket of consecutive slots (open
+ * addressing), so the table never allocates after construction.
+ * <p>
+ * When every slot of the bucket is taken, the new position replaces the deepest
+ * entry of the bucket, provided it is no deeper itself (depth-preferred
+ * replacement). A position found near the root of the search stands for a larger
+ * subtree than one found near its leaves, and so is more valuable to remember.
+ * A position that is forgotten is searched again when next reached. Since any
+ * position may be forgotten, the table cannot keep a search from following a
+ * cycle of moves; <code>SolitaireSolver</code> keeps the positions on its
+ * current path apart for that.
+ * <p>
+ * Several threads may share a table without locking. Since an entry is a single
+ * <code>long</code>, a race between two visits can only lose an entry (whose
+ * position is then searched twice); an entry torn by a non-atomic write simply
+ * matches no key. The statistics of a shared table are approximate.
+ * <p>
+ * @since V2.3
+ */
+public final class TranspositionTable {
+
+	/** Default number of entries (eight megabytes). */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+
+	/** Largest depth that can be recorded; deeper positions are recorded at this depth. */
+	public static final int MAX_DEPTH = 0xFFFE;
+
+	/** Number of consecutive slots searched for a key. */
+	private static final int BUCKET = 4;
+
+	/** Low bits of each entry hold the depth (plus one, so no entry is zero). */
+	private static final long DEPTH_MASK = 0xFFFF;
+
+	/** The entries; zero marks an empty slot. */
+	private final long[] slots;
+
+	/** slots.length - 1. */
+	private final int mask;
+
+	/** Number of slots in use. */
+	private int size;
+
+	/** Statistics since the last clear(). */
+	private long hits, misses, replaced, dropped;
+
+	/**
+	 * Construct a table with the default capacity.
+	 */
+	public TranspositionTable() {
+		this (DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Construct a table holding at most the given number of positions.
+	 * @exception IllegalArgumentException if capacity is not a power of two no smaller than the bucket size.
+	 * @param capacity    number of entries.
+	 */
+	public TranspositionTable(int capacity) {
+		if ((capacity < BUCKET) || ((capacity & (capacity - 1)) != 0)) {
+			throw new IllegalArgumentException ("TranspositionTable::TranspositionTable() received invalid capacity " + capacity);
+		}
+
+		slots = new long [capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Record that the search has reached the given position.
+	 * <p>
+	 * Returns true if the position was already in the table, in which case it need
+	 * not be searched again. Otherwise the position is recorded, unless every slot
+	 * of its bucket holds a shallower position.
+	 *
+	 * @param key      64-bit key of the position.
+	 * @param depth    number of moves from the root of the search to the position.
+	 * @return boolean true if the position had already been reached.
+	 */
+	public boolean visit(long key, int depth) {
+		if (depth < 0) {
+			throw new IllegalArgumentException ("TranspositionTable::visit() received negative depth " + depth);
+		}
+
+		long entry = (key & ~DEPTH_MASK) | (Math.min (depth, MAX_DEPTH) + 1);
+		int home = (int) (fold (key) & mask);
+
+		int victim = -1;
+		long victimDepth = -1;
+		for (int i = 0; i < BUCKET; i++) {
+			int s = (home + i) & mask;
+			long e = slots[s];
+			if (e == 0) {
+				slots[s] = entry;
+				size++;
+				misses++;
+				return false;
+			}
+
+			if (((e ^ entry) & ~DEPTH_MASK) == 0) {
+				// reached again, possibly nearer the root.
+				if ((entry & DEPTH_MASK) < (e & DEPTH_MASK)) {
+					slots[s] = entry;
+				}
+				hits++;
+				return true;
+			}
+
+			if ((e & DEPTH_MASK) > victimDepth) {
+				victim = s;
+				victimDepth = e & DEPTH_MASK;
+			}
+		}
+
+		misses++;
+		if ((entry & DEPTH_MASK) <= victimDepth) {
+			slots[victim] = entry;
+			replaced++;
+		} else {
+			dropped++;
+		}
+		return false;
+	}
+
+	/** Fold the key so that its high bits, which are stored, also pick the slot. */
+	private static long fold(long key) {
+		return key ^ (key >>> 32);
+	}
+
+	/**
+	 * Forget every position and reset the statistics.
+	 */
+	public void clear() {
+		Arrays.fill (slots, 0);
+		size = 0;
+		hits = misses = replaced = dropped = 0;
+	}
+
+	/**
+	 * Write the capacity, statistics and entries of the table to a checkpoint.
+	 * A table that is at most two thirds full is written as its entries in use,
+	 * each after its slot; a fuller one as every slot.
+	 */
+	void save (SolverCheckpoint.Output out) throws IOException {
+		int used = 0;
+		for (long e : slots) {
+			if (e != 0) used++;
+		}
+
+		out.putInt (slots.length);
+		out.putInt (size);
+		out.putLong (hits);
+		out.putLong (misses);
+		out.putLong (replaced);
+		out.putLong (dropped);
+		boolean sparse = 3 * (long) used <= 2 * (long) slots.length;
+		out.putInt (sparse ? used : -1);
+		for (int s = 0; s < slots.length; s++) {
+			if (!sparse) {
+				out.putLong (slots[s]);
+			} else if (slots[s] != 0) {
+				out.putInt (s);
+				out.putLong (slots[s]);
+			}
+		}
+	}
+
+	/**
+	 * Replace the statistics and entries of the table with those saved by
+	 * <code>save()</code>, which follow the capacity (already read, and equal
+	 * to that of this table).
+	 */
+	void load (ByteBuffer in) throws IOException {
+		size = in.getInt();
+		hits = in.getLong();
+		misses = in.getLong();
+		replaced = in.getLong();
+		dropped = in.getLong();
+		int used = in.getInt();
+		if (used < 0) {
+			in.asLongBuffer().get (slots);
+			in.position (in.position() + 8 * slots.length);
+			return;
+		}
+
+		Arrays.fill (slots, 0);
+		for (int i = 0; i < used; i++) {
+			int s = in.getInt();
+			if (s < 0 || s >= slots.length) {
+				throw new IOException ("TranspositionTable::load() found invalid slot " + s);
+			}
+			slots[s] = in.getLong();
+		}
+	}
+
+	/**
+	 * Return the maximum number of positions the table can hold.
+	 * @return int
+	 */
+	public int getCapacity() {
+		return slots.length;
+	}
+
+	/**
+	 * Return the number of positions currently in the table.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Return the number of visits to a position already in the table.
+	 * @return long
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Return the number of visits to a position not in the table.
+	 * @return long
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Return the number of entries that were overwritten by a shallower position.
+	 * @return long
+	 */
+	public long getReplaced() {
+		return replaced;
+	}
+
+	/**
+	 * Return the number of positions that were not recorded, because their bucket
+	 * held only shallower ones.
+	 * @return long
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Return the fraction of visits that found their position in the table.
+	 * @return double between 0 and 1 (zero if there have been no visits).
+	 */
+	public double getHitRate() {
+		long visits = hits + misses;
+		return (visits == 0) ? 0 : (double) hits / visits;
+	}
+
+	/**
+	 * Summarize the statistics of the table.
+	 * <p>
+	 * Representation of the form:
+	 * <p>
+	 *    [TranspositionTable:hits=H,misses=M,hit rate=R%,size=S/C]
+	 * @return java.lang.String
+	 */
+	public String toString() {
+		return "[TranspositionTable:hits=" + hits + ",misses=" + misses
+			+ ",hit rate=" + Math.round (1000 * getHitRate()) / 10.0
+			+ "%,size=" + size + "/" + slots.length + "]";
+	}
+}
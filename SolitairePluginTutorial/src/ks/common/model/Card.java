@@ -170,6 +170,18 @@ public int compareTo(Card c) {
 	// This takes care of all possibilities
 	return rank - c.getRank();
 }
+/**
+ * Return the <code>CardCode</code> for this card, reflecting its rank, suit and
+ * face up state.
+ * <p>
+ * @return int
+ * @since V2.3
+ */
+public int getCode() {
+	int code = (suit - CLUBS) * 13 + (rank - ACE);
+	if (!faceUp) code |= CardCode.FACE_DOWN;
+	return code;
+}
 /**
  * Return a string reflective of this Card.
  * <p>
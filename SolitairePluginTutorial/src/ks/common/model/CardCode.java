@@ -0,0 +1,133 @@
+package ks.common.model;
+
+/**
+ * Canonical table of the 52 card identities, encoded as small integers.
+ * <p>
+ * A card code packs the rank, suit and face-up state of a card into a single
+ * primitive value so that hot paths (move validation, view redraw, solvers) can
+ * examine cards without creating <code>Card</code> objects. The identity of a card
+ * is a number from 0 to 51:
+ * <pre>
+ *    code = (suit - CLUBS) * 13 + (rank - ACE)
+ * </pre>
+ * so that codes are ordered ACE through KING within CLUBS, DIAMONDS, HEARTS and
+ * SPADES (the same order in which <code>Deck</code> inserts its cards). A face down
+ * card has the <code>FACE_DOWN</code> bit set; all codes fit within a byte.
+ * <p>
+ * The rank and suit of any code are resolved by table lookup.
+ * <p>
+ * @since V2.3
+ */
+public final class CardCode {
+
+	/** Number of distinct card identities. */
+	public static final int NUM_CODES = 52;
+
+	/** Bit set in a code when the card is face down. */
+	public static final int FACE_DOWN = 0x40;
+
+	/** Mask that strips the face down bit from a code, leaving the card identity. */
+	public static final int IDENTITY = 0x3F;
+
+	/** Code returned when there is no card to report (i.e., an empty Stack). */
+	public static final int NONE = -1;
+
+	/** Rank for each code (face up and face down). */
+	private static final byte[] ranks = new byte[2 * FACE_DOWN];
+
+	/** Suit for each code (face up and face down). */
+	private static final byte[] suits = new byte[2 * FACE_DOWN];
+
+	static {
+		for (int s = Card.CLUBS; s <= Card.SPADES; s++) {
+			for (int r = Card.ACE; r <= Card.KING; r++) {
+				int code = (s - Card.CLUBS) * 13 + (r - Card.ACE);
+				ranks[code] = ranks[code | FACE_DOWN] = (byte) r;
+				suits[code] = suits[code | FACE_DOWN] = (byte) s;
+			}
+		}
+	}
+
+	/** No instances. */
+	private CardCode() { }
+
+	/**
+	 * Return the (face up) code for the given rank and suit.
+	 * <p>
+	 * @exception IllegalArgumentException if rank or suit is an invalid value.
+	 * @param rank   rank of the card (ACE .. KING)
+	 * @param suit   suit of the card (CLUBS .. SPADES)
+	 * @return int
+	 */
+	public static int code(int rank, int suit) {
+		if ((rank < Card.ACE) || (rank > Card.KING)) throw new IllegalArgumentException ("CardCode::code() received invalid rank:" + rank);
+		if ((suit < Card.CLUBS) || (suit > Card.SPADES)) throw new IllegalArgumentException ("CardCode::code() received invalid suit:" + suit);
+
+		return (suit - Card.CLUBS) * 13 + (rank - Card.ACE);
+	}
+
+	/**
+	 * Return the rank of the card with the given code.
+	 * @param code   a valid card code (face up or face down)
+	 * @return int
+	 */
+	public static int rank(int code) {
+		return ranks[code];
+	}
+
+	/**
+	 * Return the suit of the card with the given code.
+	 * @param code   a valid card code (face up or face down)
+	 * @return int
+	 */
+	public static int suit(int code) {
+		return suits[code];
+	}
+
+	/**
+	 * Determine whether the given code represents a face up card.
+	 * @param code   a valid card code
+	 * @return boolean
+	 */
+	public static boolean isFaceUp(int code) {
+		return (code & FACE_DOWN) == 0;
+	}
+
+	/**
+	 * Determine whether the cards with the given codes are of opposite colors.
+	 * @param code        a valid card code
+	 * @param otherCode   a valid card code
+	 * @return boolean
+	 */
+	public static boolean oppositeColor(int code, int otherCode) {
+		return isRed (suits[code]) != isRed (suits[otherCode]);
+	}
+
+	/** Diamonds and hearts are red; clubs and spades black. */
+	private static boolean isRed(int suit) {
+		return (suit == Card.DIAMONDS) || (suit == Card.HEARTS);
+	}
+
+	/**
+	 * Return the identity of the card (0..51) regardless of its face up state.
+	 * @param code   a valid card code
+	 * @return int
+	 */
+	public static int identity(int code) {
+		return code & IDENTITY;
+	}
+
+	/**
+	 * Return a String representation of the code, matching <code>Card.toString()</code>
+	 * for unselected cards.
+	 * @param code   a valid card code, or NONE.
+	 * @return String
+	 */
+	public static String toString(int code) {
+		if (code == NONE) return "<none>";
+
+		String name = Card.toString (rank (code), suit (code));
+		if (!isFaceUp (code)) name = "[" + name + "]";
+		return name;
+	}
+}
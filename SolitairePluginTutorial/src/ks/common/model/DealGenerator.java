@@ -0,0 +1,186 @@
+package ks.common.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates the deals for a range of seeds as packed card codes, without creating
+ * any <code>Card</code> or <code>Deck</code> objects.
+ * <p>
+ * For every seed, the bytes produced are exactly the codes of the cards that
+ * <code>Deck.create(seed, strategy)</code> (or <code>MultiDeck</code>, for more than
+ * one deck) would hold, from bottom to top. Deals are handed to a
+ * <code>DealSink</code> in blocks:
+ * <pre>
+ * DealGenerator gen = new DealGenerator (ShuffleStrategy.FISHER_YATES, 1);
+ * gen.generate (1, 1000001, 4, new DealSink() {
+ *    public void deals (int firstSeed, int count, byte[] deals) {
+ *       ... deal i starts at deals[i * 52] and has seed firstSeed + i ...
+ *    }
+ * });
+ * </pre>
+ * Parallel generation splits the seed range into blocks that are dealt by a
+ * fixed pool of threads, each filling its own buffer.
+ * <p>
+ * @since V2.3
+ */
+public class DealGenerator {
+
+	/** Number of deals in each block handed to a sink. */
+	public static final int BLOCK_SIZE = 1024;
+
+	/** Algorithm used to shuffle each deal. */
+	protected final ShuffleStrategy strategy;
+
+	/** Number of decks in each deal. */
+	protected final int numDecks;
+
+	/** The cards of a freshly created (unshuffled) deck, from which every deal starts. */
+	protected final byte[] sorted;
+
+	/**
+	 * Construct a generator of deals.
+	 * @param strategy    algorithm used to shuffle each deal.
+	 * @param numDecks    number of decks per deal (1 for a Deck, more for a MultiDeck).
+	 */
+	public DealGenerator(ShuffleStrategy strategy, int numDecks) {
+		if (strategy == null) {
+			throw new IllegalArgumentException ("DealGenerator::DealGenerator() received null ShuffleStrategy.");
+		}
+		if (numDecks < 1) {
+			throw new IllegalArgumentException ("DealGenerator::DealGenerator() received invalid number of decks.");
+		}
+
+		this.strategy = strategy;
+		this.numDecks = numDecks;
+
+		sorted = new byte [dealSize()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = (byte) (i % CardCode.NUM_CODES);
+		}
+	}
+
+	/**
+	 * Return the number of bytes in each deal.
+	 * @return int
+	 */
+	public int dealSize() {
+		return numDecks * CardCode.NUM_CODES;
+	}
+
+	/**
+	 * Write the deal for the given seed into buf, starting at offset.
+	 * <p>
+	 * The special seeds <code>Deck.OrderBySuit</code> and <code>Deck.OrderByRank</code>
+	 * produce the same sorted deals that Deck does.
+	 * @param seed      seed of the deal.
+	 * @param buf       buffer to write into.
+	 * @param offset    position of the first byte of the deal.
+	 */
+	public void deal(int seed, byte[] buf, int offset) {
+		int n = sorted.length;
+		if (seed == Deck.OrderByRank) {
+			for (int i = 0; i < n; i++) {
+				int d = i % CardCode.NUM_CODES;
+				buf[offset + i] = (byte) CardCode.code (Card.ACE + d / 4, Card.CLUBS + d % 4);
+			}
+			return;
+		}
+
+		System.arraycopy (sorted, 0, buf, offset, n);
+		if (seed == Deck.OrderBySuit) {
+			return;
+		}
+
+		strategy.shuffle (buf, offset, n, seed);
+	}
+
+	/**
+	 * Generate the deals for seeds in [from, to) on the calling thread, in seed order.
+	 * @param from    first seed (inclusive).
+	 * @param to      last seed (exclusive).
+	 * @param sink    recipient of the deals.
+	 */
+	public void generate(int from, int to, DealSink sink) {
+		if (sink == null) {
+			throw new IllegalArgumentException ("DealGenerator::generate() received null DealSink.");
+		}
+
+		byte[] block = new byte [BLOCK_SIZE * dealSize()];
+		for (long first = from; first < to; first += BLOCK_SIZE) {
+			int count = fill ((int) first, (int) Math.min ((long) BLOCK_SIZE, to - first), block);
+			sink.deals ((int) first, count, block);
+		}
+	}
+
+	/**
+	 * Generate the deals for seeds in [from, to) using the given number of threads.
+	 * <p>
+	 * Blocks are delivered to the sink concurrently and in no particular order.
+	 * Returns once every deal has been delivered. If the sink throws an exception,
+	 * the remaining blocks are abandoned and the exception is rethrown.
+	 * @param from          first seed (inclusive).
+	 * @param to            last seed (exclusive).
+	 * @param numThreads    number of threads to use.
+	 * @param sink          thread-safe recipient of the deals.
+	 */
+	public void generate(final int from, final int to, int numThreads, final DealSink sink) {
+		if (sink == null) {
+			throw new IllegalArgumentException ("DealGenerator::generate() received null DealSink.");
+		}
+		if (numThreads < 1) {
+			throw new IllegalArgumentException ("DealGenerator::generate() received invalid number of threads.");
+		}
+		if (numThreads == 1) {
+			generate (from, to, sink);
+			return;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool (numThreads);
+		try {
+			// one task per thread, each taking every numThreads-th block.
+			List<Future<?>> results = new ArrayList<Future<?>>();
+			for (int t = 0; t < numThreads; t++) {
+				final long start = (long) from + (long) t * BLOCK_SIZE;
+				final long stride = (long) numThreads * BLOCK_SIZE;
+				results.add (pool.submit (new Runnable() {
+					public void run() {
+						byte[] block = new byte [BLOCK_SIZE * dealSize()];
+						for (long first = start; first < to; first += stride) {
+							if (Thread.currentThread().isInterrupted()) return;
+
+							int count = fill ((int) first, (int) Math.min ((long) BLOCK_SIZE, to - first), block);
+							sink.deals ((int) first, count, block);
+						}
+					}
+				}));
+			}
+
+			for (Future<?> f : results) {
+				f.get();
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new RuntimeException (cause);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Deal count seeds starting at first into block, returning count. */
+	protected int fill(int first, int count, byte[] block) {
+		int n = dealSize();
+		for (int i = 0; i < count; i++) {
+			deal (first + i, block, i * n);
+		}
+		return count;
+	}
+}
@@ -0,0 +1,24 @@
+package ks.common.model;
+
+/**
+ * Receives blocks of deals produced by a <code>DealGenerator</code>.
+ * <p>
+ * Each deal is a run of <code>CardCode</code> bytes, bottom card first, exactly as
+ * <code>Deck.create</code> would arrange the cards of a Deck. When deals are
+ * generated in parallel, <code>deals</code> is invoked concurrently from several
+ * threads (each with its own buffer), so implementations must be thread-safe.
+ * <p>
+ * @since V2.3
+ */
+public interface DealSink {
+
+	/**
+	 * Accept a block of consecutive deals.
+	 * <p>
+	 * The buffer is reused once this method returns, so it must not be retained.
+	 * @param firstSeed   seed of the first deal in the block.
+	 * @param count       number of deals in the block.
+	 * @param deals       count deals back to back, each <code>dealSize()</code> bytes long.
+	 */
+	void deals (int firstSeed, int count, byte[] deals);
+}
@@ -1,7 +1,5 @@
 package ks.common.model;
 
-import java.util.Random;
-
 /**
  * Models a deck of cards as a <code>Stack</code>.
  * <p>
@@ -46,7 +44,19 @@ public class Deck extends Stack {
 	 * @param name String 
 	 */
 	public Deck(String name) {
-		super();
+		this (name, CardCode.NUM_CODES);
+	}
+
+	/**
+	 * Construct an empty deck with the given name and room for capacity cards.
+	 * <p>
+	 * If the name parameter passed in is null, then a generated name will be used.
+	 * @param name String 
+	 * @param capacity    number of cards the deck will hold when created.
+	 * @since V2.3
+	 */
+	protected Deck(String name, int capacity) {
+		super(null, capacity);
 
 		// set name accordingly.
 		if (name == null) {
@@ -74,6 +84,24 @@ public class Deck extends Stack {
 	 * @param seed int
 	 */
 	public void create(int seed) {
+		create (seed, ShuffleStrategy.LEGACY);
+	}
+
+	/**
+	 * Create a deck, shuffled by the given strategy based upon this seed value.
+	 * <p>
+	 * The special seeds <code>OrderByRank</code> and <code>OrderBySuit</code> produce
+	 * sorted decks regardless of the strategy. With <code>ShuffleStrategy.LEGACY</code>
+	 * this is identical to <code>create(int)</code>.
+	 * @param seed        seed for the shuffle
+	 * @param strategy    shuffling algorithm to use
+	 * @since V2.3
+	 */
+	public void create(int seed, ShuffleStrategy strategy) {
+		if (strategy == null) {
+			throw new IllegalArgumentException ("Deck::create() received null ShuffleStrategy.");
+		}
+
 		removeAll();
 
 		// set deck up to initial value.
@@ -90,33 +118,35 @@ public class Deck extends Stack {
 		}
 		
 		// shuffle away!
-		shuffle (seed);
+		shuffle (seed, strategy);
 	}
 
 	/**
 	 * Shuffle the deck using the given seed value as random seed.
+	 * <p>
+	 * Uses the original algorithm (<code>ShuffleStrategy.LEGACY</code>), which treats
+	 * each pair of 2048 random bytes as two cards to be swapped.
 	 * @param seed
 	 */
 	public void shuffle (int seed) {
-		Random rnd = new Random(seed);
-		
-		// Generate 2048 random bytes (0..255)
-		byte b[] = new byte[2048];
-		rnd.nextBytes(b);
+		shuffle (seed, ShuffleStrategy.LEGACY);
+	}
 
-		// Treat each pair of values b[i] and b[i+1] as two cards that should be swapped.
-		int size = count();
-		for (int i = 0; i < 2048; i = i+2) {
-			int idx1 = Math.abs(b[i] % size);
-			int idx2 = Math.abs(b[i+1] % size);
+	/**
+	 * Shuffle the deck with the given strategy, using the given seed value.
+	 * @param seed        seed for the shuffle
+	 * @param strategy    shuffling algorithm to use
+	 * @since V2.3
+	 */
+	public void shuffle (long seed, ShuffleStrategy strategy) {
+		strategy.shuffle (cards, count(), seed);
+		rehash();
 
-			// Swap
-			Card t = cards[idx1];
-			cards[idx1] = cards[idx2];
-			cards[idx2] = t;
+		// any selected cards may have moved anywhere in the deck.
+		if (markedFrom < markedTo) {
+			markedFrom = 0;
+			markedTo = count();
 		}
-
-		// Done. This should produce 1024 random shufflings of the deck. Reasonable enough I suppose
 	}
 
 	/**
@@ -19,6 +19,12 @@ public class Element {
 
 	/** The Entity (if any exists) interested in model changes. */
 	protected ElementListener listener = null;
+
+	/** Handle assigned by the Model to which this Element was added (-1 if none). */
+	protected int handle = -1;
+
+	/** Role played by this Element within its game (see <code>Model.STOCK</code>, etc.). */
+	protected int role = Model.NONE;
 	
 	/**
 	 * Element constructor.
@@ -35,6 +41,25 @@ public class Element {
 	public String getName() {
 		return name;
 	}
+	/**
+	 * Returns the handle assigned by the Model to which this Element was added.
+	 * <p>
+	 * Handles are dense, starting at zero, so they may index arrays of per-Element
+	 * information. An Element not yet added to a Model has handle -1.
+	 * @return int
+	 * @since V2.3
+	 */
+	public int getHandle() {
+		return handle;
+	}
+	/**
+	 * Returns the role of this Element within its game.
+	 * @return int one of the role constants defined by <code>Model</code>.
+	 * @since V2.3
+	 */
+	public int getRole() {
+		return role;
+	}
 	/**
 	 * Each subclass of Element knows when it has changed state, and this method
 	 * is invoked to alert a possible listener.
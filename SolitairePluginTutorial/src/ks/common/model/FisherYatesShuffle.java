@@ -0,0 +1,35 @@
+package ks.common.model;
+
+/**
+ * Unbiased shuffle: every permutation of the cards is equally likely.
+ * <p>
+ * Walks the array from the top down, swapping each position with a uniformly
+ * chosen position at or below it, drawing from a <code>SplitMix64</code> generator
+ * seeded with the given seed. This takes n-1 random draws and n-1 swaps.
+ * <p>
+ * @since V2.3
+ */
+public class FisherYatesShuffle extends ShuffleStrategy {
+
+	public void shuffle(Card[] cards, int n, long seed) {
+		SplitMix64 rnd = new SplitMix64 (seed);
+		for (int i = n - 1; i > 0; i--) {
+			int j = rnd.nextInt (i + 1);
+
+			Card t = cards[i];
+			cards[i] = cards[j];
+			cards[j] = t;
+		}
+	}
+
+	public void shuffle(byte[] codes, int offset, int n, long seed) {
+		SplitMix64 rnd = new SplitMix64 (seed);
+		for (int i = n - 1; i > 0; i--) {
+			int j = offset + rnd.nextInt (i + 1);
+
+			byte t = codes[offset + i];
+			codes[offset + i] = codes[j];
+			codes[j] = t;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package ks.common.model;
+
+/**
+ * Model Elements whose state can be written to (and read back from) a packed
+ * byte representation by <code>ModelSnapshot</code>.
+ * <p>
+ * Cards are written as their <code>CardCode</code> (one byte each). When reading,
+ * Elements obtain the Card objects to place back into the model from the snapshot
+ * via <code>ModelSnapshot.take(int)</code>; when writing, every Card written must
+ * be announced via <code>ModelSnapshot.register(Card)</code> so it can be reused.
+ * <p>
+ * @since V2.3
+ */
+public interface IPackable {
+
+	/**
+	 * Return the number of cards currently held by this Element.
+	 */
+	int countCards ();
+
+	/**
+	 * Return the maximum number of bytes <code>pack</code> will need, given that the
+	 * game has <code>totalCards</code> cards in play.
+	 * @param totalCards   number of cards in the entire model.
+	 */
+	int packedSize (int totalCards);
+
+	/**
+	 * Write state into buf starting at offset.
+	 * @return the offset just after the last byte written.
+	 */
+	int pack (byte[] buf, int offset, ModelSnapshot snap);
+
+	/**
+	 * Restore state from buf starting at offset, as written by <code>pack</code>.
+	 * @return the offset just after the last byte read.
+	 */
+	int unpack (byte[] buf, int offset, ModelSnapshot snap);
+}
@@ -0,0 +1,56 @@
+package ks.common.model;
+
+import java.util.Random;
+
+/**
+ * The original shuffle of <code>Deck</code>, preserved bit for bit so that existing
+ * seeds continue to produce the same deals.
+ * <p>
+ * 2048 random bytes are drawn from <code>java.util.Random</code>, and each pair is
+ * treated as two positions to be swapped. Because a signed byte is reduced modulo
+ * the deck size, the result is biased and, for decks of more than 128 cards, some
+ * positions are never disturbed.
+ * <p>
+ * @since V2.3
+ */
+public class LegacyShuffle extends ShuffleStrategy {
+
+	/** Number of random bytes drawn (two per swap). */
+	public static final int NUM_BYTES = 2048;
+
+	/** Generate the random bytes for the given seed. */
+	protected byte[] swaps(long seed) {
+		Random rnd = new Random (seed);
+		byte b[] = new byte [NUM_BYTES];
+		rnd.nextBytes (b);
+		return b;
+	}
+
+	public void shuffle(Card[] cards, int n, long seed) {
+		if (n == 0) return;
+
+		byte b[] = swaps (seed);
+		for (int i = 0; i < NUM_BYTES; i = i+2) {
+			int idx1 = Math.abs (b[i] % n);
+			int idx2 = Math.abs (b[i+1] % n);
+
+			Card t = cards[idx1];
+			cards[idx1] = cards[idx2];
+			cards[idx2] = t;
+		}
+	}
+
+	public void shuffle(byte[] codes, int offset, int n, long seed) {
+		if (n == 0) return;
+
+		byte b[] = swaps (seed);
+		for (int i = 0; i < NUM_BYTES; i = i+2) {
+			int idx1 = offset + Math.abs (b[i] % n);
+			int idx2 = offset + Math.abs (b[i+1] % n);
+
+			byte t = codes[idx1];
+			codes[idx1] = codes[idx2];
+			codes[idx2] = t;
+		}
+	}
+}
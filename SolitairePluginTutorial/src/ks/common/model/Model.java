@@ -9,13 +9,81 @@ import java.util.Enumeration;
  * This class provides a means to manage and locate model elements. As such, it 
  * can be viewed as a "container" for model elements.
  * <p>
+ * Since V2.3 a sequence of state changes can be grouped into a batch, during which
+ * the listeners of the Elements in the model are not contacted. When the outermost
+ * batch ends, each Element that changed alerts its listener exactly once:
+ * <pre>
+ * model.beginBatch();
+ * try {
+ *    ... many changes ...
+ * } finally {
+ *    model.endBatch();
+ * }
+ * </pre>
+ * Headless clients (such as solvers) may turn notification off entirely with
+ * <code>setNotifying(false)</code>.
+ * <p>
  * Creation date: (10/21/01 4:40:34 PM)
  * @author George T. Heineman (heineman@cs.wpi.edu)
  */
 public class Model {
+
+	/** Role of an Element that plays no distinguished part in its game. */
+	public static final int NONE = 0;
+
+	/** Role of the Element from which new cards are dealt. */
+	public static final int STOCK = 1;
+
+	/** Role of the Element that receives cards dealt from the stock. */
+	public static final int WASTE = 2;
+
+	/** Role of the Elements upon which cards are ultimately built. */
+	public static final int FOUNDATION = 3;
+
+	/** Role of the Elements where cards are rearranged during play. */
+	public static final int TABLEAU = 4;
 	
 	/** Hashtable of elements [key=name, object = Element] */
 	protected Hashtable<String,Element> myElements = new Hashtable<String,Element>();
+
+	/** Elements in the order they were added (removed elements leave a null slot). */
+	protected Element[] ordered = new Element[16];
+
+	/** Number of slots used in <code>ordered</code>. */
+	protected int numOrdered = 0;
+
+	/** Depth of nested beginBatch() calls. */
+	protected int batchDepth = 0;
+
+	/** Whether listeners are to be alerted at all. */
+	protected boolean notifying = true;
+
+	/** While detached, the real listener of each slot in <code>ordered</code>. */
+	protected ElementListener[] saved;
+
+	/** Number of slots whose listeners are detached (Elements added later are not). */
+	protected int numDetached = 0;
+
+	/** While detached, whether the Element in each slot has changed. */
+	protected boolean[] dirty;
+
+	/** Listeners installed during a batch, one per slot (reused from batch to batch). */
+	protected Recorder[] recorders;
+
+	/**
+	 * Stands in for the real listener of an Element during a batch, noting the change.
+	 */
+	protected class Recorder implements ElementListener {
+		final int slot;
+
+		Recorder(int slot) {
+			this.slot = slot;
+		}
+
+		public void modelChanged (Element elt) {
+			dirty[slot] = true;
+		}
+	}
 /**
  * Model Constructor
  */
@@ -31,6 +99,22 @@ public Model() {
  * @param e    The Element to be added to the model.
  */
 public boolean addElement(Element e) {
+	return addElement (e, NONE);
+}
+/**
+ * Adds a new Model Element playing the given role to set of Elements.
+ * <p>
+ * The Element is tagged with the role, and is assigned the next handle, so that it
+ * can later be retrieved with <code>getElement(int)</code>.
+ * <p>
+ * Throws <code>IllegalArgumentException</code> if null object passed in.
+ * <p>
+ * @return boolean false if an Element with same name already exists in the set
+ * @param e       The Element to be added to the model.
+ * @param role    One of NONE, STOCK, WASTE, FOUNDATION, TABLEAU
+ * @since V2.3
+ */
+public boolean addElement(Element e, int role) {
 	if (e == null) throw new IllegalArgumentException ("Model::addElement() passed null Element.");
 
 	String name = e.getName();
@@ -39,8 +123,186 @@ public boolean addElement(Element e) {
 	}
 
 	myElements.put (name, e);
+	e.handle = numOrdered;
+	e.role = role;
+
+	// remember insertion order
+	if (numOrdered == ordered.length) {
+		Element[] old = ordered;
+		ordered = new Element [2 * old.length];
+		System.arraycopy (old, 0, ordered, 0, numOrdered);
+	}
+	ordered[numOrdered++] = e;
 	return true;
 }
+/**
+ * Return the Model Element added at the given position (zero being the first
+ * Element added), or null if that Element has since been removed.
+ * <p>
+ * Unlike <code>elements()</code>, the order is deterministic, so two models built
+ * by the same code visit their Elements in the same sequence.
+ * @return Element
+ * @param idx    a number between 0 and size()-1
+ * @since V2.3
+ */
+public Element elementAt(int idx) {
+	if ((idx < 0) || (idx >= numOrdered))
+		throw new IllegalArgumentException ("Model::elementAt() received illegal argument:" + idx);
+
+	return ordered[idx];
+}
+/**
+ * Return the Model Element with the given handle, without any name lookup.
+ * <p>
+ * Returns null if that Element has since been removed.
+ * @return Element
+ * @param handle    a handle returned by <code>Element.getHandle()</code>
+ * @since V2.3
+ */
+public Element getElement(int handle) {
+	return elementAt (handle);
+}
+/**
+ * Return the number of positions that can be passed to <code>elementAt(int)</code>.
+ * @return int
+ * @since V2.3
+ */
+public int size() {
+	return numOrdered;
+}
+/**
+ * Begin a batch of changes.
+ * <p>
+ * Until the matching <code>endBatch()</code>, Elements in the model do not alert
+ * their listeners. Batches may be nested; only the outermost has any effect.
+ * Elements added to the model during a batch are not part of it.
+ * @since V2.3
+ */
+public void beginBatch() {
+	if (batchDepth++ == 0 && notifying) {
+		detach (true);
+	}
+}
+/**
+ * End a batch of changes begun by <code>beginBatch()</code>.
+ * <p>
+ * When the outermost batch ends, each Element that changed during the batch
+ * generates a single modelChanged action.
+ * @exception IllegalArgumentException if no batch is in progress.
+ * @since V2.3
+ */
+public void endBatch() {
+	if (batchDepth == 0)
+		throw new IllegalArgumentException ("Model::endBatch() invoked without matching beginBatch().");
+
+	if (--batchDepth == 0 && notifying) {
+		reattach();
+	}
+}
+/**
+ * Determine whether a batch of changes is in progress.
+ * @return boolean
+ * @since V2.3
+ */
+public boolean inBatch() {
+	return batchDepth > 0;
+}
+/**
+ * Turn notification of listeners on or off.
+ * <p>
+ * While off, changes to the Elements in the model alert no one. When turned back
+ * on, every Element with a listener generates a single modelChanged action, since
+ * the changes made in the meantime are unknown.
+ * @param flag    false to silence all listeners; true to restore them.
+ * @since V2.3
+ */
+public void setNotifying(boolean flag) {
+	if (flag == notifying) return;
+
+	notifying = flag;
+	if (!flag) {
+		if (batchDepth == 0) {
+			detach (false);
+		} else {
+			for (int i = 0; i < numDetached; i++) {
+				if ((ordered[i] != null) && (ordered[i].getListener() == recorders[i])) {
+					ordered[i].setListener (null);
+				}
+			}
+		}
+		return;
+	}
+
+	for (int i = 0; i < numDetached; i++) {
+		dirty[i] = true;
+	}
+	if (batchDepth == 0) {
+		reattach();
+	} else {
+		for (int i = 0; i < numDetached; i++) {
+			if ((ordered[i] != null) && (ordered[i].getListener() == null)) {
+				ordered[i].setListener (recorders[i]);
+			}
+		}
+	}
+}
+/**
+ * Determine whether listeners are being notified (see <code>setNotifying</code>).
+ * @return boolean
+ * @since V2.3
+ */
+public boolean isNotifying() {
+	return notifying;
+}
+/**
+ * Save the listener of each Element, installing a Recorder (or nothing) in its place.
+ */
+protected void detach(boolean record) {
+	if ((saved == null) || (saved.length < numOrdered)) {
+		saved = new ElementListener [ordered.length];
+		dirty = new boolean [ordered.length];
+		Recorder[] old = recorders;
+		recorders = new Recorder [ordered.length];
+		if (old != null) {
+			System.arraycopy (old, 0, recorders, 0, old.length);
+		}
+	}
+
+	numDetached = numOrdered;
+	for (int i = 0; i < numDetached; i++) {
+		dirty[i] = false;
+		Element e = ordered[i];
+		if (e == null) continue;
+
+		if (recorders[i] == null) {
+			recorders[i] = new Recorder (i);
+		}
+		saved[i] = e.getListener();
+		e.setListener (record ? recorders[i] : null);
+	}
+}
+/**
+ * Restore the listener of each Element, alerting those whose Element is dirty.
+ * <p>
+ * A listener explicitly replaced while detached is left in place.
+ */
+protected void reattach() {
+	for (int i = 0; i < numDetached; i++) {
+		Element e = ordered[i];
+		if (e == null) continue;
+
+		ElementListener current = e.getListener();
+		if ((current == recorders[i]) || (current == null)) {
+			e.setListener (saved[i]);
+		}
+		saved[i] = null;
+
+		if (dirty[i] && (e.getListener() != null)) {
+			e.getListener().modelChanged (e);
+		}
+	}
+	numDetached = 0;
+}
 /**
  * Return an Enumeration of Model Elements.
  * @return Enumeration of <code>Element</code> objects.
@@ -64,10 +326,17 @@ public Element getElement(String name) {
  * Removes all Model Elements from set.
  */
 public void removeAllElements() {
+	// give the departing Elements back their listeners.
+	for (int i = 0; i < numDetached; i++) {
+		dirty[i] = false;
+	}
+	reattach();
 	myElements.clear();
 	
 	// create new hashtable to start fresh.
 	myElements = new Hashtable<String,Element>();
+	ordered = new Element[16];
+	numOrdered = 0;
 }
 /**
  * Removes a new Model Element from set.
@@ -79,6 +348,17 @@ public boolean removeElement(Element e) {
 
 	// All Elements MUST have a valid name: no need to check here.	
 	String name = e.getName();
-	return myElements.remove (name) != null;
+	if (myElements.remove (name) == null) return false;
+
+	for (int i = 0; i < numOrdered; i++) {
+		if (ordered[i] != e) continue;
+
+		// give the departing Element back its listener.
+		if ((i < numDetached) && ((e.getListener() == recorders[i]) || (e.getListener() == null))) {
+			e.setListener (saved[i]);
+		}
+		ordered[i] = null;
+	}
+	return true;
 }
 }
@@ -0,0 +1,198 @@
+package ks.common.model;
+
+/**
+ * Packs the complete state of a <code>Model</code> into a reusable byte array, and
+ * restores it again.
+ * <p>
+ * Every Element in the model that implements <code>IPackable</code> (all Stacks,
+ * MutableIntegers such as score and numLeft, and any game-specific Elements that
+ * choose to) is written in the order the Elements were added to the model. Each
+ * card becomes a single byte (its <code>CardCode</code>) and each Stack becomes a
+ * count followed by the ordered run of its cards, so a one-deck game packs into
+ * well under a hundred bytes:
+ * <pre>
+ * ModelSnapshot snap = new ModelSnapshot (game.getModel());
+ * byte[] position = snap.newBuffer();
+ * snap.snapshot (position);
+ *   ... play on ...
+ * snap.restore (position);
+ * </pre>
+ * Neither <code>snapshot</code> nor <code>restore</code> allocate objects: the
+ * Card objects placed back into the model are the ones that were found there,
+ * recycled through a registry indexed by card identity.
+ * <p>
+ * A snapshot captures the model only. Selections are cleared on restore, the
+ * moves recorded by the Solitaire game are untouched, and a snapshot is only
+ * valid for a model whose Elements were added in the same order (any instance
+ * of the same Solitaire variation qualifies). Elements added to the model after
+ * the ModelSnapshot was constructed are ignored.
+ * <p>
+ * @since V2.3
+ */
+public class ModelSnapshot {
+
+	/** The Elements being packed, in model order. */
+	protected IPackable[] packables;
+
+	/** Number of cards in the model when constructed. */
+	protected int totalCards;
+
+	/** Number of bytes needed to hold a snapshot. */
+	protected int capacity;
+
+	/** Card objects known to the snapshot, indexed by card identity. */
+	protected Card[][] registry = new Card [CardCode.NUM_CODES][];
+
+	/** Number of Card objects registered for each identity. */
+	protected int[] registered = new int [CardCode.NUM_CODES];
+
+	/** Number of registered Card objects handed out for each identity during a restore. */
+	protected int[] taken = new int [CardCode.NUM_CODES];
+
+	/**
+	 * Construct a snapshot for the given model, based on its current Elements.
+	 * <p>
+	 * @param m    the Model whose state is to be packed.
+	 */
+	public ModelSnapshot(Model m) {
+		if (m == null) {
+			throw new IllegalArgumentException ("ModelSnapshot::ModelSnapshot() received null Model.");
+		}
+
+		int ct = 0;
+		IPackable[] found = new IPackable [m.size()];
+		for (int i = 0; i < m.size(); i++) {
+			Element e = m.elementAt (i);
+			if (e instanceof IPackable) {
+				found[ct++] = (IPackable) e;
+			}
+		}
+
+		packables = new IPackable [ct];
+		System.arraycopy (found, 0, packables, 0, ct);
+
+		for (int i = 0; i < packables.length; i++) {
+			totalCards += packables[i].countCards();
+		}
+		for (int i = 0; i < packables.length; i++) {
+			capacity += packables[i].packedSize (totalCards);
+		}
+
+		for (int i = 0; i < registry.length; i++) {
+			registry[i] = new Card [1];
+		}
+
+		// prime the registry with the cards currently in the model.
+		snapshot (newBuffer());
+	}
+
+	/**
+	 * Return the number of bytes needed for a snapshot of this model.
+	 * @return int
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Allocate a buffer suitable for <code>snapshot</code> and <code>restore</code>.
+	 * @return byte[]
+	 */
+	public byte[] newBuffer() {
+		return new byte [capacity];
+	}
+
+	/**
+	 * Pack the current state of the model into buf.
+	 * <p>
+	 * @exception IllegalArgumentException if buf is smaller than <code>capacity()</code>
+	 * @param buf    the buffer to write into.
+	 * @return int   number of bytes written.
+	 */
+	public int snapshot(byte[] buf) {
+		if ((buf == null) || (buf.length < capacity)) {
+			throw new IllegalArgumentException ("ModelSnapshot::snapshot() requires a buffer of " + capacity + " bytes.");
+		}
+
+		for (int i = 0; i < registered.length; i++) {
+			registered[i] = 0;
+		}
+
+		int offset = 0;
+		for (int i = 0; i < packables.length; i++) {
+			offset = packables[i].pack (buf, offset, this);
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Restore the model to the state previously packed into buf.
+	 * <p>
+	 * Generates modelChanged actions for the affected Elements.
+	 * @param buf    the buffer previously filled by <code>snapshot</code>.
+	 * @return int   number of bytes read.
+	 */
+	public int restore(byte[] buf) {
+		if (buf == null) {
+			throw new IllegalArgumentException ("ModelSnapshot::restore() received null buffer.");
+		}
+
+		for (int i = 0; i < taken.length; i++) {
+			taken[i] = 0;
+		}
+
+		int offset = 0;
+		for (int i = 0; i < packables.length; i++) {
+			offset = packables[i].unpack (buf, offset, this);
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Record that the given card is being packed, so it can be handed out again on restore.
+	 * <p>
+	 * Invoked by <code>IPackable</code> Elements while packing.
+	 * @param c    Card being packed.
+	 */
+	public void register(Card c) {
+		int id = CardCode.identity (c.getCode());
+		Card[] slots = registry[id];
+		int n = registered[id];
+		if (n == slots.length) {
+			Card[] bigger = new Card [2 * n];
+			System.arraycopy (slots, 0, bigger, 0, n);
+			registry[id] = slots = bigger;
+		}
+
+		slots[n] = c;
+		registered[id] = n + 1;
+	}
+
+	/**
+	 * Return a Card object for the given code, to be placed back into the model.
+	 * <p>
+	 * The card has the face up state of the code, and is not selected. Invoked by
+	 * <code>IPackable</code> Elements while unpacking. A new Card is created only if
+	 * the code names more copies of a card than have ever been registered.
+	 * @param code    CardCode of the desired card.
+	 * @return Card
+	 */
+	public Card take(int code) {
+		int id = CardCode.identity (code);
+
+		Card c;
+		if (taken[id] < registered[id]) {
+			c = registry[id][taken[id]];
+		} else {
+			c = new Card (CardCode.rank (id), CardCode.suit (id));
+			register (c);
+		}
+		taken[id]++;
+
+		c.setFaceUp (CardCode.isFaceUp (code));
+		c.setSelected (false);
+		return c;
+	}
+}
@@ -35,13 +35,39 @@ import ks.common.games.Solitaire;
  * Creation date: (10/21/01 3:09:47 PM)
  * @author George T. Heineman (heineman@cs.wpi.edu)
  */
-public abstract class Move {
+public abstract class Move implements Cloneable {
 
 	/**
 	 * Constructor provided for subclasses.
 	 */
 	protected Move() { }
 	
+	/**
+	 * Return a copy of this move, with the same parameters.
+	 * <p>
+	 * Moves are often created only to be tested with <code>valid()</code>. A game
+	 * that generates candidate moves may instead keep a single instance of each kind
+	 * of move, re-target it with the <code>reset</code> method of its subclass for
+	 * every candidate, and copy only those worth keeping:
+	 * <pre>
+	 * if (probe.reset (waste, null, foundation).valid (game)) {
+	 *    moves.addElement (probe.copy());
+	 * }
+	 * </pre>
+	 * A move must not be re-targeted while the game retains it for undo; moves that
+	 * are recorded only by their encoding (see <code>encode()</code>) are not retained.
+	 * <p>
+	 * @return Move
+	 * @since V2.3
+	 */
+	public Move copy() {
+		try {
+			return (Move) clone();
+		} catch (CloneNotSupportedException cnse) {
+			throw new IllegalStateException ("Move::copy() unable to clone " + this);
+		}
+	}
+
 	/**
 	 * Each move knows how to execute itself.
 	 * <p>
@@ -54,7 +80,22 @@ public abstract class Move {
 	 * @since V1.6.2
 	 */
 	public abstract boolean doMove (Solitaire game);
-	
+
+	/**
+	 * Describe this move as a single non-negative int, to be recorded in the
+	 * <code>UndoLog</code> of the game instead of the Move object itself.
+	 * <p>
+	 * The game must be able to reconstruct the move from the result, by overriding
+	 * <code>Solitaire.decodeMove (int)</code>. By default moves are not encoded, and
+	 * the Move object is retained for undo.
+	 * <p>
+	 * @return int   the encoded move, or <code>UndoLog.NONE</code> if it cannot be encoded.
+	 * @since V2.3
+	 */
+	public int encode() {
+		return UndoLog.NONE;
+	}
+
 	/**
 	 * Produce a string representation of the move.
 	 * <p>
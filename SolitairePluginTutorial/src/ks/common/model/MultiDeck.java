@@ -27,7 +27,7 @@ public class MultiDeck extends Deck {
 	 * @param numDecks int
 	 */
 	public MultiDeck(String name, int numDecks) {
-		super(name);
+		super(name, CardCode.NUM_CODES * Math.max (1, numDecks));
 
 		if (numDecks < 1) throw new IllegalArgumentException ("MultiDeck::MultiDeck() received invalid number of decks in constructor.");
 
@@ -5,7 +5,7 @@ package ks.common.model;
  * Creation date: (10/3/01 10:47:21 PM)
  * @author George T. Heineman (heineman@cs.wpi.edu)
  */
-public class MutableInteger extends Element {
+public class MutableInteger extends Element implements IPackable {
 
 	/** The value being managed. */
 	protected int theInteger = 0;
@@ -40,6 +40,46 @@ public class MutableInteger extends Element {
 		theInteger = i;
 	}
 	
+	/**
+	 * A MutableInteger holds no cards.
+	 * @since V2.3
+	 */
+	public int countCards() {
+		return 0;
+	}
+
+	/**
+	 * Write the value as four bytes (most significant first).
+	 * @since V2.3
+	 */
+	public int pack(byte[] buf, int offset, ModelSnapshot snap) {
+		buf[offset++] = (byte) (theInteger >> 24);
+		buf[offset++] = (byte) (theInteger >> 16);
+		buf[offset++] = (byte) (theInteger >> 8);
+		buf[offset++] = (byte) theInteger;
+		return offset;
+	}
+
+	/**
+	 * Four bytes are always needed.
+	 * @since V2.3
+	 */
+	public int packedSize(int totalCards) {
+		return 4;
+	}
+
+	/**
+	 * Restore value written by <code>pack</code>.
+	 * <p>
+	 * Generates modelChanged action if the value differs.
+	 * @since V2.3
+	 */
+	public int unpack(byte[] buf, int offset, ModelSnapshot snap) {
+		setValue (((buf[offset] & 0xFF) << 24) | ((buf[offset+1] & 0xFF) << 16) | 
+				  ((buf[offset+2] & 0xFF) << 8) | (buf[offset+3] & 0xFF));
+		return offset + 4;
+	}
+
 	/**
 	 * Retrieve value.
 	 * <p>
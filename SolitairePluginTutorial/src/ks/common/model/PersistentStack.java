@@ -0,0 +1,218 @@
+package ks.common.model;
+
+/**
+ * An immutable stack of cards, represented by their <code>CardCode</code>s.
+ * <p>
+ * Unlike <code>Stack</code>, a PersistentStack is never modified. Instead,
+ * <code>push</code> and <code>pop</code> return a new PersistentStack in constant
+ * time, sharing every card beneath the top with the original. Any number of search
+ * branches (or threads) may therefore hold positions derived from a common parent
+ * without copying cards:
+ * <pre>
+ * PersistentStack s = PersistentStack.EMPTY.push (code1).push (code2);
+ * PersistentStack t = s.pop().push (code3);   // s is unchanged; t shares code1
+ * </pre>
+ * Each PersistentStack caches the same Zobrist hash that a <code>Stack</code>
+ * holding the same codes would report from <code>getHashKey()</code>.
+ * <p>
+ * @since V2.3
+ */
+public final class PersistentStack {
+
+	/** The empty stack. All PersistentStacks are ultimately built upon it. */
+	public static final PersistentStack EMPTY = new PersistentStack();
+
+	/** Code of the top card (CardCode.NONE for the empty stack). */
+	private final int code;
+
+	/** The stack beneath the top card (null for the empty stack). */
+	private final PersistentStack rest;
+
+	/** Number of cards in the stack. */
+	private final int size;
+
+	/** Zobrist hash of the cards in the stack. */
+	private final long hashKey;
+
+	/** Construct the empty stack. */
+	private PersistentStack() {
+		this.code = CardCode.NONE;
+		this.rest = null;
+		this.size = 0;
+		this.hashKey = 0;
+	}
+
+	/** Construct a stack with the given code on top of rest. */
+	private PersistentStack(int code, PersistentStack rest) {
+		this.code = code;
+		this.rest = rest;
+		this.size = rest.size + 1;
+		this.hashKey = rest.hashKey ^ Zobrist.key (code, rest.size);
+	}
+
+	/**
+	 * Return a PersistentStack holding the codes of the cards in the given Stack,
+	 * from bottom to top.
+	 * @param s    the Stack to copy.
+	 * @return PersistentStack
+	 */
+	public static PersistentStack fromStack(Stack s) {
+		if (s == null) {
+			throw new IllegalArgumentException ("PersistentStack::fromStack() received null Stack.");
+		}
+
+		PersistentStack ps = EMPTY;
+		for (int i = 0; i < s.count(); i++) {
+			ps = new PersistentStack (s.peekCode (i), ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * Return a new stack with the given card code on top of this one.
+	 * @param code    a valid card code (face up or face down).
+	 * @return PersistentStack
+	 */
+	public PersistentStack push(int code) {
+		if ((code < 0) || (code >= 2 * CardCode.FACE_DOWN) || (CardCode.rank (code) == 0)) {
+			throw new IllegalArgumentException ("PersistentStack::push() received invalid card code " + code);
+		}
+
+		return new PersistentStack (code, this);
+	}
+
+	/**
+	 * Return the stack beneath the top card.
+	 * @exception IllegalArgumentException if the stack is empty.
+	 * @return PersistentStack
+	 */
+	public PersistentStack pop() {
+		if (size == 0) {
+			throw new IllegalArgumentException ("PersistentStack::pop() invoked on empty stack.");
+		}
+
+		return rest;
+	}
+
+	/**
+	 * Return the code of the top card, or <code>CardCode.NONE</code> if empty.
+	 * @return int
+	 */
+	public int peekCode() {
+		return code;
+	}
+
+	/**
+	 * Return the code of the card at the given position (zero is the bottom).
+	 * <p>
+	 * Takes time proportional to the distance from the top of the stack.
+	 * @exception IllegalArgumentException if idx is out of range.
+	 * @param idx    position of the desired card.
+	 * @return int
+	 */
+	public int peekCode(int idx) {
+		if ((idx < 0) || (idx >= size)) {
+			throw new IllegalArgumentException ("PersistentStack::peekCode() received invalid index " + idx);
+		}
+
+		PersistentStack ps = this;
+		for (int i = size - 1; i > idx; i--) {
+			ps = ps.rest;
+		}
+		return ps.code;
+	}
+
+	/**
+	 * Return the rank of the top card, or zero if empty.
+	 * @return int
+	 */
+	public int peekRank() {
+		return (size == 0) ? 0 : CardCode.rank (code);
+	}
+
+	/**
+	 * Return the suit of the top card, or zero if empty.
+	 * @return int
+	 */
+	public int peekSuit() {
+		return (size == 0) ? 0 : CardCode.suit (code);
+	}
+
+	/**
+	 * Return the number of cards in the stack.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine whether the stack is empty.
+	 * @return boolean
+	 */
+	public boolean empty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the Zobrist hash of the cards in the stack.
+	 * @return long
+	 */
+	public long getHashKey() {
+		return hashKey;
+	}
+
+	/**
+	 * Return the card codes, from bottom to top.
+	 * @return int[]
+	 */
+	public int[] toCodes() {
+		int[] codes = new int [size];
+		PersistentStack ps = this;
+		for (int i = size - 1; i >= 0; i--) {
+			codes[i] = ps.code;
+			ps = ps.rest;
+		}
+		return codes;
+	}
+
+	/**
+	 * Two PersistentStacks are equal if they hold the same codes in the same order.
+	 */
+	public boolean equals(Object o) {
+		if (o == this) return true;
+		if (!(o instanceof PersistentStack)) return false;
+
+		PersistentStack a = this;
+		PersistentStack b = (PersistentStack) o;
+		if ((a.size != b.size) || (a.hashKey != b.hashKey)) return false;
+
+		// stop as soon as the two stacks share a tail.
+		while (a != b) {
+			if (a.code != b.code) return false;
+			a = a.rest;
+			b = b.rest;
+		}
+		return true;
+	}
+
+	public int hashCode() {
+		return (int) (hashKey ^ (hashKey >>> 32));
+	}
+
+	/**
+	 * Return string representation, from bottom to top, as does <code>Stack</code>.
+	 */
+	public String toString() {
+		if (size == 0) return "[PersistentStack:<empty>]";
+
+		StringBuffer sb = new StringBuffer ("[PersistentStack:");
+		int[] codes = toCodes();
+		for (int i = 0; i < codes.length; i++) {
+			if (i > 0) sb.append (',');
+			sb.append (CardCode.toString (codes[i]));
+		}
+		sb.append (']');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,58 @@
+package ks.common.model;
+
+/**
+ * Algorithm for placing the cards of a freshly created <code>Deck</code> into a
+ * pseudo-random order determined by a seed.
+ * <p>
+ * A strategy can shuffle either Card objects (as <code>Deck.create</code> does) or
+ * a raw array of <code>CardCode</code> bytes. For a given seed, the two forms always
+ * produce the same permutation, so deals can be generated in bulk as bytes and
+ * still match what a Deck would contain.
+ * <ul>
+ * <li>LEGACY -- the original algorithm of <code>Deck.shuffle(int)</code>. It is
+ *     biased, but reproduces every deal ever generated from a seed.</li>
+ * <li>FISHER_YATES -- an unbiased Fisher-Yates shuffle driven by a
+ *     <code>SplitMix64</code> generator. Far faster, and able to reach every
+ *     position of a <code>MultiDeck</code>.</li>
+ * </ul>
+ * Strategies hold no state, and may be shared freely between threads.
+ * <p>
+ * @since V2.3
+ */
+public abstract class ShuffleStrategy {
+
+	/** The original shuffle, compatible with existing seeds. */
+	public static final ShuffleStrategy LEGACY = new LegacyShuffle();
+
+	/** Unbiased Fisher-Yates shuffle. */
+	public static final ShuffleStrategy FISHER_YATES = new FisherYatesShuffle();
+
+	/**
+	 * Shuffle the first n cards of the array.
+	 * @param cards    the cards to shuffle in place.
+	 * @param n        number of cards (from position zero) to shuffle.
+	 * @param seed     seed determining the permutation.
+	 */
+	public abstract void shuffle (Card[] cards, int n, long seed);
+
+	/**
+	 * Shuffle the first n card codes of the array, using the same permutation as
+	 * <code>shuffle(Card[], int, long)</code> would for the same seed.
+	 * @param codes    the card codes to shuffle in place.
+	 * @param n        number of codes (from position zero) to shuffle.
+	 * @param seed     seed determining the permutation.
+	 */
+	public void shuffle (byte[] codes, int n, long seed) {
+		shuffle (codes, 0, n, seed);
+	}
+
+	/**
+	 * Shuffle the n card codes of the array starting at offset, using the same
+	 * permutation as <code>shuffle(Card[], int, long)</code> would for the same seed.
+	 * @param codes     the card codes to shuffle in place.
+	 * @param offset    position of the first code to shuffle.
+	 * @param n         number of codes to shuffle.
+	 * @param seed      seed determining the permutation.
+	 */
+	public abstract void shuffle (byte[] codes, int offset, int n, long seed);
+}
@@ -0,0 +1,95 @@
+package ks.common.model;
+
+/**
+ * A small, fast, splittable pseudo-random number generator (SplitMix64).
+ * <p>
+ * Each generator is a 64-bit counter advanced by a fixed odd increment, whose
+ * successive values are scrambled by <code>Zobrist.mix</code>. <code>split()</code>
+ * returns a new generator whose sequence is statistically independent of this
+ * one, so a single seed can be fanned out to many threads without sharing state.
+ * This is the algorithm of <code>java.util.SplittableRandom</code>, which is not
+ * available on the Java versions this framework supports.
+ * <p>
+ * Instances are not thread-safe; give each thread its own (via split).
+ * <p>
+ * @since V2.3
+ */
+public final class SplitMix64 {
+
+	/** Increment of the underlying counter (odd, derived from the golden ratio). */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/** Current state. */
+	private long seed;
+
+	/** Increment for this generator (always odd). */
+	private final long gamma;
+
+	/**
+	 * Construct a generator with the given seed.
+	 * @param seed    any value; equal seeds generate equal sequences.
+	 */
+	public SplitMix64(long seed) {
+		this (seed, GOLDEN_GAMMA);
+	}
+
+	/** Construct a generator with the given state and increment. */
+	private SplitMix64(long seed, long gamma) {
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Return the next pseudo-random 64-bit value.
+	 * @return long
+	 */
+	public long nextLong() {
+		seed += gamma;
+		return Zobrist.mix (seed);
+	}
+
+	/**
+	 * Return a pseudo-random value uniformly distributed in [0, bound).
+	 * <p>
+	 * Values are drawn without modulo bias, by rejecting the few samples that
+	 * would over-represent the low values.
+	 * @exception IllegalArgumentException if bound is not positive.
+	 * @param bound    upper bound (exclusive).
+	 * @return int
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException ("SplitMix64::nextInt() requires positive bound.");
+		}
+
+		int r = (int) (nextLong() >>> 33);   // 31 random bits
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			return r & m;                    // power of two
+		}
+
+		for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+			// reject samples from the incomplete final interval
+		}
+		return r;
+	}
+
+	/**
+	 * Return a new generator, independent of this one, advancing this one.
+	 * @return SplitMix64
+	 */
+	public SplitMix64 split() {
+		long s = nextLong();
+		long g = mixGamma (nextLong());
+		return new SplitMix64 (s, g);
+	}
+
+	/** Derive a well-formed (odd, bit-balanced) increment, as SplittableRandom does. */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount (z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+	}
+}
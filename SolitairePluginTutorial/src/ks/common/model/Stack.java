@@ -13,7 +13,8 @@ package ks.common.model;
  * pushed onto the top of the stack, the bottom-most card of the stack s is added 
  * to the top of the target stack. Any state changing operation in the stack (add,
  * get, push, getSelected, select) resets the selected status of all cards in the 
- * stack.
+ * stack. Since V2.3 the Stack remembers which cards it has selected, so these
+ * resets only visit cards that were actually selected.
  * <p>
  * The <code>Card get()</code> method removes and returns the top card in the stack.
  * <p>
@@ -25,6 +26,12 @@ package ks.common.model;
  * s, from the top of the stack such that all cards in s are selected, if any are 
  * selected.
  * <p>
+ * Cards can be moved between stacks in bulk, without copying any Card objects, by
+ * <code>moveTopTo(Stack dst, int n)</code> and <code>moveRange(int start, int n,
+ * Stack dst)</code>; single cards can be removed from or inserted at any position
+ * with <code>remove(int idx)</code> and <code>insert(int idx, Card c)</code>. Each
+ * generates a single modelChanged action per Stack affected.
+ * <p>
  * Stack has some basic helper methods that may prove useful, such as 
  * <code>alternatingColors, ascending, descending, sameColor, sameRank, 
  * sameSuit</code>. The methods <code>rank()</code> and <code>suit()</code> return 
@@ -35,7 +42,7 @@ package ks.common.model;
  * @author George T. Heineman (heineman@cs.wpi.edu)
  */
 
-public class Stack extends Element {
+public class Stack extends Element implements IPackable {
 	
 	/** initial size of this pile in memory. */
 	protected int maxPileSize = 13;
@@ -49,11 +56,19 @@ public class Stack extends Element {
 	/** How many cards in the stack are selected (default to none) */
 	protected int numSelectedCards = 0;
 
+	/**
+	 * Cards whose selected flag may be set all lie in cards[markedFrom .. markedTo-1];
+	 * every other card in the stack is known to be unselected (empty range when equal).
+	 */
+	protected int markedFrom = 0;
+	protected int markedTo = 0;
+
+	/** Zobrist hash of the cards in the stack, maintained incrementally (zero when empty). */
+	protected long hashKey = 0;
+
 	/** Each new Stack object can be given a name (or assigned a default one based on this counter). */
 	private static int stackNameCounter = 1;
 	
-	/** If Stack is forced to grow, this is the amount by which it grows. */
-	private static final int delta = 13;
 /**
  * Construct an empty stack with auto-generated name.
  */
@@ -66,9 +81,26 @@ public Stack() {
  * @param name     the name of this Stack model element.
  */
 public Stack(String name) {
+	this (name, 13);
+}
+/**
+ * Create an empty Stack with the given name, with room for capacity cards.
+ * <p>
+ * The Stack grows as needed beyond this; choosing the right capacity up front
+ * simply avoids reallocation.
+ * @param name        the name of this Stack model element.
+ * @param capacity    number of cards for which to allocate space (at least one).
+ * @since V2.3
+ */
+public Stack(String name, int capacity) {
 	super();
 
+	if (capacity < 1) {
+		throw new IllegalArgumentException ("Stack::Stack() received invalid capacity " + capacity);
+	}
+
 	// Allocate space for the initial pile
+	maxPileSize = capacity;
 	cards = new Card[maxPileSize];
 
 	/** use given name. */
@@ -89,14 +121,18 @@ public void add(Card c) {
 		throw new IllegalArgumentException ("Stack::add() received null card to add.");
 	}
 	
-	if (numCards > maxPileSize-1) {
-		growStack(delta);
+	if (numCards == maxPileSize) {
+		ensureCapacity (numCards + 1);
 	}
 
 	/** Add card to pile. */
+	hashKey ^= Zobrist.key (c.getCode(), numCards);
 	cards [numCards++] = c;
 
 	clearSelections();   // clear our selections...
+	if (c.selected) {
+		c.setSelected (false);
+	}
 	hasChanged();        // we have changed state...
 }
 /**
@@ -179,14 +215,18 @@ public boolean ascending(int start, int end) {
 /**
  * Ensures that all cards in the stack are non-selected.
  * <p>
+ * Only the cards marked by the most recent <code>select</code> are visited, so
+ * this is a constant time operation when nothing is selected.
  */
 protected void clearSelections () {
 	numSelectedCards = 0;
 
-	// reset status for all cards in the deck
-	for (int i = 0; i < numCards; i++) {
+	// reset status for the cards that may have been selected
+	int to = Math.min (markedTo, numCards);
+	for (int i = markedFrom; i < to; i++) {
 		cards[i].setSelected (false);
 	}
+	markedFrom = markedTo = 0;
 }
 /**
  * Returns the number of Cards in the Stack.
@@ -196,6 +236,15 @@ protected void clearSelections () {
 public int count() {
 	return numCards;
 }
+/**
+ * Returns the number of Cards in the Stack, as required by <code>IPackable</code>.
+ * <p>
+ * @return int
+ * @since V2.3
+ */
+public int countCards() {
+	return numCards;
+}
 /**
  * Determines whether Cards in the Stack are all descending in rank order.
  * <p>
@@ -267,11 +316,24 @@ public Card get() {
 
 	Card c = cards[--numCards];
 	cards[numCards] = null;       // remove reference from array.
+	hashKey ^= Zobrist.key (c.getCode(), numCards);
 
 	clearSelections();            // clear our selections...	
 	hasChanged();  				  // we have changed state.
 	return c;
 }
+/**
+ * Return the Zobrist hash of the cards (and their face up state) in this stack.
+ * <p>
+ * The value is maintained as cards are added and removed, so this is a constant
+ * time operation. Stacks with the same cards in the same order have equal keys;
+ * an empty stack has the key zero. Selection does not affect the key.
+ * @return long
+ * @since V2.3
+ */
+public long getHashKey() {
+	return hashKey;
+}
 /**
  * Returns the number of Cards that are selected from the stack.
  * <p>
@@ -290,31 +352,25 @@ public int getNumSelectedCards() {
  * @return ks.common.model.Stack
  */
 public Stack getSelected() {
-	Stack s = new Stack();
-	if (numSelectedCards == 0) return s;
-
-	// simply get top cards one at a time. We use this double loop to avoid creating
-	// copies of cards using peek.
-	int keepTrack = numSelectedCards;   // get() method will reset numSelectedCarsds
-	for (int i = 1; i <= keepTrack; i++) {
-		Card c = get();
-		c.setSelected (false);
-		s.add (c);
-	}
+	if (numSelectedCards == 0) return new Stack();
 
-	// one card? Then simply return as is.
-	if (numSelectedCards == 1) return s;
-	
-	// reverse order to be appropriate.
-	Stack returnStack = new Stack();
-	while (s.empty() == false) {
-		returnStack.add (s.get());
-	}	
-
-	numSelectedCards = 0;		 // 'unselect' cards
-	hasChanged();				 // we have changed state.
-
-	return returnStack;
+	// move the selected cards themselves (no copies) in a single step.
+	Stack s = new Stack (null, Math.max (1, numSelectedCards));
+	moveTopTo (s, numSelectedCards);
+	return s;
+}
+/**
+ * Ensure there is room for at least the given number of cards.
+ * <p>
+ * The space available at least doubles whenever it must grow, so adding n cards
+ * one at a time costs time linear in n.
+ * @param capacity    desired number of cards
+ * @since V2.3
+ */
+public void ensureCapacity(int capacity) {
+	if (capacity > maxPileSize) {
+		growStack (Math.max (capacity, 2 * maxPileSize) - maxPileSize);
+	}
 }
 /**
  * Increases array size by the specified amount.
@@ -327,9 +383,158 @@ protected void growStack(int delta) {
 	maxPileSize += delta;
 	Card oldCards[] = cards;
 	cards = new Card [maxPileSize];
-	for (int i = 0; i < maxPileSize - delta; i++) {
-		cards[i] = oldCards[i];
+	System.arraycopy (oldCards, 0, cards, 0, numCards);
+}
+/**
+ * Insert a card at the given position, moving the cards above it up by one.
+ * <p>
+ * Position zero inserts at the bottom; position <code>count()</code> is the same
+ * as <code>add(c)</code>. Generates modelChanged action.
+ * @exception IllegalArgumentException if c is null or idx is out of range.
+ * @param idx    position the card will occupy.
+ * @param c      the card to insert.
+ * @since V2.3
+ */
+public void insert(int idx, Card c) {
+	if (c == null) {
+		throw new IllegalArgumentException ("Stack::insert() received null card to insert.");
+	}
+	if ((idx < 0) || (idx > numCards)) {
+		throw new IllegalArgumentException ("Stack::insert() received illegal argument:" + idx);
+	}
+
+	clearSelections();
+	ensureCapacity (numCards + 1);
+	System.arraycopy (cards, idx, cards, idx + 1, numCards - idx);
+	cards[idx] = c;
+	numCards++;
+	if (c.selected) {
+		c.setSelected (false);
+	}
+
+	rehash();    // cards above idx have shifted
+	hasChanged();
+}
+/**
+ * Move n consecutive cards, starting at position start, onto the top of dst.
+ * <p>
+ * The cards keep their order, and the cards above them in this stack move down to
+ * close the gap. No Card objects are copied. All selections in both stacks are
+ * cleared. Generates one modelChanged action for each stack, if n is positive.
+ * @exception IllegalArgumentException if dst is null or this stack, or the range
+ *            does not lie within the stack.
+ * @param start    position of the first (bottom-most) card to move.
+ * @param n        number of cards to move.
+ * @param dst      the stack to receive the cards.
+ * @since V2.3
+ */
+public void moveRange(int start, int n, Stack dst) {
+	if ((dst == null) || (dst == this)) {
+		throw new IllegalArgumentException ("Stack::moveRange() requires a distinct destination Stack.");
+	}
+	if ((start < 0) || (n < 0) || (start + n > numCards)) {
+		throw new IllegalArgumentException ("Stack::moveRange() received illegal range:" + start + "," + n);
+	}
+	if (n == 0) return;
+
+	clearSelections();
+	dst.clearSelections();
+
+	// append to destination, maintaining its hash incrementally.
+	dst.ensureCapacity (dst.numCards + n);
+	System.arraycopy (cards, start, dst.cards, dst.numCards, n);
+	for (int i = 0; i < n; i++) {
+		dst.hashKey ^= Zobrist.key (dst.cards[dst.numCards].getCode(), dst.numCards);
+		dst.numCards++;
+	}
+
+	// close the gap.
+	int above = numCards - start - n;
+	if (above == 0) {
+		for (int i = start; i < numCards; i++) {
+			hashKey ^= Zobrist.key (cards[i].getCode(), i);
+		}
+	}
+	System.arraycopy (cards, start + n, cards, start, above);
+	for (int i = numCards - n; i < numCards; i++) {
+		cards[i] = null;              // remove reference from array.
+	}
+	numCards -= n;
+	if (above > 0) {
+		rehash();    // cards above the range have shifted
+	}
+
+	hasChanged();
+	dst.hasChanged();
+}
+/**
+ * Move the top n cards of this stack onto the top of dst, keeping their order.
+ * <p>
+ * Equivalent to <code>moveRange (count() - n, n, dst)</code>.
+ * @param dst    the stack to receive the cards.
+ * @param n      number of cards to move.
+ * @since V2.3
+ */
+public void moveTopTo(Stack dst, int n) {
+	if ((n < 0) || (n > numCards)) {
+		throw new IllegalArgumentException ("Stack::moveTopTo() received illegal argument:" + n);
+	}
+
+	moveRange (numCards - n, n, dst);
+}
+/**
+ * Write the cards of this stack (bottom to top) as a two-byte count followed by
+ * one <code>CardCode</code> byte per card.
+ * <p>
+ * @return int offset just after the last byte written
+ * @since V2.3
+ */
+public int pack(byte[] buf, int offset, ModelSnapshot snap) {
+	buf[offset++] = (byte) (numCards >> 8);
+	buf[offset++] = (byte) numCards;
+	for (int i = 0; i < numCards; i++) {
+		Card c = cards[i];
+		snap.register (c);
+		buf[offset++] = (byte) c.getCode();
+	}
+
+	return offset;
+}
+/**
+ * Bytes needed by <code>pack</code>: every card in play could end up in this stack.
+ * <p>
+ * @return int
+ * @since V2.3
+ */
+public int packedSize(int totalCards) {
+	return 2 + totalCards;
+}
+/**
+ * Replace the contents of this stack with those written by <code>pack</code>.
+ * <p>
+ * All selections are cleared. Generates modelChanged action.
+ * @return int offset just after the last byte read
+ * @since V2.3
+ */
+public int unpack(byte[] buf, int offset, ModelSnapshot snap) {
+	int n = ((buf[offset] & 0xFF) << 8) | (buf[offset+1] & 0xFF);
+	offset += 2;
+
+	ensureCapacity (n);
+
+	for (int i = 0; i < n; i++) {
+		cards[i] = snap.take (buf[offset++]);
 	}
+	for (int i = n; i < numCards; i++) {
+		cards[i] = null;       // remove references from array.
+	}
+
+	numCards = n;
+	numSelectedCards = 0;
+	markedFrom = markedTo = 0;
+	rehash();
+	hasChanged();              // we have changed state.
+	return offset;
 }
 /**
  * Peek and return a copy of the top-most card (or null if empty).
@@ -367,6 +572,85 @@ public Card peek(int idx) {
 	
 	return new Card (cards[idx]);
 }
+/**
+ * Return the <code>CardCode</code> of the top-most card (or CardCode.NONE if empty).
+ * <p>
+ * Unlike <code>peek()</code>, no Card is created.
+ * @return int
+ * @since V2.3
+ */
+public int peekCode() {
+	if (numCards == 0) return CardCode.NONE;
+
+	return cards[numCards-1].getCode();
+}
+/**
+ * Return the <code>CardCode</code> of the card identified by idx in the stack.
+ * <p>
+ * Unlike <code>peek(int)</code>, no Card is created.
+ * @return int
+ * @param idx int (a number between 0 and numCards-1)
+ * @since V2.3
+ */
+public int peekCode(int idx) {
+	if ((idx < 0) || (idx > numCards-1))
+		throw new IllegalArgumentException ("Stack::peekCode (int) received illegal argument:" + idx);
+
+	return cards[idx].getCode();
+}
+/**
+ * Return the rank of the top-most card, or zero if the stack is empty.
+ * <p>
+ * Unlike <code>rank()</code>, no exception is thrown on an empty stack.
+ * @return int
+ * @since V2.3
+ */
+public int peekRank() {
+	if (numCards == 0) return 0;
+
+	return cards[numCards-1].rank;
+}
+/**
+ * Return the suit of the top-most card, or zero if the stack is empty.
+ * <p>
+ * Unlike <code>suit()</code>, no exception is thrown on an empty stack.
+ * @return int
+ * @since V2.3
+ */
+public int peekSuit() {
+	if (numCards == 0) return 0;
+
+	return cards[numCards-1].suit;
+}
+/**
+ * Determine whether the top-most card has the given rank and suit.
+ * <p>
+ * An empty stack returns false.
+ * @return boolean
+ * @param rank int
+ * @param suit int
+ * @since V2.3
+ */
+public boolean topIs(int rank, int suit) {
+	if (numCards == 0) return false;
+
+	Card c = cards[numCards-1];
+	return (c.rank == rank) && (c.suit == suit);
+}
+/**
+ * Determine whether the card identified by idx in the stack is selected.
+ * <p>
+ * Unlike <code>peek(int)</code>, no Card is created.
+ * @return boolean
+ * @param idx int (a number between 0 and numCards-1)
+ * @since V2.3
+ */
+public boolean isSelected(int idx) {
+	if ((idx < 0) || (idx > numCards-1))
+		throw new IllegalArgumentException ("Stack::isSelected (int) received illegal argument:" + idx);
+
+	return cards[idx].selected;
+}
 /**
  * Push Stack onto existing stack; the stack parameter object is unchanged.
  * <p>
@@ -381,8 +665,13 @@ public void push(Stack s) {
 	if (size == 0) return;  // nothing to do.
 	
 	// must add stack from the bottom up...
+	clearSelections();
+	ensureCapacity (numCards + size);
 	for (int i = 0; i < size; i++) {
-		add (s.peek (i));
+		Card c = new Card (s.cards[i]);
+		c.selected = false;
+		hashKey ^= Zobrist.key (c.getCode(), numCards);
+		cards[numCards++] = c;
 	}
 
 	hasChanged();  // we have changed state...
@@ -400,6 +689,55 @@ public int rank() {
 	}
 	return cards[numCards-1].getRank();
 }
+/**
+ * Recompute the hash key from scratch.
+ * <p>
+ * Only needed by code that rearranges the cards array directly, or that alters
+ * the face up state of a card while it remains within this stack.
+ * @since V2.3
+ */
+public void rehash() {
+	long h = 0;
+	for (int i = 0; i < numCards; i++) {
+		h ^= Zobrist.key (cards[i].getCode(), i);
+	}
+	hashKey = h;
+}
+/**
+ * Remove and return the card at the given position, moving the cards above it down.
+ * <p>
+ * The card keeps its selected status, as with <code>get()</code>; all other
+ * selections are cleared. Generates modelChanged action.
+ * @exception IllegalArgumentException if idx is out of range.
+ * @param idx    position of the card to remove (zero is the bottom).
+ * @return ks.common.model.Card
+ * @since V2.3
+ */
+public Card remove(int idx) {
+	if ((idx < 0) || (idx >= numCards)) {
+		throw new IllegalArgumentException ("Stack::remove() received illegal argument:" + idx);
+	}
+
+	if (idx == numCards - 1) {
+		return get();
+	}
+
+	// clear selections of all other cards.
+	int to = Math.min (markedTo, numCards);
+	for (int i = markedFrom; i < to; i++) {
+		if (i != idx) cards[i].setSelected (false);
+	}
+	markedFrom = markedTo = 0;
+	numSelectedCards = 0;
+
+	Card c = cards[idx];
+	System.arraycopy (cards, idx + 1, cards, idx, numCards - idx - 1);
+	cards[--numCards] = null;      // remove reference from array.
+
+	rehash();    // cards above idx have shifted
+	hasChanged();
+	return c;
+}
 /**
  * Remove All cards from the stack.
  * <p>
@@ -415,6 +753,8 @@ public void removeAll() {
 
 	numCards = 0;
 	numSelectedCards = 0;
+	markedFrom = markedTo = 0;
+	hashKey = 0;
 	hasChanged();  				  // we have changed state.
 }
 /**
@@ -548,16 +888,19 @@ public boolean select(int newNumSelectedCards) {
 	
 	numSelectedCards = newNumSelectedCards;
 
-	// First select top newNumSelectedCards, and then deselect remaining cards...
-	int idx = numCards - 1;
-	while (idx >= 0) {
-		if (newNumSelectedCards-- == 0) break;
-		cards[idx--].setSelected (true);
+	// First select top newNumSelectedCards, and then deselect previously marked cards
+	// beneath them; all other cards are already deselected.
+	int low = numCards - newNumSelectedCards;
+	for (int idx = low; idx < numCards; idx++) {
+		cards[idx].setSelected (true);
 	}
-	
-	while (idx >= 0) {
-		cards[idx--].setSelected (false);
+
+	int to = Math.min (markedTo, low);
+	for (int idx = markedFrom; idx < to; idx++) {
+		cards[idx].setSelected (false);
 	}
+	markedFrom = low;
+	markedTo = numCards;
 
 	hasChanged();  // we have changed state...
 	return true;
@@ -0,0 +1,259 @@
+package ks.common.model;
+
+/**
+ * A compact history of moves, each recorded as a single <code>int</code>.
+ * <p>
+ * Entries are kept in a growable ring buffer of primitive ints, so recording a
+ * move allocates nothing once the buffer has reached its working size. The log
+ * may be given a depth limit; once full, each new entry silently replaces the
+ * oldest one, which can then no longer be undone.
+ * <p>
+ * A move that supports this log describes itself through <code>Move.encode()</code>,
+ * typically by packing its kind, the handles of its source and target elements,
+ * and the code of the card moved:
+ * <pre>
+ * int entry = UndoLog.pack (kind, from.getHandle(), to.getHandle(), c.getCode());
+ * </pre>
+ * Packed entries are never negative. The values <code>NONE</code> (and any other
+ * negative value) are left to the owner of the log, for instance to mark entries
+ * whose move is stored elsewhere.
+ * <p>
+ * @since V2.3
+ */
+public final class UndoLog {
+
+	/** Result of <code>pop()</code> on an empty log, and of <code>Move.encode()</code> for a move that cannot be encoded. */
+	public static final int NONE = -1;
+
+	/** Limit value for a log that is never truncated. */
+	public static final int UNBOUNDED = 0;
+
+	/** Largest kind, element handle or card code that can be packed. */
+	public static final int MAX_FIELD = 0x7F;
+
+	/** Initial size of the buffer. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The ring buffer. */
+	private int[] entries;
+
+	/** Position of the oldest entry. */
+	private int head;
+
+	/** Number of entries in the log. */
+	private int size;
+
+	/** Maximum number of entries, or UNBOUNDED. */
+	private int limit;
+
+	/**
+	 * Construct an unbounded log.
+	 */
+	public UndoLog() {
+		this (UNBOUNDED);
+	}
+
+	/**
+	 * Construct a log holding at most the given number of entries.
+	 * @param limit    maximum depth of the log, or <code>UNBOUNDED</code>.
+	 */
+	public UndoLog(int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException ("UndoLog::UndoLog() received invalid limit " + limit);
+		}
+
+		this.limit = limit;
+		this.entries = new int [(limit == UNBOUNDED) ? INITIAL_CAPACITY : Math.min (limit, INITIAL_CAPACITY)];
+	}
+
+	/**
+	 * Pack a move into a single non-negative int.
+	 * @exception IllegalArgumentException if any field is negative or exceeds <code>MAX_FIELD</code>.
+	 * @param kind    game-specific kind of move.
+	 * @param from    handle of the source element.
+	 * @param to      handle of the target element.
+	 * @param code    code of the card moved.
+	 * @return int
+	 */
+	public static int pack(int kind, int from, int to, int code) {
+		if (((kind | from | to | code) & ~MAX_FIELD) != 0) {
+			throw new IllegalArgumentException ("UndoLog::pack() received field out of range: " + kind + "," + from + "," + to + "," + code);
+		}
+
+		return (kind << 21) | (from << 14) | (to << 7) | code;
+	}
+
+	/** Return the kind of a packed entry. */
+	public static int kind(int entry) {
+		return (entry >>> 21) & MAX_FIELD;
+	}
+
+	/** Return the handle of the source element of a packed entry. */
+	public static int source(int entry) {
+		return (entry >>> 14) & MAX_FIELD;
+	}
+
+	/** Return the handle of the target element of a packed entry. */
+	public static int target(int entry) {
+		return (entry >>> 7) & MAX_FIELD;
+	}
+
+	/** Return the card code of a packed entry. */
+	public static int card(int entry) {
+		return entry & MAX_FIELD;
+	}
+
+	/**
+	 * Record an entry as the most recent one.
+	 * <p>
+	 * If the log is at its limit the oldest entry is discarded and returned.
+	 * @exception IllegalArgumentException if entry is <code>NONE</code>.
+	 * @param entry    the entry to record.
+	 * @return int     the discarded entry, or <code>NONE</code> if nothing was discarded.
+	 */
+	public int push(int entry) {
+		if (entry == NONE) {
+			throw new IllegalArgumentException ("UndoLog::push() received NONE.");
+		}
+
+		if ((limit != UNBOUNDED) && (size == limit)) {
+			int evicted = entries[head];
+			entries[head] = entry;
+			head = next (head);
+			return evicted;
+		}
+
+		if (size == entries.length) {
+			grow();
+		}
+		entries[slot (size++)] = entry;
+		return NONE;
+	}
+
+	/**
+	 * Remove and return the most recent entry, or <code>NONE</code> if the log is empty.
+	 * @return int
+	 */
+	public int pop() {
+		if (size == 0) return NONE;
+
+		return entries[slot (--size)];
+	}
+
+	/**
+	 * Return the most recent entry without removing it, or <code>NONE</code> if empty.
+	 * @return int
+	 */
+	public int peek() {
+		if (size == 0) return NONE;
+
+		return entries[slot (size - 1)];
+	}
+
+	/**
+	 * Remove and return the oldest entry, or <code>NONE</code> if the log is empty.
+	 * @return int
+	 */
+	public int removeOldest() {
+		if (size == 0) return NONE;
+
+		int entry = entries[head];
+		head = next (head);
+		size--;
+		return entry;
+	}
+
+	/**
+	 * Return the entry at the given position, where zero is the oldest.
+	 * @exception IllegalArgumentException if idx is out of range.
+	 * @param idx    position of the desired entry.
+	 * @return int
+	 */
+	public int get(int idx) {
+		if ((idx < 0) || (idx >= size)) {
+			throw new IllegalArgumentException ("UndoLog::get() received invalid index " + idx);
+		}
+
+		return entries[slot (idx)];
+	}
+
+	/**
+	 * Return the number of entries in the log.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine whether the log is empty.
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the maximum depth of the log, or <code>UNBOUNDED</code>.
+	 * @return int
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Change the maximum depth of the log.
+	 * <p>
+	 * The log must not already hold more entries than the new limit; use
+	 * <code>removeOldest()</code> to trim it first.
+	 * @exception IllegalArgumentException if the limit is negative or below <code>size()</code>.
+	 * @param limit    maximum depth of the log, or <code>UNBOUNDED</code>.
+	 */
+	public void setLimit(int limit) {
+		if ((limit < 0) || ((limit != UNBOUNDED) && (limit < size))) {
+			throw new IllegalArgumentException ("UndoLog::setLimit() received invalid limit " + limit);
+		}
+
+		this.limit = limit;
+		if ((limit != UNBOUNDED) && (entries.length > limit)) {
+			resize (Math.max (limit, 1));
+		}
+	}
+
+	/**
+	 * Discard all entries. The buffer is retained for reuse.
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	/** Position within the buffer of the idx'th oldest entry. */
+	private int slot(int idx) {
+		int s = head + idx;
+		return (s >= entries.length) ? s - entries.length : s;
+	}
+
+	private int next(int s) {
+		return (s + 1 == entries.length) ? 0 : s + 1;
+	}
+
+	/** Double the buffer, without exceeding the limit. */
+	private void grow() {
+		int capacity = 2 * entries.length;
+		if ((limit != UNBOUNDED) && (capacity > limit)) {
+			capacity = limit;
+		}
+		resize (capacity);
+	}
+
+	/** Copy the entries, oldest first, into a buffer of the given size. */
+	private void resize(int capacity) {
+		int[] bigger = new int [capacity];
+		int first = Math.min (size, entries.length - head);
+		System.arraycopy (entries, head, bigger, 0, first);
+		System.arraycopy (entries, 0, bigger, first, size - first);
+		entries = bigger;
+		head = 0;
+	}
+}
@@ -0,0 +1,61 @@
+package ks.common.model;
+
+/**
+ * Random keys used to maintain a Zobrist hash of the cards in a <code>Stack</code>.
+ * <p>
+ * The hash of a stack is the exclusive-or of the keys of its (card code, depth)
+ * pairs, where depth zero is the bottom of the stack. Adding or removing the top
+ * card therefore updates the hash in constant time. Face down cards have codes
+ * distinct from their face up counterparts, and so contribute different keys.
+ * <p>
+ * Keys are generated from a fixed seed, so hash values are identical from one run
+ * (and one JVM) to the next.
+ * <p>
+ * @since V2.3
+ */
+public final class Zobrist {
+
+	/** Depths for which keys are tabulated; deeper positions are computed on demand. */
+	public static final int TABLE_DEPTH = 64;
+
+	/** Table of keys, indexed by [code][depth]. */
+	private static final long[][] keys = new long [2 * CardCode.FACE_DOWN][TABLE_DEPTH];
+
+	static {
+		long state = 0x5EA50A5L;
+		for (int code = 0; code < keys.length; code++) {
+			for (int d = 0; d < TABLE_DEPTH; d++) {
+				state += 0x9E3779B97F4A7C15L;
+				keys[code][d] = mix (state);
+			}
+		}
+	}
+
+	/** No instances. */
+	private Zobrist() { }
+
+	/**
+	 * Return the key of the given card code at the given depth within a stack.
+	 * @param code    a valid card code (face up or face down)
+	 * @param depth   position within the stack (zero is the bottom)
+	 * @return long
+	 */
+	public static long key(int code, int depth) {
+		if (depth < TABLE_DEPTH) {
+			return keys[code][depth];
+		}
+
+		return mix (keys[code][depth & (TABLE_DEPTH-1)] + depth);
+	}
+
+	/**
+	 * Scramble the bits of a 64-bit value (the finalizer of the SplitMix64 generator).
+	 * @param z    value to scramble.
+	 * @return long
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -6,7 +6,6 @@ import ks.common.model.BuildablePile;
 import ks.common.model.Card;
 import ks.common.model.Column;
 import ks.common.model.Element;
-import ks.common.model.Stack;
 
 /**
  * Visually represents a BuildablePile element on the screen. A BuildablePile is
@@ -104,10 +103,8 @@ public class BuildablePileView extends Widget {
 
 		// Is there any error checking to do here?
 		theBP.select (nth);
-		Stack s = theBP.getSelected();
-
 		Column col = new Column ();
-		col.push (s);
+		theBP.moveTopTo (col, theBP.getNumSelectedCards());
 
 		ColumnView cv = new ColumnView (col);
 
@@ -196,8 +193,7 @@ public class BuildablePileView extends Widget {
 		// For each card in the Column, draw at increasing offsets, overlapping as we go down.
 		for (int i = numFaceDown; i < bp.count(); i++) {
 			anythingDrawn = true;
-			Card c = bp.peek (i);
-			img = cards.getCardImage(c);
+			img = cards.getCardImage(bp.peekCode (i));
 			g.drawImage (img, 0, numFaceDown * smallOverlap + (i-numFaceDown)*overlap, container);
 		}
 
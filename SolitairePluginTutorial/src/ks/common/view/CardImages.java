@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 
 import ks.common.model.Card;
+import ks.common.model.CardCode;
 
 /**
  * Responsible for returning images for cards (as well as reverse).
@@ -34,6 +35,12 @@ public class CardImages {
 	/** Store each image locally once retrieved. */
 	protected java.util.Hashtable<String,Image> imageCache = new java.util.Hashtable<String,Image>();
 
+	/** 
+	 * Images indexed by card identity, filled in from imageCache on demand.
+	 * @since V2.3
+	 */
+	protected Image[] codeCache = new Image[CardCode.NUM_CODES];
+
 	/** Calculated overlap value (-1 if not yet calculated) */
 	protected int calculatedOverlap = -1;
 	
@@ -114,6 +121,26 @@ public class CardImages {
 		String rep = c.getName ();
 		return cacheLookup (rep);
 	}
+	/**
+	 * Get the card image given a <code>CardCode</code>.
+	 * <p>
+	 * The face up state of the code is ignored; use <code>getCardReverse()</code> for
+	 * face down cards. Lookups avoid the String construction of the other variants.
+	 * <p>
+	 * @return Image
+	 * @param code    code of card whose image is being requested.
+	 * @since V2.3
+	 */
+	public Image getCardImage(int code) {
+		int id = CardCode.identity (code);
+		Image img = codeCache[id];
+		if (img == null) {
+			img = getCardImage (CardCode.rank (id), CardCode.suit (id));
+			codeCache[id] = img;
+		}
+
+		return img;
+	}
 	/**
 	 * Get the reverse image for a card.
 	 * <p>
@@ -190,6 +217,7 @@ public class CardImages {
 
 		String key = c.getName();
 		cacheStore (key, img);
+		codeCache[CardCode.identity (c.getCode())] = null;
 	}
 	/**
 	 * Set the reverse image for a card.
@@ -248,6 +276,7 @@ public class CardImages {
 			if (cil != null) { mt.removeImage(img); }
 			img.flush();
 		}
+		codeCache = new Image[CardCode.NUM_CODES];
 		
 		// now eliminate deck from cached decks.
 		cil.remove(this);
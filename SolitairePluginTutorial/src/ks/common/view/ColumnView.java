@@ -3,9 +3,9 @@ package ks.common.view;
 import java.awt.Image;
 
 import ks.common.model.Card;
+import ks.common.model.CardCode;
 import ks.common.model.Column;
 import ks.common.model.ElementListener;
-import ks.common.model.Stack;
 
 /**
  * Represents a column of cards (face up) on the screen. The space will expand to
@@ -118,15 +118,7 @@ public class ColumnView extends Widget implements ElementListener {
 			r = new java.awt.Rectangle (0, 0, cards.getWidth(), cards.getHeight());
 		}
 		
-		// only way to insert at bottom...
-		Stack st = new Stack();
-		while (col.count() > 1) {
-			st.add(col.get());
-		}
-		Card theCard = col.get();
-		while (st.count() > 0) {
-			col.add(st.get());
-		}
+		Card theCard = col.remove (0);
 		
 		CardView cv = new CardView (theCard);
 		
@@ -184,15 +176,10 @@ public class ColumnView extends Widget implements ElementListener {
 			return null;
 		}
 
-		// Now we can do something!
+		// Now we can do something! Move the selected cards into a new Column.
 		col.select (count);
-		Stack s = col.getSelected();
-
-		// create a new Column from these cards
 		Column retCol = new Column("retCol");
-		for (int i = 0; i < s.count(); i++) {
-			retCol.add (s.peek (i));
-		}
+		col.moveTopTo (retCol, col.getNumSelectedCards());
 
 		ColumnView colView = new ColumnView (retCol);
 
@@ -276,10 +263,10 @@ public class ColumnView extends Widget implements ElementListener {
 		// For each card in the Column, draw at increasing offsets, overlapping as we go down.
 		if (size > 0) {
 			for (int i = 0; i < size; i++) {
-				Card c = col.peek (i);
+				int code = col.peekCode (i);
 				Image img;
-				if (c.isFaceUp()) {
-					img = cards.getCardImage(c);
+				if (CardCode.isFaceUp (code)) {
+					img = cards.getCardImage(code);
 				} else {
 					img = cards.getCardReverse();
 				}
@@ -323,11 +310,8 @@ public class ColumnView extends Widget implements ElementListener {
 				return false;
 			}
 
-			// Restore our model element's state, one card at a time.
-			for (int i = 0; i < theCol.count(); i++) {
-				Card c = theCol.peek (i);
-				src.add (c);
-			}
+			// Restore our model element's state.
+			src.push (theCol);
 
 			return true;
 		}
@@ -352,15 +336,7 @@ public class ColumnView extends Widget implements ElementListener {
 		if (topRemoved) {
 			src.add(replacingCard);
 		} else {
-			// only way to insert at bottom...
-			Stack st = new Stack();
-			while (src.count() > 0) {
-				st.add(src.get());
-			}
-			src.add(replacingCard);
-			while (st.count() > 0) {
-				src.add(st.get());
-			}
+			src.insert (0, replacingCard);
 		}
 
 		return true;
@@ -3,6 +3,7 @@ package ks.common.view;
 import java.awt.*;
 
 import ks.common.model.Card;
+import ks.common.model.CardCode;
 import ks.common.model.Element;
 import ks.common.model.Pile;
 
@@ -99,16 +100,16 @@ public class PileView extends Widget {
 		// draw background according to skin visitor.
 		container.getVisitor().visit(g, getBounds());
 
-		// Peek at the top card from the pile
-		Card c = thePile.peek();
-		if (c != null) {
+		// Peek at the top card from the pile (without creating a copy)
+		int code = thePile.peekCode();
+		if (code != CardCode.NONE) {
 			Image img = null;
-			if (c.isFaceUp()) {
-				img = cards.getCardImage(c);
+			if (CardCode.isFaceUp (code)) {
+				img = cards.getCardImage(code);
 			} else {
 				img = cards.getCardReverse();
 			}
-			if (c.isSelected()){
+			if (thePile.isSelected (thePile.count() - 1)){
 				g.drawImage (img, 0, 0, container);
 				Color alpha = new Color(150,150,150, 150);
 				g.setColor (alpha);
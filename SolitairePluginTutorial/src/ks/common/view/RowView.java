@@ -3,9 +3,9 @@ package ks.common.view;
 import java.awt.*;
 
 import ks.common.model.Card;
+import ks.common.model.CardCode;
 import ks.common.model.Column;
 import ks.common.model.ElementListener;
-import ks.common.model.Stack;
 
 /**
  * Represents a row of cards on the screen. Note: This defaults to a row of
@@ -208,8 +208,9 @@ public class RowView extends Widget implements ElementListener {
 		// Now we can do something! This selects and extracts cards from
 		// the model.
 		col.select (numSelectedCards);
-		Stack stack = col.getSelected();
-		RowView rv = new RowView (new Column (stack));
+		Column moved = new Column ();
+		col.moveTopTo (moved, col.getNumSelectedCards());
+		RowView rv = new RowView (moved);
 
 		// keep similar justification and direction
 		rv.setJustification (justification);
@@ -327,10 +328,10 @@ public class RowView extends Widget implements ElementListener {
 		int offset[] = {-1, 1};
 		if (size > 0) {
 			for (int i = start[direction], ct = 0; ct < totalNum; i += offset[direction], ct++) {
-				Card c = col.peek (firstDrawn() + ct);
+				int code = col.peekCode (firstDrawn() + ct);
 				Image img;
-				if (c.isFaceUp()) {
-					img = cards.getCardImage(c);
+				if (CardCode.isFaceUp (code)) {
+					img = cards.getCardImage(code);
 				} else {
 					img = cards.getCardReverse();
 				}
@@ -0,0 +1,335 @@
+package ks.launcher;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ks.common.games.Solitaire;
+import ks.common.games.SolitaireSolver;
+import ks.common.games.SolverResult;
+import ks.common.games.SolvableSolitaire;
+import ks.common.games.TranspositionTable;
+
+/**
+ * Solves every deal in a range of seeds headless, on every available core, and
+ * records one row per seed.
+ * <p>
+ * Usage: <code>java ks.launcher.Survey gameClass firstSeed lastSeed [file] [seconds] [threads] [strategy] [weight]</code>
+ * <p>
+ * for example <code>java ks.launcher.Survey heineman.Klondike 1 10000 klondike.tsv</code>
+ * <p>
+ * The game must implement <code>SolvableSolitaire</code> and support
+ * <code>Solitaire.resetHeadless()</code>. Each deal is searched by its own
+ * <code>SolitaireSolver</code> for at most the given number of seconds (30 by
+ * default), with the given strategy: <code>dfs</code> (the default),
+ * <code>best</code> or <code>astar</code>, the last with the given weight of
+ * the estimate (2 by default). Rows are appended to the file, tab separated, as each deal is
+ * finished (so not in seed order):
+ * <pre>
+ * seed   result   nodes   ms   length
+ * </pre>
+ * where result is <code>won</code>, <code>lost</code> (every move was tried)
+ * or <code>timeout</code> (the time ran out, or the search left positions
+ * beyond its depth limit); nodes is the number of moves tried, and length the
+ * number of moves of the solution (zero unless won).
+ * <p>
+ * Rows are flushed as they are written. When the survey is started again with
+ * the same file, the seeds it already records are skipped, so a survey that was
+ * interrupted resumes where it left off. Without a file (or given "-"), rows
+ * go to standard output.
+ *
+ * @since V2.3
+ */
+public class Survey {
+
+	/** Time allowed for each deal, unless given on the command line. */
+	static final int DEFAULT_SECONDS = 30;
+
+	/** Stack for each solving thread, since the search recurses once per move. */
+	static final long STACK_SIZE = 64L << 20;
+
+	/** Game being surveyed. */
+	protected final Class<?> gameClass;
+
+	/** Time allowed for each deal, in milliseconds. */
+	protected final long limit;
+
+	/** How each deal is searched, and the weight of the estimate in weighted A*. */
+	protected int strategy = SolitaireSolver.DEPTH_FIRST;
+	protected double weight = SolitaireSolver.DEFAULT_WEIGHT;
+
+	/** Recipient of the rows. */
+	protected final Writer out;
+
+	/** Seeds already recorded, relative to the first seed. */
+	protected final BitSet done;
+
+	/**
+	 * Survey constructor.
+	 *
+	 * @param gameClass   a Solitaire class that implements <code>SolvableSolitaire</code>.
+	 * @param limit       time allowed for each deal, in milliseconds.
+	 * @param out         recipient of the rows.
+	 * @param done        seeds to skip, relative to the first seed.
+	 */
+	public Survey(Class<?> gameClass, long limit, Writer out, BitSet done) {
+		if (!Solitaire.class.isAssignableFrom (gameClass) || !SolvableSolitaire.class.isAssignableFrom (gameClass)) {
+			throw new IllegalArgumentException ("Survey::Survey() " + gameClass.getName() + " is not a SolvableSolitaire game.");
+		}
+
+		this.gameClass = gameClass;
+		this.limit = limit;
+		this.out = out;
+		this.done = done;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 3) {
+			System.err.println ("Usage: java ks.launcher.Survey gameClass firstSeed lastSeed [file] [seconds] [threads] [strategy] [weight]");
+			return;
+		}
+
+		Class<?> gameClass = Class.forName (args[0]);
+		int first = Integer.parseInt (args[1]);
+		int last = Integer.parseInt (args[2]);
+		File file = (args.length > 3 && !args[3].equals ("-")) ? new File (args[3]) : null;
+		long limit = 1000L * ((args.length > 4) ? Integer.parseInt (args[4]) : DEFAULT_SECONDS);
+		int numThreads = (args.length > 5) ? Integer.parseInt (args[5]) : Runtime.getRuntime().availableProcessors();
+		int strategy = (args.length > 6) ? strategyOf (args[6]) : SolitaireSolver.DEPTH_FIRST;
+		double weight = (args.length > 7) ? Double.parseDouble (args[7]) : SolitaireSolver.DEFAULT_WEIGHT;
+
+		Writer out;
+		BitSet done;
+		if (file == null) {
+			out = new OutputStreamWriter (System.out);
+			done = new BitSet();
+		} else {
+			done = recorded (file, first, last);
+			out = new FileWriter (file, true);
+			if (!endsWithNewline (file)) {
+				out.write ('\n');   // complete a row cut short by a crash.
+			}
+		}
+
+		try {
+			Survey survey = new Survey (gameClass, limit, out, done);
+			survey.setStrategy (strategy);
+			survey.setWeight (weight);
+			survey.run (first, last, numThreads);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Choose how each deal is searched.
+	 *
+	 * @param strategy   one of SolitaireSolver.DEPTH_FIRST, BEST_FIRST or WEIGHTED_ASTAR.
+	 */
+	public void setStrategy(int strategy) {
+		if (strategy < SolitaireSolver.DEPTH_FIRST || strategy > SolitaireSolver.WEIGHTED_ASTAR) {
+			throw new IllegalArgumentException ("Survey::setStrategy() received invalid strategy " + strategy);
+		}
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Set the weight of the estimate when deals are searched by weighted A*.
+	 *
+	 * @param weight   weight of the estimate, no smaller than zero.
+	 */
+	public void setWeight(double weight) {
+		if (!(weight >= 0)) {
+			throw new IllegalArgumentException ("Survey::setWeight() received invalid weight " + weight);
+		}
+		this.weight = weight;
+	}
+
+	/**
+	 * Solve every deal in [first, last] not already done, with the given number of threads.
+	 *
+	 * @param first        first seed (inclusive).
+	 * @param last         last seed (inclusive).
+	 * @param numThreads   number of deals solved at once.
+	 */
+	public void run(final int first, final int last, int numThreads) throws IOException, InterruptedException {
+		if (numThreads < 1) {
+			throw new IllegalArgumentException ("Survey::run() received invalid number of threads.");
+		}
+
+		final AtomicInteger next = new AtomicInteger (first);
+		ExecutorService pool = Executors.newFixedThreadPool (numThreads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread (null, r, "Survey", STACK_SIZE);
+				t.setDaemon (true);
+				return t;
+			}
+		});
+
+		try {
+			List<Future<?>> results = new ArrayList<Future<?>>();
+			for (int t = 0; t < numThreads; t++) {
+				results.add (pool.submit (new Runnable() {
+					public void run() {
+						Solitaire game = newGame();
+						TranspositionTable table = new TranspositionTable();
+						int seed;
+						while ((seed = next.getAndIncrement()) <= last && seed >= first) {
+							if (done.get (seed - first)) continue;
+
+							record (solve (game, seed, table));
+						}
+					}
+				}));
+			}
+
+			for (Future<?> f : results) {
+				f.get();
+			}
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new RuntimeException (cause);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Solve a single deal, and return its row (without line terminator).
+	 *
+	 * @param game    instance of the game to deal into.
+	 * @param seed    the deal.
+	 * @param table   table for the solver, which is cleared first.
+	 * @return String
+	 */
+	public String solve(Solitaire game, int seed, TranspositionTable table) {
+		game.setSeed (seed);
+		if (!game.resetHeadless()) {
+			throw new IllegalStateException ("Survey::solve() " + game.getName() + " cannot be played headless.");
+		}
+
+		SolitaireSolver solver = new SolitaireSolver (game, true, table);
+		solver.setStrategy (strategy);
+		solver.setWeight (weight);
+		solver.setTimeBudget (limit);
+
+		long start = System.nanoTime();
+		String result;
+		solver.solve();
+		switch (solver.getResult().getStatus()) {
+			case SolverResult.WON:  result = "won"; break;
+			case SolverResult.LOST: result = "lost"; break;
+			default:                result = "timeout"; break;
+		}
+		long ms = (System.nanoTime() - start) / 1000000;
+
+		int length = solver.hasWon() ? game.getUndoLog().size() : 0;
+		return seed + "\t" + result + "\t" + solver.getNumMoves() + "\t" + ms + "\t" + length;
+	}
+
+	/** Append a row, flushing it at once. */
+	protected void record(String row) {
+		synchronized (out) {
+			try {
+				out.write (row + "\n");
+				out.flush();
+			} catch (IOException ioe) {
+				throw new RuntimeException ("Survey::record() unable to write: " + ioe.getMessage());
+			}
+		}
+	}
+
+	/** Create an instance of the game. */
+	protected Solitaire newGame() {
+		try {
+			return (Solitaire) gameClass.getDeclaredConstructor().newInstance();
+		} catch (NoSuchMethodException nsme) {
+			throw new IllegalStateException ("Survey::newGame() " + gameClass.getName() + " has no constructor without arguments.");
+		} catch (InstantiationException ie) {
+			throw new IllegalStateException ("Survey::newGame() unable to create " + gameClass.getName());
+		} catch (IllegalAccessException iae) {
+			throw new IllegalStateException ("Survey::newGame() unable to create " + gameClass.getName());
+		} catch (InvocationTargetException ite) {
+			throw new IllegalStateException ("Survey::newGame() unable to create " + gameClass.getName() + ": " + ite.getCause());
+		}
+	}
+
+	/**
+	 * Return the seeds in [first, last] recorded by complete rows of the file,
+	 * relative to first. A final line without terminator was cut short, and
+	 * does not count.
+	 */
+	static BitSet recorded(File file, int first, int last) throws IOException {
+		BitSet done = new BitSet();
+		if (!file.exists()) return done;
+
+		boolean complete = endsWithNewline (file);
+		BufferedReader in = new BufferedReader (new FileReader (file));
+		try {
+			String line = in.readLine();
+			while (line != null) {
+				String following = in.readLine();
+				if (following != null || complete) {
+					int seed = seedOf (line);
+					if (seed >= first && seed <= last) {
+						done.set (seed - first);
+					}
+				}
+				line = following;
+			}
+		} finally {
+			in.close();
+		}
+		return done;
+	}
+
+	/** Return the strategy named on the command line: dfs, best or astar. */
+	static int strategyOf(String name) {
+		if (name.equals ("dfs")) return SolitaireSolver.DEPTH_FIRST;
+		if (name.equals ("best")) return SolitaireSolver.BEST_FIRST;
+		if (name.equals ("astar")) return SolitaireSolver.WEIGHTED_ASTAR;
+		throw new IllegalArgumentException ("Survey::strategyOf() unknown strategy " + name);
+	}
+
+	/** Return the seed of a row, or -1 if the line is not a row. */
+	static int seedOf(String line) {
+		String[] fields = line.split ("\t");
+		if (fields.length != 5) return -1;
+
+		try {
+			return Integer.parseInt (fields[0]);
+		} catch (NumberFormatException nfe) {
+			return -1;
+		}
+	}
+
+	/** Determine whether the file is empty or ends with a line terminator. */
+	static boolean endsWithNewline(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile (file, "r");
+		try {
+			if (raf.length() == 0) return true;
+
+			raf.seek (raf.length() - 1);
+			return raf.read() == '\n';
+		} finally {
+			raf.close();
+		}
+	}
+}
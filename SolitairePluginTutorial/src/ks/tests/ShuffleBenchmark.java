@@ -0,0 +1,94 @@
+package ks.tests;
+
+import ks.common.model.CardCode;
+import ks.common.model.DealGenerator;
+import ks.common.model.DealSink;
+import ks.common.model.Deck;
+import ks.common.model.ShuffleStrategy;
+
+/**
+ * Measures the throughput of each <code>ShuffleStrategy</code>, both when creating
+ * Decks of Card objects and when shuffling raw card codes, and of bulk generation
+ * by <code>DealGenerator</code> on one thread and on every available core.
+ * <p>
+ * Usage: <code>java ks.tests.ShuffleBenchmark [numDeals]</code>
+ * 
+ * @since V2.3
+ */
+public class ShuffleBenchmark {
+
+	/** Number of deals timed, unless given on the command line. */
+	static final int DEFAULT_DEALS = 1000000;
+
+	public static void main(String[] args) {
+		int numDeals = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEALS;
+
+		String[] names = { "legacy", "fisher-yates" };
+		ShuffleStrategy[] strategies = { ShuffleStrategy.LEGACY, ShuffleStrategy.FISHER_YATES };
+
+		// two rounds: the first warms up the JIT.
+		for (int round = 0; round < 2; round++) {
+			for (int s = 0; s < strategies.length; s++) {
+				report (names[s] + " Deck.create", numDeals, timeDecks (strategies[s], numDeals), round);
+				report (names[s] + " byte[]     ", numDeals, timeCodes (strategies[s], numDeals), round);
+			}
+
+			int cores = Runtime.getRuntime().availableProcessors();
+			report ("fisher-yates generator x1", numDeals, timeGenerator (numDeals, 1), round);
+			report ("fisher-yates generator x" + cores, numDeals, timeGenerator (numDeals, cores), round);
+		}
+	}
+
+	/** Generate numDeals deals with the given number of threads; return elapsed nanoseconds. */
+	static long timeGenerator(int numDeals, int numThreads) {
+		final long[] check = new long[1];
+		DealGenerator gen = new DealGenerator (ShuffleStrategy.FISHER_YATES, 1);
+		long start = System.nanoTime();
+		gen.generate (1, numDeals + 1, numThreads, new DealSink() {
+			public void deals(int firstSeed, int count, byte[] deals) {
+				synchronized (check) {
+					check[0] += deals[0];
+				}
+			}
+		});
+		return System.nanoTime() - start;
+	}
+
+	/** Create numDeals decks; return elapsed nanoseconds. */
+	static long timeDecks(ShuffleStrategy strategy, int numDeals) {
+		Deck d = new Deck();
+		long check = 0;
+		long start = System.nanoTime();
+		for (int seed = 1; seed <= numDeals; seed++) {
+			d.create (seed, strategy);
+			check += d.peekCode();
+		}
+		long elapsed = System.nanoTime() - start;
+		if (check == 42) System.out.print("");   // keep the result alive
+		return elapsed;
+	}
+
+	/** Shuffle numDeals arrays of card codes; return elapsed nanoseconds. */
+	static long timeCodes(ShuffleStrategy strategy, int numDeals) {
+		byte[] codes = new byte [CardCode.NUM_CODES];
+		long check = 0;
+		long start = System.nanoTime();
+		for (int seed = 1; seed <= numDeals; seed++) {
+			for (int i = 0; i < codes.length; i++) {
+				codes[i] = (byte) i;
+			}
+			strategy.shuffle (codes, codes.length, seed);
+			check += codes[0];
+		}
+		long elapsed = System.nanoTime() - start;
+		if (check == 42) System.out.print("");   // keep the result alive
+		return elapsed;
+	}
+
+	static void report(String what, int numDeals, long nanos, int round) {
+		if (round == 0) return;
+
+		double perSecond = numDeals / (nanos / 1e9);
+		System.out.println (what + ": " + (long) perSecond + " deals/sec (" + (nanos / numDeals) + " ns/deal)");
+	}
+}
@@ -0,0 +1,92 @@
+package ks.tests;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+import ks.common.games.ParallelSolitaireSolver;
+import ks.common.games.Solitaire;
+import ks.common.games.SolitaireSolver;
+
+/**
+ * Compares <code>ParallelSolitaireSolver</code> with the sequential
+ * <code>SolitaireSolver</code> on a fixed set of seeds, reporting the time each
+ * takes on every deal and the overall speedup. Each search is stopped once it
+ * exceeds the time limit.
+ * <p>
+ * Usage: <code>java ks.tests.SolverBenchmark gameClass [firstSeed] [numSeeds] [numThreads] [seconds]</code>
+ * <p>
+ * for example <code>java ks.tests.SolverBenchmark heineman.Klondike 1 20 32</code>
+ *
+ * @since V2.3
+ */
+public class SolverBenchmark {
+
+	/** Defaults, unless given on the command line. */
+	static final int DEFAULT_FIRST_SEED = 1;
+	static final int DEFAULT_SEEDS = 20;
+	static final int DEFAULT_SECONDS = 10;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println ("Usage: java ks.tests.SolverBenchmark gameClass [firstSeed] [numSeeds] [numThreads] [seconds]");
+			return;
+		}
+
+		Class<?> gameClass = Class.forName (args[0]);
+		int firstSeed = (args.length > 1) ? Integer.parseInt (args[1]) : DEFAULT_FIRST_SEED;
+		int numSeeds = (args.length > 2) ? Integer.parseInt (args[2]) : DEFAULT_SEEDS;
+		int numThreads = (args.length > 3) ? Integer.parseInt (args[3]) : Runtime.getRuntime().availableProcessors();
+		long limit = 1000L * ((args.length > 4) ? Integer.parseInt (args[4]) : DEFAULT_SECONDS);
+
+		Timer timer = new Timer (true);
+		long seqTotal = 0, parTotal = 0;
+		int seqWon = 0, parWon = 0;
+		System.out.println ("seed\tsequential ms\twon\tparallel x" + numThreads + " ms\twon");
+		for (int seed = firstSeed; seed < firstSeed + numSeeds; seed++) {
+			final SolitaireSolver seq = new SolitaireSolver (deal (gameClass, seed), true);
+			long start = System.nanoTime();
+			TimerTask task = stopper (seq, null);
+			timer.schedule (task, limit);
+			boolean s = seq.solve();
+			task.cancel();
+			long seqTime = (System.nanoTime() - start) / 1000000;
+
+			final ParallelSolitaireSolver par = new ParallelSolitaireSolver (deal (gameClass, seed), numThreads);
+			start = System.nanoTime();
+			task = stopper (null, par);
+			timer.schedule (task, limit);
+			boolean p = par.solve();
+			task.cancel();
+			long parTime = (System.nanoTime() - start) / 1000000;
+
+			seqTotal += seqTime;
+			parTotal += parTime;
+			if (s) seqWon++;
+			if (p) parWon++;
+			System.out.println (seed + "\t" + seqTime + "\t" + s + "\t" + parTime + "\t" + p);
+		}
+
+		System.out.println ("total\t" + seqTotal + "\t" + seqWon + "\t" + parTotal + "\t" + parWon);
+		System.out.println ("speedup: " + Math.round (100.0 * seqTotal / Math.max (parTotal, 1)) / 100.0);
+	}
+
+	/** Create a game of the given class, dealt headless from the given seed. */
+	static Solitaire deal(Class<?> gameClass, int seed) throws Exception {
+		Solitaire game = (Solitaire) gameClass.getDeclaredConstructor().newInstance();
+		game.setSeed (seed);
+		if (!game.resetHeadless()) {
+			throw new IllegalArgumentException ("SolverBenchmark::deal() " + game.getName() + " cannot be played headless.");
+		}
+		return game;
+	}
+
+	/** Task that stops whichever solver is given. */
+	static TimerTask stopper(final SolitaireSolver seq, final ParallelSolitaireSolver par) {
+		return new TimerTask() {
+			public void run() {
+				if (seq != null) seq.stop();
+				if (par != null) par.stop();
+			}
+		};
+	}
+}
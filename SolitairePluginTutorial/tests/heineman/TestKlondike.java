@@ -8,12 +8,15 @@ import heineman.idiot.MoveCardMove;
 import heineman.idiot.RemoveCardMove;
 import heineman.klondike.DealCardMove;
 import heineman.klondike.FlipCardMove;
+import heineman.klondike.MoveCardToFoundationMove;
 import heineman.klondike.MoveColumnMove;
+import heineman.klondike.MoveWasteToFoundationMove;
 import heineman.klondike.MoveWasteToPileMove;
 import ks.client.gamefactory.GameWindow;
 import ks.common.model.Card;
 import ks.common.model.Column;
 import ks.common.model.Deck;
+import ks.common.model.Move;
 import ks.common.view.ColumnView;
 import ks.launcher.Main;
 import ks.tests.KSTestCase;
@@ -43,6 +46,43 @@ public class TestKlondike extends KSTestCase {
 		gw.dispose();
 	}
 	
+	public void testSafeMove() {
+		for (int c = 1; c <= 7; c++) game.piles[c].removeAll();
+		for (int f = 1; f <= 4; f++) game.foundation[f].removeAll();
+		game.wastePile.removeAll();
+		assertNull (game.safeMove());
+
+		// face-down cards are always turned over
+		Card hidden = new Card (Card.KING, Card.CLUBS);
+		hidden.setFaceUp (false);
+		game.piles[3].add (hidden);
+		Move m = game.safeMove();
+		assertTrue (m instanceof FlipCardMove);
+		assertTrue (m.doMove (game));
+		assertNull (game.safeMove());
+
+		// aces always go up
+		game.wastePile.add (new Card (Card.ACE, Card.HEARTS));
+		m = game.safeMove();
+		assertTrue (m instanceof MoveWasteToFoundationMove);
+		assertTrue (m.doMove (game));
+
+		// the black Twos could still be built on the Three of hearts...
+		game.foundation[1].add (new Card (Card.TWO, Card.HEARTS));
+		game.foundation[2].add (new Card (Card.ACE, Card.CLUBS));
+		game.foundation[2].add (new Card (Card.TWO, Card.CLUBS));
+		game.foundation[3].add (new Card (Card.ACE, Card.SPADES));
+		game.piles[5].add (new Card (Card.THREE, Card.HEARTS));
+		assertNull (game.safeMove());
+
+		// ... until they are both up.
+		game.foundation[3].add (new Card (Card.TWO, Card.SPADES));
+		m = game.safeMove();
+		assertTrue (m instanceof MoveCardToFoundationMove);
+		assertTrue (m.doMove (game));
+		assertTrue (game.piles[5].empty());
+	}
+
 	public void testDealOne() {
 		DealCardMove dfm = new DealCardMove(game.deck, game.wastePile);
 
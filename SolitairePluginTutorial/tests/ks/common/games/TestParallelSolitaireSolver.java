@@ -0,0 +1,88 @@
+package ks.common.games;
+
+import junit.framework.TestCase;
+import ks.common.model.Move;
+
+public class TestParallelSolitaireSolver extends TestCase {
+
+	public void testWin() {
+		TestSolitaireSolver.Game game = new TestSolitaireSolver.Game();
+		game.resetHeadless();
+
+		// solving starts from the current position, not the deal.
+		Move m = new TestSolitaireUndo.TopMove (game.a, game.b, true);
+		m.doMove (game);
+		game.pushMove (m);
+
+		ParallelSolitaireSolver solver = new ParallelSolitaireSolver (game, 4);
+		assertTrue (solver.solve());
+		assertTrue (solver.hasWon());
+		assertTrue (solver.getNumTasks() > 0);
+
+		// the winning moves follow the one already made.
+		assertTrue (game.hasWon());
+		assertTrue (game.a.empty());
+		assertEquals (13, game.getUndoLog().size());
+	}
+
+	public void testSafeMoves() {
+		TestSolitaireSolver.SafeGame game = new TestSolitaireSolver.SafeGame();
+		game.resetHeadless();
+
+		// tasks are split off before the safe moves, which the winning solver makes.
+		ParallelSolitaireSolver solver = new ParallelSolitaireSolver (game, 2);
+		assertTrue (solver.solve());
+		assertTrue (game.hasWon());
+		assertEquals (13, game.getUndoLog().size());
+		assertEquals (13, java.util.Collections.list (game.getMoves()).size());
+	}
+
+	public void testExhausted() {
+		TestSolitaireSolver.Shuttle game = new TestSolitaireSolver.Shuttle();
+		game.resetHeadless();
+
+		ParallelSolitaireSolver solver = new ParallelSolitaireSolver (game, 3);
+		assertFalse (solver.solve());
+
+		// each of the 14 ways to split the cards is reached, and the game is untouched.
+		assertEquals (14, solver.getTranspositionTable().size());
+		assertEquals (13, game.a.count());
+	}
+
+	public void testSmallTable() {
+		TestSolitaireSolver.Shuttle game = new TestSolitaireSolver.Shuttle();
+		game.resetHeadless();
+
+		// the threads evict each other's splits, yet none follows a cycle for ever.
+		ParallelSolitaireSolver solver = new ParallelSolitaireSolver (game, 3);
+		solver.setTranspositionTable (new TranspositionTable (4));
+		assertFalse (solver.solve());
+		assertEquals (13, game.a.count());
+	}
+
+	public void testStopped() {
+		TestSolitaireSolver.Game game = new TestSolitaireSolver.Game();
+		game.resetHeadless();
+
+		ParallelSolitaireSolver solver = new ParallelSolitaireSolver (game, 2);
+		solver.stop();
+		assertFalse (solver.solve());
+		assertEquals (0, solver.getNumMoves());
+	}
+
+	public void testInvalid() {
+		try {
+			new ParallelSolitaireSolver (new TestSolitaireUndo.Game(), 2);
+			fail ("Game is not solvable.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+
+		try {
+			new ParallelSolitaireSolver (new TestSolitaireSolver.Game(), 0);
+			fail ("Needs at least one thread.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}
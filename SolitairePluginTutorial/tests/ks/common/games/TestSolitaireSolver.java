@@ -0,0 +1,484 @@
+package ks.common.games;
+
+import java.util.Enumeration;
+import java.util.Vector;
+
+import junit.framework.TestCase;
+import ks.common.model.Card;
+import ks.common.model.Model;
+import ks.common.model.Move;
+import ks.common.model.Pile;
+
+public class TestSolitaireSolver extends TestCase {
+
+	/** Won by moving every card from a to b, one at a time. */
+	static class Game extends TestSolitaireUndo.Game implements SolvableSolitaire {
+		int headlessDeals;
+
+		public boolean hasWon() {
+			return b.count() == 13;
+		}
+
+		protected boolean initializeHeadless() {
+			headlessDeals++;
+			a.removeAll();
+			b.removeAll();
+			addModelElement (a, Model.TABLEAU);
+			addModelElement (b, Model.TABLEAU);
+			for (int r = Card.ACE; r <= Card.KING; r++) {
+				a.add (new Card (r, Card.CLUBS));
+			}
+			return true;
+		}
+
+		public Enumeration<Move> availableMoves() {
+			Vector<Move> v = new Vector<Move>();
+			if (!a.empty()) {
+				v.addElement (new TestSolitaireUndo.TopMove (a, b, true));
+			}
+			return v.elements();
+		}
+	}
+
+	/** Cannot be won: the only moves shuttle cards back and forth between a and b. */
+	static class Shuttle extends Game {
+		public boolean hasWon() {
+			return false;
+		}
+
+		public Enumeration<Move> availableMoves() {
+			Vector<Move> v = new Vector<Move>();
+			if (!a.empty()) {
+				v.addElement (new TestSolitaireUndo.TopMove (a, b, true));
+			}
+			if (!b.empty()) {
+				v.addElement (new TestSolitaireUndo.TopMove (b, a, true));
+			}
+			return v.elements();
+		}
+	}
+
+	/** Shuttle in which moving cards from a to b is safe while a holds more than six. */
+	static class SafeShuttle extends Shuttle implements SafeMoveSolitaire {
+		public Move safeMove() {
+			return (a.count() > 6) ? new TestSolitaireUndo.TopMove (a, b, true) : null;
+		}
+	}
+
+	/** Game in which moving cards from a to b is safe while a holds more than six. */
+	static class SafeGame extends Game implements SafeMoveSolitaire {
+		public Move safeMove() {
+			return (a.count() > 6) ? new TestSolitaireUndo.TopMove (a, b, true) : null;
+		}
+	}
+
+	/** Shuttle that supplies its own heuristic, counting the estimates it makes. */
+	static class GuidedShuttle extends Shuttle implements HeuristicSolitaire {
+		int estimates;
+
+		public SolverHeuristic getHeuristic() {
+			return new SolverHeuristic() {
+				public int estimate (Solitaire g) {
+					estimates++;
+					return 1 + a.count();
+				}
+			};
+		}
+	}
+
+	/** Shuttle that calls positions with more than three cards in b dead ends. */
+	static class DeadShuttle extends Shuttle implements DeadEndSolitaire {
+		public DeadEndDetector getDeadEndDetector() {
+			return new DeadEndDetector() {
+				public boolean isDeadEnd (Solitaire g) {
+					return b.count() > 3;
+				}
+			};
+		}
+	}
+
+	/** Moves the top card, scoring the given number of points. */
+	static class PointMove extends TestSolitaireUndo.TopMove {
+		int points;
+
+		PointMove (Pile from, Pile to, int points) {
+			super (from, to, false);
+			this.points = points;
+		}
+
+		public boolean doMove (Solitaire game) {
+			super.doMove (game);
+			game.updateScore (points);
+			return true;
+		}
+
+		public boolean undo (Solitaire game) {
+			super.undo (game);
+			game.updateScore (-points);
+			return true;
+		}
+	}
+
+	/** Shuttle scoring a point for each card in b. */
+	static class Scored extends Shuttle {
+		public Enumeration<Move> availableMoves() {
+			Vector<Move> v = new Vector<Move>();
+			if (!a.empty()) {
+				v.addElement (new PointMove (a, b, 1));
+			}
+			if (!b.empty()) {
+				v.addElement (new PointMove (b, a, -1));
+			}
+			return v.elements();
+		}
+	}
+
+	/** Records what it is told. */
+	static class Listener implements SolverListener {
+		int progress;
+		int finished;
+
+		public void progress (SolitaireSolver solver) {
+			progress++;
+		}
+
+		public void finished (SolitaireSolver solver) {
+			finished++;
+		}
+	}
+
+	public void testHeadless() {
+		Game game = new Game();
+		assertTrue (game.resetHeadless());
+		assertEquals (1, game.headlessDeals);
+		assertNull (game.getContainer());
+
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		assertTrue (solver.isHeadless());
+		Listener listener = new Listener();
+		solver.setListener (listener);
+		solver.setProgressInterval (0);
+
+		assertTrue (solver.solve());
+		assertTrue (solver.hasWon());
+		assertEquals (13, solver.getNumMoves());
+		assertEquals (13, listener.progress);
+		assertEquals (1, listener.finished);
+
+		// the winning moves are left in place, and the model notifies again.
+		assertTrue (game.a.empty());
+		assertEquals (13, game.getUndoLog().size());
+		assertTrue (game.getModel().isNotifying());
+	}
+
+	public void testTranspositions() {
+		Shuttle game = new Shuttle();
+		game.resetHeadless();
+
+		// every one of the 14 ways to split the cards is searched only once; moving
+		// a card back leads to a split on the path, which is not looked up.
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		assertFalse (solver.solve());
+		TranspositionTable table = solver.getTranspositionTable();
+		assertEquals (14, table.size());
+		assertEquals (14, table.getMisses());
+		assertEquals (0, table.getHits());
+		assertEquals (26, solver.getNumMoves());
+
+		// the search leaves the game as it found it.
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		// a second search starts afresh.
+		assertFalse (solver.solve());
+		assertEquals (14, table.size());
+	}
+
+	public void testCycles() {
+		Shuttle game = new Shuttle();
+		game.resetHeadless();
+
+		// without a table, or with one too small to remember the splits, moving
+		// cards back and forth still ends once every path has been searched.
+		SolitaireSolver solver = new SolitaireSolver (game, true, null);
+		assertFalse (solver.solve());
+		assertEquals (SolverResult.LOST, solver.getResult().getStatus());
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		TranspositionTable table = new TranspositionTable (4);
+		solver.setTranspositionTable (table);
+		assertFalse (solver.solve());
+		assertEquals (SolverResult.LOST, solver.getResult().getStatus());
+		assertTrue (table.getDropped() > 0);
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+	}
+
+	public void testDepthLimit() {
+		Game game = new Game();
+		game.resetHeadless();
+
+		// the win lies thirteen moves away.
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		assertEquals (SolitaireSolver.DEFAULT_DEPTH_LIMIT, solver.getDepthLimit());
+		solver.setDepthLimit (12);
+		assertFalse (solver.solve());
+		assertEquals (SolverResult.EXHAUSTED, solver.getResult().getStatus());
+		assertEquals (12, solver.getResult().getMaxDepth());
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		solver.setDepthLimit (13);
+		assertTrue (solver.solve());
+
+		try {
+			solver.setDepthLimit (0);
+			fail ("Limit must be positive.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testStopped() {
+		Game game = new Game();
+		game.resetHeadless();
+
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.stop();
+		assertFalse (solver.solve());
+		assertEquals (0, solver.getNumMoves());
+	}
+
+	public void testBestFirst() {
+		Game game = new Game();
+		game.resetHeadless();
+
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setStrategy (SolitaireSolver.BEST_FIRST);
+		assertEquals (SolitaireSolver.BEST_FIRST, solver.getStrategy());
+		assertTrue (solver.solve());
+		assertEquals (13, solver.getNumMoves());
+
+		// the winning moves are played again, so they can be undone.
+		assertTrue (game.a.empty());
+		assertEquals (13, game.getUndoLog().size());
+		assertTrue (game.getModel().isNotifying());
+	}
+
+	public void testWeightedAStar() {
+		Shuttle game = new Shuttle();
+		game.resetHeadless();
+
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setStrategy (SolitaireSolver.WEIGHTED_ASTAR);
+		solver.setHeuristic (new SolverHeuristic() {
+			public int estimate (Solitaire g) {
+				return 1 + ((Shuttle) g).a.count();
+			}
+		});
+		solver.setWeight (0);
+		assertFalse (solver.solve());
+		assertEquals (14, solver.getTranspositionTable().size());
+		assertEquals (26, solver.getNumMoves());
+
+		// the frontier is exhausted, and the game left as it was found.
+		assertEquals (13, game.a.count());
+		assertTrue (game.b.empty());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		try {
+			solver.setStrategy (3);
+			fail ("No such strategy.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+		try {
+			solver.setWeight (-1);
+			fail ("Weight must not be negative.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testGameHeuristic() {
+		GuidedShuttle game = new GuidedShuttle();
+		game.resetHeadless();
+
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setStrategy (SolitaireSolver.BEST_FIRST);
+		assertFalse (solver.solve());
+		assertTrue (game.estimates > 0);
+
+		// another heuristic takes its place.
+		game.estimates = 0;
+		solver.setHeuristic (new ScoreHeuristic());
+		assertFalse (solver.solve());
+		assertEquals (0, game.estimates);
+	}
+
+	public void testSafeMoves() {
+		SafeShuttle game = new SafeShuttle();
+		game.resetHeadless();
+
+		// the first seven cards are moved without branching: only the deal and the
+		// seven ways to split the other six cards are searched. The first split
+		// is on the path of every other, so it is never looked up.
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		assertFalse (solver.solve());
+		assertEquals (7, solver.getTranspositionTable().size());
+		assertTrue (solver.getNumSafeMoves() >= 7);
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		// best first, the safe moves are not recorded.
+		solver.setStrategy (SolitaireSolver.BEST_FIRST);
+		assertFalse (solver.solve());
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		// without them, every split is searched.
+		solver.setSafeMoves (false);
+		assertFalse (solver.solve());
+		assertEquals (0, solver.getNumSafeMoves());
+		assertEquals (14, solver.getTranspositionTable().size());
+	}
+
+	public void testDeadEnds() {
+		Shuttle game = new Shuttle();
+		game.resetHeadless();
+
+		// positions with more than three cards in b are cut, so only five are reached.
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setDeadEndDetector (new DeadEndDetector() {
+			public boolean isDeadEnd (Solitaire g) {
+				return ((Shuttle) g).b.count() > 3;
+			}
+		});
+		assertFalse (solver.solve());
+		assertEquals (1, solver.getNumDeadEnds());
+		assertEquals (5, solver.getTranspositionTable().size());
+		assertEquals (7, solver.getNumMoves());
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		// best first cuts the same position.
+		solver.setStrategy (SolitaireSolver.BEST_FIRST);
+		assertFalse (solver.solve());
+		assertEquals (1, solver.getNumDeadEnds());
+		assertEquals (13, game.a.count());
+	}
+
+	public void testGameDeadEnds() {
+		DeadShuttle game = new DeadShuttle();
+		game.resetHeadless();
+
+		// the same position is cut as when the detector is given.
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		assertFalse (solver.solve());
+		assertEquals (1, solver.getNumDeadEnds());
+		assertEquals (5, solver.getTranspositionTable().size());
+
+		// without a detector, every position is searched.
+		solver.setDeadEndDetector (null);
+		assertFalse (solver.solve());
+		assertEquals (0, solver.getNumDeadEnds());
+		assertEquals (14, solver.getTranspositionTable().size());
+	}
+
+	public void testResult() {
+		Game game = new Game();
+		game.resetHeadless();
+
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		assertNull (solver.getResult());
+		assertTrue (solver.solve());
+		SolverResult result = solver.getResult();
+		assertEquals (SolverResult.WON, result.getStatus());
+		assertTrue (result.hasWon());
+		assertEquals (13, result.getLine().size());
+		assertEquals (13, result.getMaxDepth());
+		assertEquals (13, result.getNumMoves());
+
+		// every split is tried, and the best line moves every card to b.
+		Scored scored = new Scored();
+		scored.resetHeadless();
+		solver = new SolitaireSolver (scored, true);
+		assertFalse (solver.solve());
+		result = solver.getResult();
+		assertEquals (SolverResult.LOST, result.getStatus());
+		assertEquals (13, result.getBestScore());
+		assertEquals (13, result.getLine().size());
+		assertEquals (0, scored.getScoreValue());
+
+		// best first finds the same line.
+		solver.setStrategy (SolitaireSolver.BEST_FIRST);
+		assertFalse (solver.solve());
+		assertEquals (13, solver.getResult().getBestScore());
+		assertEquals (13, solver.getResult().getLine().size());
+		assertEquals (13, scored.a.count());
+	}
+
+	public void testBudgets() {
+		Scored game = new Scored();
+		game.resetHeadless();
+
+		// out of moves after five, the best line has them all.
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setNodeBudget (5);
+		assertFalse (solver.solve());
+		SolverResult result = solver.getResult();
+		assertEquals (SolverResult.EXHAUSTED, result.getStatus());
+		assertEquals (5, result.getBestScore());
+		assertEquals (5, result.getLine().size());
+		assertEquals (13, game.a.count());
+		assertTrue (game.getUndoLog().isEmpty());
+
+		// a budget beyond the range of int is not truncated.
+		solver.setNodeBudget ((1L << 32) + 5);
+		solver.solve();
+		assertTrue (solver.getResult().getStatus() != SolverResult.EXHAUSTED);
+		assertEquals (13, solver.getResult().getBestScore());
+
+		// out of time.
+		solver.setNodeBudget (0);
+		solver.setTimeBudget (1);
+		solver.setDeadEndDetector (new DeadEndDetector() {
+			public boolean isDeadEnd (Solitaire g) {
+				try {
+					Thread.sleep (5);
+				} catch (InterruptedException ie) {
+					// carry on
+				}
+				return false;
+			}
+		});
+		assertFalse (solver.solve());
+		assertEquals (SolverResult.EXHAUSTED, solver.getResult().getStatus());
+		assertTrue (solver.getNumMoves() < 26);
+
+		// stopped, which takes precedence.
+		solver.stop();
+		assertFalse (solver.solve());
+		assertEquals (SolverResult.STOPPED, solver.getResult().getStatus());
+
+		try {
+			solver.setNodeBudget (-1);
+			fail ("Budget must not be negative.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testUnsupported() {
+		// a game that does not override initializeHeadless() cannot be dealt headless
+		assertFalse (new TestSolitaireUndo.Game().resetHeadless());
+
+		try {
+			new SolitaireSolver (new TestSolitaireUndo.Game(), true);
+			fail ("Game is not solvable.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}
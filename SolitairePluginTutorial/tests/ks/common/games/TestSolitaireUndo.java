@@ -0,0 +1,138 @@
+package ks.common.games;
+
+import java.util.Enumeration;
+
+import junit.framework.TestCase;
+import ks.common.model.Card;
+import ks.common.model.Model;
+import ks.common.model.Move;
+import ks.common.model.Pile;
+import ks.common.model.UndoLog;
+
+public class TestSolitaireUndo extends TestCase {
+
+	/** Moves the top card of one pile to another; encodes itself unless told otherwise. */
+	static class TopMove extends Move {
+		Pile from, to;
+		boolean encodable;
+
+		TopMove (Pile from, Pile to, boolean encodable) {
+			this.from = from;
+			this.to = to;
+			this.encodable = encodable;
+		}
+
+		public boolean doMove (Solitaire game) {
+			to.add (from.get());
+			return true;
+		}
+
+		public boolean undo (Solitaire game) {
+			from.add (to.get());
+			return true;
+		}
+
+		public boolean valid (Solitaire game) {
+			return !from.empty();
+		}
+
+		public int encode() {
+			if (!encodable) return UndoLog.NONE;
+			return UndoLog.pack (0, from.getHandle(), to.getHandle(), to.peekCode());
+		}
+	}
+
+	/** Minimal headless game with two piles. */
+	static class Game extends Solitaire {
+		Pile a = new Pile ("a");
+		Pile b = new Pile ("b");
+
+		Game() {
+			addModelElement (a, Model.TABLEAU);
+			addModelElement (b, Model.TABLEAU);
+		}
+
+		public String getName() { return "Game"; }
+		public boolean hasWon() { return false; }
+		public void initialize() { }
+
+		protected Move decodeMove (int entry) {
+			return new TopMove ((Pile) getModelElement (UndoLog.source (entry)),
+					(Pile) getModelElement (UndoLog.target (entry)), true);
+		}
+	}
+
+	Game game;
+
+	protected void setUp() {
+		game = new Game();
+		for (int r = Card.ACE; r <= Card.KING; r++) {
+			game.a.add (new Card (r, Card.CLUBS));
+		}
+	}
+
+	/** Make the move and record it, as a controller would. */
+	void play (boolean encodable) {
+		Move m = new TopMove (game.a, game.b, encodable);
+		assertTrue (m.doMove (game));
+		game.pushMove (m);
+	}
+
+	/** Undo the most recent move without refreshing any widgets. */
+	boolean undo() {
+		Move m = game.popMove();
+		return (m != null) && m.undo (game);
+	}
+
+	public void testEncodedMovesAreNotRetained() {
+		play (true);
+		play (false);
+		play (true);
+		assertEquals (3, game.getUndoLog().size());
+		assertEquals (1, game.moves.size());
+
+		int n = 0;
+		for (Enumeration<Move> e = game.getMoves(); e.hasMoreElements(); n++) {
+			TopMove m = (TopMove) e.nextElement();
+			assertSame (game.a, m.from);
+			assertEquals (n != 1, m.encodable);
+		}
+		assertEquals (3, n);
+
+		assertTrue (undo());
+		assertTrue (undo());
+		assertTrue (game.moves.isEmpty());
+		assertTrue (undo());
+		assertFalse (undo());
+		assertEquals (13, game.a.count());
+		assertTrue (game.b.empty());
+	}
+
+	public void testCopy() {
+		TopMove m = new TopMove (game.a, game.b, false);
+		TopMove copy = (TopMove) m.copy();
+		assertNotSame (m, copy);
+		assertSame (game.a, copy.from);
+		assertSame (game.b, copy.to);
+		assertFalse (copy.encodable);
+	}
+
+	public void testUndoLimit() {
+		play (false);
+		play (true);
+		play (false);
+		game.setUndoLimit (2);
+		assertEquals (1, game.moves.size());
+
+		// the retained move object is forgotten along with its entry
+		play (true);
+		assertEquals (1, game.moves.size());
+		play (true);
+		assertTrue (game.moves.isEmpty());
+
+		assertTrue (undo());
+		assertTrue (undo());
+		assertFalse (undo());
+		assertEquals (3, game.b.count());
+	}
+}
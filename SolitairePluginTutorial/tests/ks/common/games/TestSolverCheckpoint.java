@@ -0,0 +1,209 @@
+package ks.common.games;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import junit.framework.TestCase;
+
+public class TestSolverCheckpoint extends TestCase {
+
+	File file;
+
+	protected void setUp() throws Exception {
+		file = File.createTempFile ("solver", ".ckpt");
+	}
+
+	protected void tearDown() {
+		file.delete();
+		new File (file.getPath() + ".tmp").delete();
+	}
+
+	/** Copy one file to another. */
+	static void copy (File from, File to) throws IOException {
+		FileInputStream in = new FileInputStream (from);
+		FileOutputStream out = new FileOutputStream (to);
+		try {
+			out.getChannel().transferFrom (in.getChannel(), 0, from.length());
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	/** Search the game to the end, then resume the same search cut short after each budget. */
+	void checkResumed (int strategy) throws IOException {
+		TestSolitaireSolver.Scored game = new TestSolitaireSolver.Scored();
+		game.resetHeadless();
+		SolitaireSolver whole = new SolitaireSolver (game, true);
+		whole.setStrategy (strategy);
+		assertFalse (whole.solve());
+		int size = whole.getTranspositionTable().size();
+
+		for (int budget = 1; budget < whole.getNumMoves(); budget += 7) {
+			game = new TestSolitaireSolver.Scored();
+			game.resetHeadless();
+			SolitaireSolver solver = new SolitaireSolver (game, true);
+			solver.setStrategy (strategy);
+			solver.setNodeBudget (budget);
+			solver.setCheckpoint (file, 60000);
+			assertFalse (solver.solve());
+			assertEquals (SolverResult.EXHAUSTED, solver.getResult().getStatus());
+			assertTrue (file.length() > 0);
+
+			// a fresh solver, in the same state as a restarted JVM.
+			game = new TestSolitaireSolver.Scored();
+			game.resetHeadless();
+			solver = new SolitaireSolver (game, true, new TranspositionTable (64));
+			solver.setCheckpoint (file, 60000);
+			assertFalse (solver.resume (file));
+			SolverResult result = solver.getResult();
+			assertEquals (SolverResult.LOST, result.getStatus());
+			assertEquals (strategy, solver.getStrategy());
+			assertEquals (13, result.getBestScore());
+			assertEquals (13, result.getLine().size());
+			assertEquals (size, solver.getTranspositionTable().size());
+			assertEquals (whole.getTranspositionTable().getMisses(), solver.getTranspositionTable().getMisses());
+			assertEquals (whole.getNumMoves(), result.getNumMoves());
+			assertEquals (13, game.a.count());
+
+			// nothing left to resume.
+			assertFalse (file.exists());
+		}
+	}
+
+	public void testDepthFirst() throws IOException {
+		checkResumed (SolitaireSolver.DEPTH_FIRST);
+	}
+
+	public void testBestFirst() throws IOException {
+		checkResumed (SolitaireSolver.BEST_FIRST);
+	}
+
+	public void testWon() throws IOException {
+		TestSolitaireSolver.Game game = new TestSolitaireSolver.Game();
+		game.resetHeadless();
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setNodeBudget (5);
+		solver.setCheckpoint (file, 60000);
+		assertFalse (solver.solve());
+
+		game = new TestSolitaireSolver.Game();
+		game.resetHeadless();
+		solver = new SolitaireSolver (game, true);
+		assertTrue (solver.resume (file));
+		assertEquals (13, game.b.count());
+		assertEquals (13, game.getUndoLog().size());
+		assertEquals (13, solver.getResult().getLine().size());
+		assertEquals (13, solver.getNumMoves());
+	}
+
+	public void testPeriodic() throws IOException {
+		final File copy = new File (file.getPath() + ".copy");
+		try {
+			TestSolitaireSolver.SafeShuttle game = new TestSolitaireSolver.SafeShuttle();
+			game.resetHeadless();
+			final SolitaireSolver solver = new SolitaireSolver (game, true);
+			solver.setProgressInterval (0);
+			solver.setCheckpoint (file, 0);
+			solver.setListener (new SolverListener() {
+				public void progress (SolitaireSolver s) {
+					// keep the checkpoint written halfway through the search.
+					try {
+						if (s.getNumMoves() == 7) copy (file, copy);
+					} catch (IOException ioe) {
+						fail (ioe.getMessage());
+					}
+				}
+
+				public void finished (SolitaireSolver s) {
+				}
+			});
+			assertFalse (solver.solve());
+			long moves = solver.getNumMoves();
+			int size = solver.getTranspositionTable().size();
+			assertFalse (file.exists());
+
+			game = new TestSolitaireSolver.SafeShuttle();
+			game.resetHeadless();
+			SolitaireSolver resumed = new SolitaireSolver (game, true);
+			resumed.setSafeMoves (false);
+			assertFalse (resumed.resume (copy));
+			assertEquals (moves, resumed.getNumMoves());
+			assertEquals (solver.getNumSafeMoves(), resumed.getNumSafeMoves());
+			assertEquals (size, resumed.getTranspositionTable().size());
+		} finally {
+			copy.delete();
+		}
+	}
+
+	public void testLongCounters() throws IOException {
+		TestSolitaireSolver.Scored game = new TestSolitaireSolver.Scored();
+		game.resetHeadless();
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setNodeBudget (3);
+		solver.setCheckpoint (file, 60000);
+		solver.solve();
+
+		// counters beyond the range of int survive the round trip.
+		SolverCheckpoint cp = SolverCheckpoint.read (file, null);
+		cp.numMoves = (1L << 33) + 1;
+		cp.numSafeMoves = (1L << 32) + 2;
+		cp.numDeadEnds = Integer.MAX_VALUE + 3L;
+		cp.write (file);
+		cp = SolverCheckpoint.read (file, null);
+		assertEquals ((1L << 33) + 1, cp.numMoves);
+		assertEquals ((1L << 32) + 2, cp.numSafeMoves);
+		assertEquals (Integer.MAX_VALUE + 3L, cp.numDeadEnds);
+	}
+
+	public void testInvalid() throws IOException {
+		TestSolitaireSolver.Scored game = new TestSolitaireSolver.Scored();
+		game.resetHeadless();
+		SolitaireSolver solver = new SolitaireSolver (game, true);
+		solver.setNodeBudget (3);
+		solver.setCheckpoint (file, 60000);
+		solver.solve();
+
+		// another game.
+		TestSolitaireSolver.Game other = new TestSolitaireSolver.Game();
+		other.resetHeadless();
+		try {
+			new SolitaireSolver (other, true).resume (file);
+			fail ("Checkpoint is of another game.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+
+		// cut short.
+		RandomAccessFile raf = new RandomAccessFile (file, "rw");
+		raf.setLength (raf.length() - 1);
+		raf.close();
+		try {
+			solver.resume (file);
+			fail ("Checkpoint was cut short.");
+		} catch (IOException ioe) {
+			// success
+		}
+
+		FileWriter w = new FileWriter (file);
+		w.write ("not a checkpoint");
+		w.close();
+		try {
+			solver.resume (file);
+			fail ("Not a checkpoint.");
+		} catch (IOException ioe) {
+			// success
+		}
+
+		try {
+			solver.setCheckpoint (file, -1);
+			fail ("Interval must not be negative.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}
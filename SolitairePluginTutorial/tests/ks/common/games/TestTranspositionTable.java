@@ -0,0 +1,110 @@
+package ks.common.games;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+public class TestTranspositionTable extends TestCase {
+
+	public void testVisit() {
+		TranspositionTable t = new TranspositionTable (16);
+		assertFalse (t.visit (0x1234567890ABCDEFL, 3));
+		assertTrue (t.visit (0x1234567890ABCDEFL, 5));
+		assertTrue (t.visit (0x1234567890ABCDEFL, 1));
+
+		// zero is a key like any other.
+		assertFalse (t.visit (0, 0));
+		assertTrue (t.visit (0, 0));
+
+		assertEquals (2, t.size());
+		assertEquals (3, t.getHits());
+		assertEquals (2, t.getMisses());
+		assertEquals (0.6, t.getHitRate(), 1e-9);
+
+		t.clear();
+		assertEquals (0, t.size());
+		assertEquals (0.0, t.getHitRate(), 0);
+		assertFalse (t.visit (0, 0));
+	}
+
+	public void testDepthPreferred() {
+		// keys that differ only above the slot bits all land in the same bucket.
+		TranspositionTable t = new TranspositionTable (4);
+		for (int i = 1; i <= 4; i++) {
+			assertFalse (t.visit ((long) i << 40, 10 + i));
+		}
+		assertEquals (4, t.size());
+
+		// too deep to displace anything.
+		assertFalse (t.visit (5L << 40, 20));
+		assertEquals (1, t.getDropped());
+		assertFalse (t.visit (5L << 40, 20));
+
+		// a shallower position displaces the deepest one (depth 14).
+		assertFalse (t.visit (6L << 40, 2));
+		assertEquals (1, t.getReplaced());
+		assertTrue (t.visit (6L << 40, 2));
+		assertTrue (t.visit (1L << 40, 11));
+		assertFalse (t.visit (4L << 40, 14));
+	}
+
+	public void testCapacity() {
+		try {
+			new TranspositionTable (100);
+			fail ("Capacity must be a power of two.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+
+		try {
+			new TranspositionTable (16).visit (1, -1);
+			fail ("Depth must not be negative.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	/** Save the table to a file, and load it back into a new one. */
+	TranspositionTable saved (TranspositionTable t) throws Exception {
+		File file = File.createTempFile ("table", ".ckpt");
+		try {
+			RandomAccessFile raf = new RandomAccessFile (file, "rw");
+			SolverCheckpoint.Output out = new SolverCheckpoint.Output (raf.getChannel());
+			t.save (out);
+			out.flush();
+			ByteBuffer in = ByteBuffer.allocate ((int) raf.length());
+			raf.getChannel().read (in, 0);
+			raf.close();
+
+			in.flip();
+			TranspositionTable copy = new TranspositionTable (in.getInt());
+			copy.load (in);
+			assertFalse (in.hasRemaining());
+			return copy;
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testSave() throws Exception {
+		// sparse, then full.
+		for (int n : new int[] { 5, 64 }) {
+			TranspositionTable t = new TranspositionTable (64);
+			for (int i = 0; i < n; i++) {
+				t.visit (0x9E3779B97F4A7C15L * (i + 1), i);
+			}
+
+			TranspositionTable copy = saved (t);
+			assertEquals (t.getCapacity(), copy.getCapacity());
+			assertEquals (t.size(), copy.size());
+			assertEquals (t.getMisses(), copy.getMisses());
+			assertEquals (t.getDropped(), copy.getDropped());
+			for (int i = 0; i < n; i++) {
+				assertEquals (t.visit (0x9E3779B97F4A7C15L * (i + 1), i), copy.visit (0x9E3779B97F4A7C15L * (i + 1), i));
+			}
+			assertEquals (t.getHits(), copy.getHits());
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package ks.common.model;
+
+import junit.framework.TestCase;
+
+public class TestDealGenerator extends TestCase {
+
+	/** Verify that each deal matches the Deck created from the same seed. */
+	static class Checker implements DealSink {
+		final ShuffleStrategy strategy;
+		final int numDecks;
+		int[] counts;
+		int from;
+
+		Checker(ShuffleStrategy strategy, int numDecks, int from, int to) {
+			this.strategy = strategy;
+			this.numDecks = numDecks;
+			this.from = from;
+			counts = new int [to - from];
+		}
+
+		public void deals(int firstSeed, int count, byte[] deals) {
+			int n = numDecks * CardCode.NUM_CODES;
+			for (int i = 0; i < count; i++) {
+				Deck d = (numDecks == 1) ? new Deck() : new MultiDeck (numDecks);
+				d.create (firstSeed + i, strategy);
+				for (int c = 0; c < n; c++) {
+					assertEquals (d.peekCode (c), deals[i * n + c]);
+				}
+				synchronized (this) {
+					counts[firstSeed + i - from]++;
+				}
+			}
+		}
+	}
+
+	public void testMatchesDeck() {
+		ShuffleStrategy[] all = { ShuffleStrategy.LEGACY, ShuffleStrategy.FISHER_YATES };
+		for (int s = 0; s < all.length; s++) {
+			// includes the special sorted orders
+			Checker chk = new Checker (all[s], 1, Deck.OrderBySuit, 40);
+			new DealGenerator (all[s], 1).generate (Deck.OrderBySuit, 40, chk);
+			for (int i = 0; i < chk.counts.length; i++) {
+				assertEquals (1, chk.counts[i]);
+			}
+		}
+
+		Checker chk = new Checker (ShuffleStrategy.FISHER_YATES, 2, Deck.OrderBySuit, 5);
+		new DealGenerator (ShuffleStrategy.FISHER_YATES, 2).generate (Deck.OrderBySuit, 5, chk);
+		assertEquals (1, chk.counts[0]);
+	}
+
+	public void testParallel() {
+		int to = 3 * DealGenerator.BLOCK_SIZE + 17;
+		Checker chk = new Checker (ShuffleStrategy.FISHER_YATES, 1, 1, to);
+		new DealGenerator (ShuffleStrategy.FISHER_YATES, 1).generate (1, to, 4, chk);
+		for (int i = 0; i < chk.counts.length; i++) {
+			assertEquals (1, chk.counts[i]);
+		}
+	}
+
+	public void testParallelNearMaxSeed() {
+		// the blocks of the later threads would start past Integer.MAX_VALUE
+		int from = Integer.MAX_VALUE - DealGenerator.BLOCK_SIZE - 17;
+		Checker chk = new Checker (ShuffleStrategy.FISHER_YATES, 1, from, Integer.MAX_VALUE);
+		new DealGenerator (ShuffleStrategy.FISHER_YATES, 1).generate (from, Integer.MAX_VALUE, 4, chk);
+		for (int i = 0; i < chk.counts.length; i++) {
+			assertEquals (1, chk.counts[i]);
+		}
+	}
+
+	public void testSinkFailure() {
+		try {
+			new DealGenerator (ShuffleStrategy.FISHER_YATES, 1).generate (1, 5000, 3, new DealSink() {
+				public void deals(int firstSeed, int count, byte[] deals) {
+					throw new IllegalStateException ("stop");
+				}
+			});
+			fail ("Sink exception must propagate.");
+		} catch (IllegalStateException ise) {
+			// success
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package ks.common.model;
+
+import junit.framework.TestCase;
+
+public class TestDeck extends TestCase {
+
+	/** Return codes of a deck sorted by suit, as created before shuffling. */
+	byte[] sortedCodes(int n) {
+		byte[] codes = new byte [n];
+		for (int i = 0; i < n; i++) {
+			codes[i] = (byte) (i % CardCode.NUM_CODES);
+		}
+		return codes;
+	}
+
+	public void testLegacySeeds() {
+		// deal 117 as produced by every earlier release
+		Deck d = new Deck();
+		d.create (117);
+		assertTrue (d.toString().startsWith ("[Stack:5S,QC,2H,10C,JD"));
+		assertEquals (Card.QUEEN, d.peekRank());
+
+		Deck d2 = new Deck();
+		d2.create (117, ShuffleStrategy.LEGACY);
+		assertEquals (d.toString(), d2.toString());
+	}
+
+	public void testCodesMatchCards() {
+		ShuffleStrategy[] all = { ShuffleStrategy.LEGACY, ShuffleStrategy.FISHER_YATES };
+		for (int s = 0; s < all.length; s++) {
+			for (int seed = 1; seed < 20; seed++) {
+				MultiDeck d = new MultiDeck (2);
+				d.create (seed, all[s]);
+
+				byte[] codes = sortedCodes (104);
+				all[s].shuffle (codes, 104, seed);
+				for (int i = 0; i < 104; i++) {
+					assertEquals (d.peekCode (i), codes[i]);
+				}
+			}
+		}
+	}
+
+	public void testFisherYates() {
+		Deck d = new Deck();
+		d.create (117, ShuffleStrategy.FISHER_YATES);
+		assertEquals (52, d.count());
+
+		// a permutation of the full deck
+		boolean[] seen = new boolean [CardCode.NUM_CODES];
+		for (int i = 0; i < d.count(); i++) {
+			assertFalse (seen[d.peekCode (i)]);
+			seen[d.peekCode (i)] = true;
+		}
+
+		// deterministic, and different from the legacy deal
+		Deck again = new Deck();
+		again.create (117, ShuffleStrategy.FISHER_YATES);
+		assertEquals (d.toString(), again.toString());
+		assertEquals (d.getHashKey(), again.getHashKey());
+
+		Deck legacy = new Deck();
+		legacy.create (117);
+		assertFalse (d.toString().equals (legacy.toString()));
+
+		// special orders are unaffected by the strategy
+		again.create (Deck.OrderBySuit, ShuffleStrategy.FISHER_YATES);
+		assertEquals (CardCode.code (Card.KING, Card.SPADES), again.peekCode());
+	}
+
+	public void testSplitMix() {
+		SplitMix64 a = new SplitMix64 (42);
+		SplitMix64 b = new SplitMix64 (42);
+		for (int i = 0; i < 100; i++) {
+			int v = a.nextInt (7);
+			assertTrue (v >= 0 && v < 7);
+			assertEquals (v, b.nextInt (7));
+		}
+
+		SplitMix64 child = a.split();
+		assertFalse (child.nextLong() == a.nextLong());
+	}
+
+	public void testCapacity() {
+		// a shoe is allocated once, at exactly its final size
+		MultiDeck shoe = new MultiDeck (8);
+		Card[] before = shoe.cards;
+		assertEquals (8 * 52, before.length);
+		shoe.create (3, ShuffleStrategy.FISHER_YATES);
+		shoe.create (4, ShuffleStrategy.FISHER_YATES);
+		assertSame (before, shoe.cards);
+		assertEquals (8 * 52, shoe.count());
+
+		Deck d = new Deck();
+		assertEquals (52, d.cards.length);
+
+		// growth beyond capacity at least doubles, and keeps the cards
+		Stack s = new Stack ("s", 1);
+		for (int i = 0; i < 100; i++) {
+			s.add (new Card (Card.ACE + i % 13, Card.CLUBS));
+		}
+		assertEquals (100, s.count());
+		assertEquals (128, s.cards.length);
+		assertEquals (Card.NINE, s.peekRank());
+
+		s.ensureCapacity (1000);
+		assertEquals (1000, s.cards.length);
+		assertEquals (Card.ACE, s.peek (0).getRank());
+
+		try {
+			new Stack ("bad", 0);
+			fail ("Capacity must be positive.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}
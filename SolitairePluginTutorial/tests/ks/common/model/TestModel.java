@@ -0,0 +1,114 @@
+package ks.common.model;
+
+import junit.framework.TestCase;
+
+public class TestModel extends TestCase {
+
+	/** Counts the modelChanged actions it receives. */
+	static class Counter implements ElementListener {
+		int count;
+
+		public void modelChanged (Element elt) {
+			count++;
+		}
+	}
+
+	Model model;
+	Pile p1, p2;
+	MutableInteger score;
+	Counter c1, c2, cs;
+
+	protected void setUp() {
+		model = new Model();
+		p1 = new Pile ("p1");
+		p2 = new Pile ("p2");
+		score = new MutableInteger ("score", 0);
+		model.addElement (p1);
+		model.addElement (p2);
+		model.addElement (score);
+
+		p1.setListener (c1 = new Counter());
+		p2.setListener (c2 = new Counter());
+		score.setListener (cs = new Counter());
+	}
+
+	public void testBatch() {
+		model.beginBatch();
+		model.beginBatch();
+		for (int i = 0; i < 10; i++) {
+			p1.add (new Card (Card.ACE, Card.CLUBS));
+			score.setValue (i);
+		}
+		model.endBatch();
+		assertTrue (model.inBatch());
+		assertEquals (0, c1.count);
+
+		model.endBatch();
+		assertFalse (model.inBatch());
+		assertEquals (1, c1.count);
+		assertEquals (0, c2.count);
+		assertEquals (1, cs.count);
+
+		// listeners are back in place
+		assertSame (c1, p1.getListener());
+		p2.add (new Card (Card.TWO, Card.CLUBS));
+		assertEquals (1, c2.count);
+
+		try {
+			model.endBatch();
+			fail ("Unmatched endBatch must fail.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testSilent() {
+		model.setNotifying (false);
+		assertFalse (model.isNotifying());
+		p1.add (new Card (Card.ACE, Card.CLUBS));
+		model.beginBatch();
+		score.setValue (3);
+		model.endBatch();
+		assertEquals (0, c1.count + c2.count + cs.count);
+
+		// every Element is refreshed once notification resumes
+		model.setNotifying (true);
+		assertEquals (1, c1.count);
+		assertEquals (1, c2.count);
+		assertEquals (1, cs.count);
+	}
+
+	public void testRemoveDuringBatch() {
+		model.beginBatch();
+		model.removeElement (p2);
+		assertSame (c2, p2.getListener());
+
+		model.removeAllElements();
+		assertSame (c1, p1.getListener());
+		model.endBatch();
+		assertEquals (0, c1.count);
+	}
+
+	public void testHandles() {
+		assertEquals (0, p1.getHandle());
+		assertEquals (2, score.getHandle());
+		assertSame (p2, model.getElement (p2.getHandle()));
+		assertEquals (Model.NONE, p1.getRole());
+
+		Pile f = new Pile ("f");
+		assertEquals (-1, f.getHandle());
+		assertTrue (model.addElement (f, Model.FOUNDATION));
+		assertEquals (3, f.getHandle());
+		assertEquals (Model.FOUNDATION, f.getRole());
+		assertSame (f, model.getElement (3));
+
+		// duplicate names are not added and receive no handle or role
+		Pile dup = new Pile ("f");
+		assertFalse (model.addElement (dup, Model.FOUNDATION));
+		assertEquals (-1, dup.getHandle());
+		assertEquals (Model.NONE, dup.getRole());
+
+		model.removeElement (p2);
+		assertNull (model.getElement (1));
+	}
+}
@@ -0,0 +1,92 @@
+package ks.common.model;
+
+import junit.framework.TestCase;
+
+public class TestModelSnapshot extends TestCase {
+
+	Model model;
+	Deck deck;
+	Pile waste;
+	Column col;
+	MutableInteger score;
+
+	protected void setUp() {
+		model = new Model();
+		deck = new Deck("deck");
+		deck.create (117);
+		waste = new Pile("waste");
+		col = new Column("col");
+		score = new MutableInteger("score", 3);
+
+		model.addElement (deck);
+		model.addElement (waste);
+		model.addElement (col);
+		model.addElement (score);
+
+		for (int i = 0; i < 5; i++) {
+			Card c = deck.get();
+			c.setFaceUp (i % 2 == 0);
+			col.add (c);
+		}
+	}
+
+	public void testRoundTrip() {
+		ModelSnapshot snap = new ModelSnapshot (model);
+		byte[] position = snap.newBuffer();
+		int len = snap.snapshot (position);
+		assertEquals (3 * 2 + 52 + 4, len);
+
+		String before = deck.toString() + waste + col + score;
+		Card top = deck.peek();
+		Card inColumn = col.get();
+
+		// play on.
+		while (!deck.empty()) {
+			waste.add (deck.get());
+		}
+		waste.add (inColumn);
+		score.setValue (17);
+
+		snap.restore (position);
+		assertEquals (before, deck.toString() + waste + col + score);
+		assertTrue (waste.empty());
+		assertEquals (3, score.getValue());
+		assertEquals (top, deck.peek());
+
+		// the very same card object is placed back into the column.
+		assertSame (inColumn, col.get());
+	}
+
+	public void testRestoreAcrossModels() {
+		ModelSnapshot snap = new ModelSnapshot (model);
+		byte[] position = snap.newBuffer();
+		snap.snapshot (position);
+
+		// an identically constructed model can be placed into the same position
+		Model other = new Model();
+		Deck d2 = new Deck("deck");
+		d2.create (Deck.OrderBySuit);
+		Pile w2 = new Pile("waste");
+		Column c2 = new Column("col");
+		MutableInteger s2 = new MutableInteger("score", 0);
+		other.addElement (d2);
+		other.addElement (w2);
+		other.addElement (c2);
+		other.addElement (s2);
+
+		new ModelSnapshot (other).restore (position);
+		assertEquals (deck.toString(), d2.toString());
+		assertEquals (col.toString(), c2.toString());
+		assertEquals (3, s2.getValue());
+	}
+
+	public void testBufferTooSmall() {
+		ModelSnapshot snap = new ModelSnapshot (model);
+		try {
+			snap.snapshot (new byte [snap.capacity() - 1]);
+			fail ("Small buffer must be rejected.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}
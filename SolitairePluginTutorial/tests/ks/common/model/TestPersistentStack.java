@@ -0,0 +1,57 @@
+package ks.common.model;
+
+import junit.framework.TestCase;
+
+public class TestPersistentStack extends TestCase {
+
+	public void testPushPop() {
+		int two = CardCode.code (Card.TWO, Card.HEARTS);
+		int king = CardCode.code (Card.KING, Card.SPADES);
+
+		PersistentStack s = PersistentStack.EMPTY.push (two).push (king);
+		assertEquals (2, s.size());
+		assertEquals (Card.KING, s.peekRank());
+		assertEquals (Card.SPADES, s.peekSuit());
+		assertEquals (two, s.peekCode (0));
+
+		// branches share the tail and leave the original untouched.
+		PersistentStack t = s.pop().push (CardCode.code (Card.ACE, Card.CLUBS));
+		assertSame (s.pop(), t.pop());
+		assertEquals (king, s.peekCode());
+		assertFalse (s.equals (t));
+
+		assertTrue (s.pop().pop().empty());
+		assertEquals (CardCode.NONE, PersistentStack.EMPTY.peekCode());
+		assertEquals (0, PersistentStack.EMPTY.peekRank());
+
+		try {
+			PersistentStack.EMPTY.pop();
+			fail ("pop on empty stack must fail.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testFromStack() {
+		Deck d = new Deck ("d");
+		d.create (117);
+
+		PersistentStack ps = PersistentStack.fromStack (d);
+		assertEquals (d.count(), ps.size());
+		assertEquals (d.getHashKey(), ps.getHashKey());
+		for (int i = 0; i < d.count(); i++) {
+			assertEquals (d.peekCode (i), ps.peekCode (i));
+		}
+
+		// structurally different but equal stacks.
+		PersistentStack rebuilt = PersistentStack.fromStack (d);
+		assertNotSame (ps, rebuilt);
+		assertEquals (ps, rebuilt);
+		assertEquals (ps.hashCode(), rebuilt.hashCode());
+
+		// hash follows the stack as it changes.
+		d.get();
+		assertEquals (d.getHashKey(), ps.pop().getHashKey());
+		assertEquals (d.toString().substring (7), ps.pop().toString().substring (17));
+	}
+}
@@ -0,0 +1,236 @@
+package ks.common.model;
+
+import junit.framework.TestCase;
+
+public class TestStack extends TestCase {
+
+	Stack s;
+
+	protected void setUp() {
+		s = new Stack("s");
+
+		// 2H at the bottom, then a face down 3H, then the KS on top.
+		s.add (new Card (Card.TWO, Card.HEARTS));
+		Card c = new Card (Card.THREE, Card.HEARTS);
+		c.setFaceUp (false);
+		s.add (c);
+		s.add (new Card (Card.KING, Card.SPADES));
+	}
+
+	public void testCardCode() {
+		assertEquals (0, CardCode.code (Card.ACE, Card.CLUBS));
+		assertEquals (51, CardCode.code (Card.KING, Card.SPADES));
+
+		for (int suit = Card.CLUBS; suit <= Card.SPADES; suit++) {
+			for (int rank = Card.ACE; rank <= Card.KING; rank++) {
+				Card c = new Card (rank, suit);
+				int code = c.getCode();
+				assertEquals (rank, CardCode.rank (code));
+				assertEquals (suit, CardCode.suit (code));
+				assertTrue (CardCode.isFaceUp (code));
+				for (int other = Card.CLUBS; other <= Card.SPADES; other++) {
+					assertEquals (c.oppositeColor (other), CardCode.oppositeColor (code, CardCode.code (Card.ACE, other)));
+				}
+
+				c.setFaceUp (false);
+				assertFalse (CardCode.isFaceUp (c.getCode()));
+				assertEquals (code, CardCode.identity (c.getCode()));
+				assertEquals (c.toString(), CardCode.toString (c.getCode()));
+			}
+		}
+	}
+
+	public void testPeeks() {
+		assertEquals (Card.KING, s.peekRank());
+		assertEquals (Card.SPADES, s.peekSuit());
+		assertTrue (s.topIs (Card.KING, Card.SPADES));
+		assertFalse (s.topIs (Card.KING, Card.HEARTS));
+
+		assertEquals (s.peek().getCode(), s.peekCode());
+		for (int i = 0; i < s.count(); i++) {
+			assertEquals (s.peek(i).getCode(), s.peekCode(i));
+		}
+		assertFalse (CardCode.isFaceUp (s.peekCode (1)));
+
+		assertTrue (s.select (2));
+		assertTrue (s.isSelected (2));
+		assertTrue (s.isSelected (1));
+		assertFalse (s.isSelected (0));
+	}
+
+	public void testEmptyPeeks() {
+		s.removeAll();
+
+		assertEquals (0, s.peekRank());
+		assertEquals (0, s.peekSuit());
+		assertEquals (CardCode.NONE, s.peekCode());
+		assertFalse (s.topIs (Card.KING, Card.SPADES));
+
+		try {
+			s.peekCode (0);
+			fail ("peekCode on empty stack must fail.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testHashKey() {
+		long key = s.getHashKey();
+		assertTrue (key != 0);
+
+		// incremental maintenance agrees with recomputation
+		s.rehash();
+		assertEquals (key, s.getHashKey());
+
+		// pop and push returns to the same key
+		Card c = s.get();
+		assertTrue (key != s.getHashKey());
+		s.add (c);
+		assertEquals (key, s.getHashKey());
+
+		// same cards in another stack yield the same key; order matters
+		Stack other = new Stack();
+		other.push (s);
+		assertEquals (key, other.getHashKey());
+		Card top = other.get();
+		Card next = other.get();
+		other.add (top);
+		other.add (next);
+		assertTrue (key != other.getHashKey());
+
+		// selection is irrelevant; emptying the stack resets the key
+		s.select (2);
+		assertEquals (key, s.getHashKey());
+		s.removeAll();
+		assertEquals (0, s.getHashKey());
+	}
+
+	public void testSelectionReset() {
+		assertTrue (s.select (2));
+		assertEquals (2, s.getNumSelectedCards());
+
+		// narrowing the selection deselects the card beneath
+		assertTrue (s.select (1));
+		assertTrue (s.isSelected (2));
+		assertFalse (s.isSelected (1));
+
+		// a card added selected is deselected, along with the rest of the stack
+		Card c = new Card (Card.ACE, Card.CLUBS);
+		c.setSelected (true);
+		s.add (c);
+		for (int i = 0; i < s.count(); i++) {
+			assertFalse (s.isSelected (i));
+		}
+		assertEquals (0, s.getNumSelectedCards());
+
+		// removed card keeps its state; remaining cards are deselected
+		s.select (3);
+		Card top = s.get();
+		assertTrue (top.isSelected());
+		for (int i = 0; i < s.count(); i++) {
+			assertFalse (s.isSelected (i));
+		}
+
+		s.select (3);
+		assertTrue (s.isSelected (0));
+		assertTrue (s.deselect());
+		assertFalse (s.isSelected (0));
+	}
+
+	/** Counts the modelChanged actions it receives. */
+	static class Counter implements ElementListener {
+		int count;
+
+		public void modelChanged (Element elt) {
+			count++;
+		}
+	}
+
+	/** Verify that the maintained hash key agrees with a recomputation. */
+	static void assertHashed (Stack st) {
+		long key = st.getHashKey();
+		st.rehash();
+		assertEquals (key, st.getHashKey());
+	}
+
+	public void testMoveTopTo() {
+		Stack dst = new Stack ("dst", 1);
+		dst.add (new Card (Card.ACE, Card.CLUBS));
+		Card two = s.cards[0];
+		Card ks = s.cards[2];
+
+		s.select (1);
+		Counter src = new Counter(), target = new Counter();
+		s.setListener (src);
+		dst.setListener (target);
+
+		s.moveTopTo (dst, 2);
+		assertEquals (1, src.count);
+		assertEquals (1, target.count);
+
+		assertEquals (1, s.count());
+		assertSame (two, s.cards[0]);
+		assertEquals ("[Stack:AC,[3H],KS]", dst.toString());
+		assertSame (ks, dst.cards[2]);
+		assertFalse (ks.isSelected());
+		assertHashed (s);
+		assertHashed (dst);
+
+		// nothing to move
+		s.moveTopTo (dst, 0);
+		assertEquals (1, src.count);
+
+		try {
+			s.moveTopTo (dst, 2);
+			fail ("Cannot move more cards than exist.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testMoveRangeAndRemove() {
+		Stack dst = new Stack();
+		s.moveRange (0, 2, dst);
+		assertEquals ("[Stack:KS]", s.toString());
+		assertEquals (2, dst.count());
+		assertEquals (Card.TWO, dst.peek (0).getRank());
+		assertHashed (s);
+		assertHashed (dst);
+
+		// remove from the middle and the bottom
+		dst.add (new Card (Card.FOUR, Card.HEARTS));
+		Card c = dst.remove (1);
+		assertEquals (Card.THREE, c.getRank());
+		assertEquals (Card.FOUR, dst.peek (1).getRank());
+		assertHashed (dst);
+
+		dst.insert (0, c);
+		assertEquals (Card.THREE, dst.peek (0).getRank());
+		assertEquals (3, dst.count());
+		assertHashed (dst);
+
+		dst.insert (3, new Card (Card.FIVE, Card.HEARTS));
+		assertEquals (Card.FIVE, dst.peekRank());
+		assertHashed (dst);
+	}
+
+	public void testGetSelected() {
+		Card top = s.cards[2];
+		s.select (2);
+		Stack sel = s.getSelected();
+		assertEquals (2, sel.count());
+		assertSame (top, sel.cards[1]);
+		assertFalse (sel.isSelected (0));
+		assertFalse (sel.isSelected (1));
+		assertEquals (1, s.count());
+		assertEquals (0, s.getNumSelectedCards());
+
+		// push copies, leaving its parameter unchanged
+		Stack copy = new Stack();
+		copy.push (sel);
+		assertEquals (sel.toString(), copy.toString());
+		assertNotSame (top, copy.cards[1]);
+		assertEquals (2, sel.count());
+		assertHashed (copy);
+	}
+}
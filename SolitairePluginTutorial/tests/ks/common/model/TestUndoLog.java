@@ -0,0 +1,78 @@
+package ks.common.model;
+
+import junit.framework.TestCase;
+
+public class TestUndoLog extends TestCase {
+
+	public void testPack() {
+		int entry = UndoLog.pack (2, 10, 127, CardCode.code (Card.KING, Card.SPADES) | CardCode.FACE_DOWN);
+		assertTrue (entry >= 0);
+		assertEquals (2, UndoLog.kind (entry));
+		assertEquals (10, UndoLog.source (entry));
+		assertEquals (127, UndoLog.target (entry));
+		assertFalse (CardCode.isFaceUp (UndoLog.card (entry)));
+		assertEquals (Card.KING, CardCode.rank (UndoLog.card (entry)));
+
+		try {
+			UndoLog.pack (0, 128, 0, 0);
+			fail ("Handle too large to pack.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testStack() {
+		UndoLog log = new UndoLog();
+		assertEquals (UndoLog.NONE, log.pop());
+
+		// grow well beyond the initial buffer
+		for (int i = 0; i < 1000; i++) {
+			assertEquals (UndoLog.NONE, log.push (i));
+		}
+		assertEquals (1000, log.size());
+		assertEquals (999, log.peek());
+		assertEquals (0, log.get (0));
+		for (int i = 999; i >= 0; i--) {
+			assertEquals (i, log.pop());
+		}
+		assertTrue (log.isEmpty());
+	}
+
+	public void testLimit() {
+		UndoLog log = new UndoLog (3);
+		log.push (1);
+		log.push (2);
+		log.push (3);
+		assertEquals (1, log.push (4));
+		assertEquals (2, log.push (5));
+		assertEquals (3, log.size());
+		assertEquals (3, log.get (0));
+
+		// wraps around the end of the buffer
+		assertEquals (5, log.pop());
+		log.push (6);
+		assertEquals (3, log.removeOldest());
+		assertEquals (4, log.get (0));
+		assertEquals (6, log.peek());
+
+		// may be lifted and lowered again, keeping the most recent entries
+		log.setLimit (UndoLog.UNBOUNDED);
+		for (int i = 7; i < 100; i++) {
+			assertEquals (UndoLog.NONE, log.push (i));
+		}
+		assertEquals (4, log.get (0));
+		assertEquals (99, log.peek());
+
+		while (log.size() > 2) log.removeOldest();
+		log.setLimit (2);
+		assertEquals (98, log.push (100));
+		assertEquals (99, log.get (0));
+
+		try {
+			log.setLimit (1);
+			fail ("Limit cannot be below the number of entries.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package ks.launcher;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.BitSet;
+
+import junit.framework.TestCase;
+import ks.common.games.SolitaireSolver;
+
+public class TestSurvey extends TestCase {
+
+	File file;
+
+	protected void setUp() throws Exception {
+		file = File.createTempFile ("survey", ".tsv");
+	}
+
+	protected void tearDown() {
+		file.delete();
+	}
+
+	void write (String s) throws Exception {
+		FileWriter w = new FileWriter (file);
+		w.write (s);
+		w.close();
+	}
+
+	public void testRecorded() throws Exception {
+		write ("3\twon\t100\t5\t42\n"
+			+ "not a row\n"
+			+ "9\tlost\t7\t1\t0\n"
+			+ "4\ttimeout\t12\t30000\t0\n"
+			+ "5\twon\t9");
+
+		// seed 9 is out of range; the row for seed 5 was cut short.
+		BitSet done = Survey.recorded (file, 3, 6);
+		assertTrue (done.get (0));
+		assertTrue (done.get (1));
+		assertFalse (done.get (2));
+		assertEquals (2, done.cardinality());
+		assertFalse (Survey.endsWithNewline (file));
+	}
+
+	public void testComplete() throws Exception {
+		write ("5\twon\t9\t1\t140\n");
+		assertTrue (Survey.endsWithNewline (file));
+		assertTrue (Survey.recorded (file, 5, 5).get (0));
+
+		write ("");
+		assertTrue (Survey.endsWithNewline (file));
+		assertTrue (Survey.recorded (file, 1, 10).isEmpty());
+
+		file.delete();
+		assertTrue (Survey.recorded (file, 1, 10).isEmpty());
+	}
+
+	public void testSeedOf() {
+		assertEquals (12, Survey.seedOf ("12\twon\t1\t2\t3"));
+		assertEquals (-1, Survey.seedOf ("12\twon\t1"));
+		assertEquals (-1, Survey.seedOf ("seed\tresult\tnodes\tms\tlength"));
+	}
+
+	public void testStrategyOf() {
+		assertEquals (SolitaireSolver.DEPTH_FIRST, Survey.strategyOf ("dfs"));
+		assertEquals (SolitaireSolver.BEST_FIRST, Survey.strategyOf ("best"));
+		assertEquals (SolitaireSolver.WEIGHTED_ASTAR, Survey.strategyOf ("astar"));
+		try {
+			Survey.strategyOf ("bfs");
+			fail ("No such strategy.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}
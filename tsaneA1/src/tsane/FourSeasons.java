@@ -1,12 +1,22 @@
 package tsane;
 
 import ks.common.controller.SolitaireMouseMotionAdapter;
+import ks.common.games.DeadEndDetector;
+import ks.common.games.DeadEndSolitaire;
+import ks.common.games.HeuristicSolitaire;
 import ks.common.games.Solitaire;
 import ks.common.games.SolitaireUndoAdapter;
+import ks.common.games.SafeMoveSolitaire;
+import ks.common.games.SolverHeuristic;
 import ks.common.model.Card;
+import ks.common.model.CardCode;
 import ks.common.model.Deck;
+import ks.common.model.Element;
+import ks.common.model.Model;
 import ks.common.model.Move;
 import ks.common.model.Pile;
+import ks.common.model.Stack;
+import ks.common.model.UndoLog;
 
 import ks.common.view.CardImages;
 import ks.common.view.DeckView;
@@ -17,14 +27,34 @@ import ks.launcher.Main;
 
 import ks.client.gamefactory.GameWindow;
 
+import java.util.Enumeration;
+import java.util.Vector;
+
 import tsane.controller.*;
 
-public class FourSeasons extends Solitaire {
+public class FourSeasons extends Solitaire implements SafeMoveSolitaire, HeuristicSolitaire, DeadEndSolitaire {
+	/** Role of the five piles of the cross. */
+	public static final int CROSS = Model.TABLEAU;
+
+	/** Kinds of move, as recorded in the undo log. */
+	static final int TO_WASTE = 0;
+	static final int TO_FOUNDATION = 1;
+	static final int TO_CROSS = 2;
+
+	/** Most moves available in any position: 9 from the waste, 8 from each cross pile and a deal. */
+	public static final int MAX_MOVES = 50;
+
 	Deck stock;
 	Pile waste;
 	Pile clubF, spadeF, heartF, diamondF;
 	Pile crossLeft, crossMid, crossRight, crossTop, crossBottom;
+	Pile[] foundations, crossPiles; // in the order they are added to the model
+	Stack[] keyed; // stock, waste and foundations, indexed as in GameState
+	final long[] crossKeys = new long[GameState.NUM_PILES - GameState.FIRST_CROSS]; // reused by getPositionKey
+	final int[] safeCandidates = new int[MAX_MOVES]; // reused by safeMove
 	int foundationBaseRank;	
+	RankTables ranks; // rank order of this deal, known once the base rank is dealt
+	int[] foundationSuits; // indexed by element handle
 
 	DeckView stockView;
 	PileView wasteView;
@@ -50,6 +80,156 @@ public class FourSeasons extends Solitaire {
 		return foundationBaseRank;
 	}
 
+	/** The best-first strategies of SolitaireSolver are guided by a FourSeasonsHeuristic. */
+	@Override
+	public SolverHeuristic getHeuristic() {
+		return new FourSeasonsHeuristic();
+	}
+
+	/** Positions that can no longer be won are recognized by a FourSeasonsDeadEnds. */
+	@Override
+	public DeadEndDetector getDeadEndDetector() {
+		return new FourSeasonsDeadEnds();
+	}
+
+	/** Successor and predecessor tables for the current deal, for use by solvers and hints. */
+	public RankTables getRankTables() {
+		return ranks;
+	}
+
+	/** Suit to be built on the given foundation pile. */
+	public int getFoundationSuit(Pile foundation) {
+		return foundationSuits[foundation.getHandle()];
+	}
+
+	/** Encode a move for the undo log; piles outside the model cannot be encoded. */
+	static int encode(int kind, Element from, Element to, int code) {
+		if(from.getHandle() < 0 || to.getHandle() < 0) return UndoLog.NONE;
+		return UndoLog.pack(kind, from.getHandle(), to.getHandle(), code);
+	}
+
+	/** The decoded move takes its card from the source pile when made, and from the target when undone. */
+	@Override
+	protected Move decodeMove(int entry) {
+		Element from = getModelElement(UndoLog.source(entry));
+		Pile to = (Pile) getModelElement(UndoLog.target(entry));
+
+		switch(UndoLog.kind(entry)) {
+			case TO_WASTE: return new ToWasteMove((Deck) from, to);
+			case TO_FOUNDATION: return new ToFoundationMove((Pile) from, null, to);
+			case TO_CROSS: return new ToCrossPileMove((Pile) from, null, to);
+			default: throw new IllegalArgumentException("FourSeasons::decodeMove() received invalid entry " + entry);
+		}
+	}
+
+	/**
+	 * The cross piles follow identical rules, so positions that differ only in which cross
+	 * pile holds which cards share a key; a solver treats up to 120 permutations as one.
+	 * The key is the one GameState.positionKey() computes for this position.
+	 */
+	@Override
+	public long getPositionKey() {
+		long h = foundationBaseRank;
+		for(int i = 0; i < keyed.length; i++) {
+			h ^= GameState.pileKey(i, keyed[i].getHashKey());
+		}
+
+		for(int i = 0; i < crossKeys.length; i++) {
+			crossKeys[i] = crossPiles[i].getHashKey();
+		}
+		return h ^ GameState.crossKey(crossKeys);
+	}
+
+	/**
+	 * Write the encoding of every legal move, up to the symmetry of the cross piles, into
+	 * the given buffer and return how many there are. Foundation moves come first and
+	 * dealing from the stock comes last.
+	 *
+	 * Since empty cross piles are interchangeable, cards are only moved to the first of
+	 * them, and never from a cross pile holding just that card (the result would be the
+	 * same position). Each entry has the form recorded in the undo log (see UndoLog.pack),
+	 * with the code of the card that would move; nothing is allocated.
+	 */
+	public int generateMoves(int[] moves) {
+		if(moves == null || moves.length < MAX_MOVES) {
+			throw new IllegalArgumentException("FourSeasons::generateMoves() requires room for " + MAX_MOVES + " moves.");
+		}
+		if(ranks == null) return 0; // not yet dealt
+
+		int n = toFoundations(waste, moves, 0);
+		for(Pile p : crossPiles) n = toFoundations(p, moves, n);
+		n = toCross(waste, moves, n);
+		for(Pile p : crossPiles) n = toCross(p, moves, n);
+		if(!stock.empty()) moves[n++] = UndoLog.pack(TO_WASTE, stock.getHandle(), waste.getHandle(), stock.peekCode());
+		return n;
+	}
+
+	private int toFoundations(Pile from, int[] moves, int n) {
+		if(from.empty()) return n;
+
+		int code = from.peekCode();
+		int rank = CardCode.rank(code), suit = CardCode.suit(code);
+		for(Pile f : foundations) {
+			if(!ranks.buildsOnFoundation(f.peekRank(), rank)) continue;
+			if(suit == (f.empty() ? getFoundationSuit(f) : f.peekSuit())) {
+				moves[n++] = UndoLog.pack(TO_FOUNDATION, from.getHandle(), f.getHandle(), code);
+			}
+		}
+		return n;
+	}
+
+	private int toCross(Pile from, int[] moves, int n) {
+		if(from.empty()) return n;
+
+		int code = from.peekCode();
+		int rank = CardCode.rank(code);
+		boolean toEmpty = from == waste || from.count() > 1;
+		for(Pile p : crossPiles) {
+			if(p.empty()) {
+				if(!toEmpty) continue;
+				toEmpty = false; // the first empty pile stands for them all
+			} else if(p == from || !ranks.buildsOnCross(p.peekRank(), rank)) {
+				continue;
+			}
+			moves[n++] = UndoLog.pack(TO_CROSS, from.getHandle(), p.getHandle(), code);
+		}
+		return n;
+	}
+
+	/**
+	 * A card may always be played to its foundation once no cross pile could still need
+	 * it: every card of the rank below in the other suits, which alone could be played on
+	 * it, is already on a foundation. Cards of the base rank never qualify, since the
+	 * cross piles wrap and the rank below them tops the foundations.
+	 */
+	@Override
+	public Move safeMove() {
+		if(ranks == null) return null; // not yet dealt
+
+		int[] moves = safeCandidates;
+		int n = toFoundations(waste, moves, 0);
+		for(Pile p : crossPiles) n = toFoundations(p, moves, n);
+
+		int lowest = 13; // fewest cards on any foundation
+		for(Pile f : foundations) lowest = Math.min(lowest, f.count());
+		for(int i = 0; i < n; i++) {
+			int height = ranks.level(CardCode.rank(UndoLog.card(moves[i]))) + 1; // of its foundation, once played
+			if(height > 1 && lowest >= height - 1) return decodeMove(moves[i]);
+		}
+		return null;
+	}
+
+	@Override
+	public Enumeration<Move> availableMoves() {
+		int[] moves = new int[MAX_MOVES];
+		int n = generateMoves(moves);
+		Vector<Move> v = new Vector<Move>(n);
+		for(int i = 0; i < n; i++) {
+			v.addElement(decodeMove(moves[i]));
+		}
+		return v.elements();
+	}
+
 	@Override
 	public void initialize() {
 		initializeModel(getSeed());
@@ -60,23 +240,38 @@ public class FourSeasons extends Solitaire {
 		freshGame();
 	}
 
+	@Override
+	protected boolean initializeHeadless() {
+		initializeModel(getSeed());
+		freshGame();
+		return true;
+	}
+
 	private void freshGame() {
-		Move m; // move variable
-		Pile[] crossPiles = {crossTop, crossLeft, crossMid, crossRight, crossBottom};
+		// views are refreshed once, when the deal is complete
+		getModel().beginBatch();
+		try {
+			deal();
+		} finally {
+			getModel().endBatch();
+		}
+	}
+
+	private void deal() {
+		Move draw = new ToWasteMove(stock, waste); // moves are not pushed, so can be reused
+		ToCrossPileMove toCross = new ToCrossPileMove(null, null, null);
 		for(Pile p : crossPiles){
-			m = new ToWasteMove(stock, waste);
-			m.doMove(this);
-			m = new ToCrossPileMove(waste, waste.get(), p);
-			m.doMove(this); // DO NOT PUSH MOVES TO SOLITAIRE, DO NOT WANT UNDO
+			draw.doMove(this);
+			toCross.reset(waste, waste.get(), p).doMove(this); // DO NOT PUSH MOVES TO SOLITAIRE, DO NOT WANT UNDO
 		}
 		Pile hold = new Pile(); // dummy pile to stack and unstack cards
-		while(stock.peek().getSuit() != Card.HEARTS) {
+		while(stock.peekSuit() != Card.HEARTS) {
 			hold.add(stock.get());
 		} 
-		m = new ToWasteMove(stock, waste);
-		m.doMove(this); // DO NOT PUSH
-		foundationBaseRank = waste.peek().getRank();
-		m = new ToFoundationMove(hold, waste.get(), heartF);
+		draw.doMove(this); // DO NOT PUSH
+		foundationBaseRank = waste.peekRank();
+		ranks = RankTables.forBase(foundationBaseRank);
+		Move m = new ToFoundationMove(hold, waste.get(), heartF);
 		m.doMove(this); // DO NOT PUSH 
 		while(!hold.empty()) { // repopulate the deck
 			stock.add(hold.get());
@@ -106,17 +301,28 @@ public class FourSeasons extends Solitaire {
 		crossBottom = new Pile("BottomCross");
 
 		// add all to model
-		addModelElement(stock);
-		addModelElement(waste);
-		addModelElement(spadeF);
-		addModelElement(clubF);
-		addModelElement(heartF);
-		addModelElement(diamondF);
-		addModelElement(crossTop);
-		addModelElement(crossLeft);
-		addModelElement(crossMid);
-		addModelElement(crossRight);
-		addModelElement(crossBottom);
+		addModelElement(stock, Model.STOCK);
+		addModelElement(waste, Model.WASTE);
+		addModelElement(spadeF, Model.FOUNDATION);
+		addModelElement(clubF, Model.FOUNDATION);
+		addModelElement(heartF, Model.FOUNDATION);
+		addModelElement(diamondF, Model.FOUNDATION);
+		addModelElement(crossTop, CROSS);
+		addModelElement(crossLeft, CROSS);
+		addModelElement(crossMid, CROSS);
+		addModelElement(crossRight, CROSS);
+		addModelElement(crossBottom, CROSS);
+
+		foundations = new Pile[] {spadeF, clubF, heartF, diamondF};
+		crossPiles = new Pile[] {crossTop, crossLeft, crossMid, crossRight, crossBottom};
+		keyed = new Stack[] {stock, waste, spadeF, clubF, heartF, diamondF};
+
+		foundationSuits = new int[getModel().size()];
+		int[] suits = {Card.SPADES, Card.CLUBS, Card.HEARTS, Card.DIAMONDS};
+		for(int i = 0; i < foundations.length; i++) {
+			// a pile whose name was already taken in the model has no handle
+			if(foundations[i].getHandle() >= 0) foundationSuits[foundations[i].getHandle()] = suits[i];
+		}
 	}
 
 	void initializeView() {
@@ -177,7 +383,7 @@ public class FourSeasons extends Solitaire {
 	}
 
 	void initializeControllers() {
-		stockView.setMouseAdapter(new DeckController(this));
+		stockView.setMouseAdapter(new DeckController(this, stock, waste));
 		stockView.setMouseMotionAdapter(new SolitaireMouseMotionAdapter(this));
 		stockView.setUndoAdapter(new SolitaireUndoAdapter(this));
 
@@ -0,0 +1,101 @@
+package tsane;
+
+import ks.common.games.DeadEndDetector;
+import ks.common.games.Solitaire;
+import ks.common.model.Card;
+import ks.common.model.CardCode;
+import ks.common.model.Pile;
+import ks.common.model.Stack;
+
+/**
+ * Conservative check that a FourSeasons position can no longer be won, for SolitaireSolver.
+ *
+ * The position is played out under looser rules. A card that could be moved onto a cross
+ * pile is set aside instead, and every card still in the stock starts set aside: from
+ * there it may go to its foundation whenever its turn comes. A card may be set aside once
+ * some card of the rank above (on which it builds down) tops another cross pile or has
+ * itself left its pile, even if that card has since gone up. Every winning line of the
+ * real game is also one of the looser game, and under these rules a move never takes
+ * another away, so they are simply made until nothing more moves. If some foundation is
+ * then incomplete, the position is lost.
+ *
+ * A cross pile that could be emptied would take any card, so the check gives up as soon
+ * as one is. It pays off late in the game, when few cards are left in the stock and the
+ * foundations wait on cards buried in descending cross runs that nothing else can take.
+ */
+public class FourSeasonsDeadEnds implements DeadEndDetector {
+
+	@Override
+	public boolean isDeadEnd(Solitaire game) {
+		FourSeasons fs = (FourSeasons) game;
+		if(fs.ranks == null || fs.hasWon()) return false; // not yet dealt
+
+		// cards on each foundation, indexed by suit
+		int[] height = new int[Card.SPADES + 1];
+		for(Pile f : fs.foundations) {
+			height[f.empty() ? fs.getFoundationSuit(f) : f.peekSuit()] = f.count();
+		}
+
+		// cards set aside, and the number of cards of each rank that have left their pile
+		boolean[] aside = new boolean[CardCode.NUM_CODES];
+		int[] released = new int[Card.KING + 1];
+		for(int i = 0; i < fs.stock.count(); i++) {
+			int code = CardCode.identity(fs.stock.peekCode(i));
+			aside[code] = true;
+			released[CardCode.rank(code)]++;
+		}
+
+		// the cross piles, then the waste, with the cards left in each
+		int waste = fs.crossPiles.length;
+		Stack[] piles = new Stack[waste + 1];
+		int[] left = new int[piles.length];
+		for(int i = 0; i < piles.length; i++) {
+			piles[i] = (i == waste) ? fs.waste : fs.crossPiles[i];
+			left[i] = piles[i].count();
+			if(left[i] == 0 && i != waste) return false;
+		}
+
+		boolean moved = true;
+		while(moved) {
+			moved = false;
+			for(int i = 0; i < piles.length; i++) {
+				while(left[i] > 0) {
+					int code = CardCode.identity(piles[i].peekCode(left[i] - 1));
+					int rank = CardCode.rank(code);
+					if(fs.ranks.level(rank) != height[CardCode.suit(code)] && !canPark(fs.ranks.successor(rank), i, piles, left, released)) break;
+
+					aside[code] = true;
+					released[rank]++;
+					moved = true;
+					if(--left[i] == 0 && i != waste) return false;
+				}
+			}
+
+			for(int suit = Card.CLUBS; suit <= Card.SPADES; suit++) {
+				while(height[suit] < 13) {
+					int code = CardCode.code(fs.ranks.rankAt(height[suit]), suit);
+					if(!aside[code]) break;
+
+					aside[code] = false;
+					height[suit]++;
+					moved = true;
+				}
+			}
+		}
+
+		for(int suit = Card.CLUBS; suit <= Card.SPADES; suit++) {
+			if(height[suit] < 13) return true;
+		}
+		return false;
+	}
+
+	/** Could a card leave pile i for a cross pile topped by the given rank? */
+	static boolean canPark(int rank, int i, Stack[] piles, int[] left, int[] released) {
+		if(released[rank] > 0) return true;
+
+		for(int j = 0; j < piles.length - 1; j++) {
+			if(j != i && CardCode.rank(piles[j].peekCode(left[j] - 1)) == rank) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,63 @@
+package tsane;
+
+import ks.common.games.Solitaire;
+import ks.common.games.SolverHeuristic;
+import ks.common.model.CardCode;
+import ks.common.model.Pile;
+
+/**
+ * Estimate of the moves still needed to win a FourSeasons position, for the best-first
+ * strategies of SolitaireSolver.
+ *
+ * Every card not yet on a foundation needs at least one move to get there; these count
+ * four times over, so that progress on the foundations dominates the estimate. Each card
+ * still in the stock adds one more, for the deal that brings it to the waste, and so does
+ * each card covering the next card of some foundation, in the waste or in a cross pile,
+ * since it must be moved out of the way first. Each empty cross pile, which could take
+ * any card, takes two off. The estimate is not admissible, which suits best-first and
+ * weighted A* searches that look for some win rather than the shortest.
+ */
+public class FourSeasonsHeuristic implements SolverHeuristic {
+	/** Weight of each card not yet on a foundation. */
+	static final int REMAINING = 4;
+
+	/** Weight of each card still in the stock. */
+	static final int STOCK = 1;
+
+	/** Credit for each empty cross pile. */
+	static final int EMPTY_CROSS = 2;
+
+	@Override
+	public int estimate(Solitaire game) {
+		FourSeasons fs = (FourSeasons) game;
+		if(fs.hasWon()) return 0;
+
+		int h = REMAINING * (52 - fs.getScoreValue()) + STOCK * fs.stock.count();
+
+		// identities of the next card of each foundation
+		int[] needed = new int[fs.foundations.length];
+		for(int i = 0; i < needed.length; i++) {
+			Pile f = fs.foundations[i];
+			int suit = f.empty() ? fs.getFoundationSuit(f) : f.peekSuit();
+			needed[i] = CardCode.code(fs.ranks.successor(f.peekRank()), suit);
+		}
+
+		h += blockers(fs.waste, needed);
+		for(Pile p : fs.crossPiles) {
+			h += p.empty() ? -EMPTY_CROSS : blockers(p, needed);
+		}
+		return Math.max(h, 1);
+	}
+
+	/** Number of cards above the deepest needed card in the pile, if any. */
+	static int blockers(Pile p, int[] needed) {
+		int n = p.count();
+		for(int d = 0; d < n - 1; d++) {
+			int id = CardCode.identity(p.peekCode(d));
+			for(int code : needed) {
+				if(id == code) return n - 1 - d;
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,238 @@
+package tsane;
+
+import ks.common.model.Card;
+import ks.common.model.CardCode;
+import ks.common.model.PersistentStack;
+import ks.common.model.Stack;
+import ks.common.model.Zobrist;
+
+/**
+ * Immutable position of a FourSeasons game.
+ *
+ * Each of the eleven piles is a PersistentStack, indexed in the order FourSeasons
+ * adds them to its model. Every move returns a new GameState that shares all the
+ * untouched piles (and every card beneath the moved one) with its parent, so search
+ * code can keep as many positions alive as it likes without copying the model or
+ * undoing moves.
+ *
+ * The five cross piles follow identical rules, so positions that differ only in
+ * which cross pile holds which cards are equivalent. positionKey() treats all such
+ * permutations as one position, and canonical() picks a single representative.
+ */
+public final class GameState {
+	public static final int STOCK = 0;
+	public static final int WASTE = 1;
+	public static final int FIRST_FOUNDATION = 2;
+	public static final int FIRST_CROSS = 6;
+	public static final int NUM_PILES = 11;
+
+	/** Suit built on each foundation, in pile order. */
+	static final int[] foundationSuits = {Card.SPADES, Card.CLUBS, Card.HEARTS, Card.DIAMONDS};
+
+	final PersistentStack[] piles;
+	final int baseRank;
+	final RankTables ranks;
+
+	GameState(PersistentStack[] piles, int baseRank) {
+		this.piles = piles;
+		this.baseRank = baseRank;
+		this.ranks = RankTables.forBase(baseRank);
+	}
+
+	/** Capture the current position of the given game. */
+	public static GameState fromGame(FourSeasons fs) {
+		if(fs == null) throw new IllegalArgumentException("GameState::fromGame() received null game.");
+
+		Stack[] all = {fs.stock, fs.waste, fs.spadeF, fs.clubF, fs.heartF, fs.diamondF,
+				fs.crossTop, fs.crossLeft, fs.crossMid, fs.crossRight, fs.crossBottom};
+		PersistentStack[] piles = new PersistentStack[NUM_PILES];
+		for(int i = 0; i < NUM_PILES; i++) {
+			piles[i] = PersistentStack.fromStack(all[i]);
+		}
+		return new GameState(piles, fs.getFoundationBaseRank());
+	}
+
+	public PersistentStack pile(int idx) {
+		return piles[idx];
+	}
+
+	public int getFoundationBaseRank() {
+		return baseRank;
+	}
+
+	/** Number of cards on the foundations, which is the FourSeasons score. */
+	public int getScore() {
+		int score = 0;
+		for(int f = FIRST_FOUNDATION; f < FIRST_CROSS; f++) {
+			score += piles[f].size();
+		}
+		return score;
+	}
+
+	public int getNumLeft() {
+		return piles[STOCK].size();
+	}
+
+	public boolean hasWon() {
+		return getScore() == 52;
+	}
+
+	public static boolean isFoundation(int idx) {
+		return idx >= FIRST_FOUNDATION && idx < FIRST_CROSS;
+	}
+
+	public static boolean isCross(int idx) {
+		return idx >= FIRST_CROSS && idx < NUM_PILES;
+	}
+
+	public boolean canDraw() {
+		return !piles[STOCK].empty();
+	}
+
+	/** Deal the top card of the stock to the waste. */
+	public GameState draw() {
+		if(!canDraw()) throw new IllegalArgumentException("GameState::draw() invoked with empty stock.");
+		return move(STOCK, WASTE);
+	}
+
+	/** Same rules as ToFoundationMove: follow suit upwards from the base rank, wrapping King to Ace. */
+	public boolean canMoveToFoundation(int from, int to) {
+		if(!isPlayable(from) || !isFoundation(to)) return false;
+
+		int code = piles[from].peekCode();
+		PersistentStack target = piles[to];
+		if(!ranks.buildsOnFoundation(target.peekRank(), CardCode.rank(code))) return false;
+
+		int suit = target.empty() ? foundationSuits[to - FIRST_FOUNDATION] : target.peekSuit();
+		return CardCode.suit(code) == suit;
+	}
+
+	public GameState moveToFoundation(int from, int to) {
+		if(!canMoveToFoundation(from, to)) {
+			throw new IllegalArgumentException("GameState::moveToFoundation() invalid move from " + from + " to " + to);
+		}
+		return move(from, to);
+	}
+
+	/** Same rules as ToCrossPileMove: any card to an empty pile, otherwise build down regardless of suit. */
+	public boolean canMoveToCross(int from, int to) {
+		if(!isPlayable(from) || !isCross(to) || from == to) return false;
+
+		return ranks.buildsOnCross(piles[to].peekRank(), piles[from].peekRank());
+	}
+
+	public GameState moveToCross(int from, int to) {
+		if(!canMoveToCross(from, to)) {
+			throw new IllegalArgumentException("GameState::moveToCross() invalid move from " + from + " to " + to);
+		}
+		return move(from, to);
+	}
+
+	/** Cards are only ever played from the waste or a cross pile. */
+	boolean isPlayable(int from) {
+		return (from == WASTE || isCross(from)) && !piles[from].empty();
+	}
+
+	/** Move the top card of one pile to another; only the two affected references change. */
+	GameState move(int from, int to) {
+		PersistentStack[] next = piles.clone();
+		next[to] = piles[to].push(piles[from].peekCode());
+		next[from] = piles[from].pop();
+		return new GameState(next, baseRank);
+	}
+
+	/**
+	 * 64-bit hash of the position, combining the Zobrist keys of the piles. The key does
+	 * not depend on the order of the cross piles, and equals FourSeasons.getPositionKey()
+	 * for the game this state was taken from.
+	 */
+	public long positionKey() {
+		long h = baseRank;
+		for(int i = 0; i < FIRST_CROSS; i++) {
+			h ^= pileKey(i, piles[i].getHashKey());
+		}
+
+		long[] cross = new long[NUM_PILES - FIRST_CROSS];
+		for(int i = 0; i < cross.length; i++) {
+			cross[i] = piles[FIRST_CROSS + i].getHashKey();
+		}
+		return h ^ crossKey(cross);
+	}
+
+	/** Part of the position key due to the pile at the given index, other than a cross pile. */
+	static long pileKey(int idx, long hashKey) {
+		return Zobrist.mix(hashKey + (idx + 1) * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Combine the Zobrist keys of the cross piles independently of their order, by
+	 * sorting them first. Ties only arise between piles with the same cards (usually
+	 * empty ones), whose order does not matter. The array is sorted in place.
+	 */
+	static long crossKey(long[] keys) {
+		sort(keys);
+		long h = 0;
+		for(int i = 0; i < keys.length; i++) {
+			h ^= Zobrist.mix(keys[i] + (FIRST_CROSS + i + 1) * 0x9E3779B97F4A7C15L);
+		}
+		return h;
+	}
+
+	/** Insertion sort, which beats Arrays.sort on five keys. */
+	private static void sort(long[] keys) {
+		for(int i = 1; i < keys.length; i++) {
+			long k = keys[i];
+			int j = i - 1;
+			for(; j >= 0 && keys[j] > k; j--) {
+				keys[j + 1] = keys[j];
+			}
+			keys[j + 1] = k;
+		}
+	}
+
+	/**
+	 * The representative of this position among all permutations of its cross piles,
+	 * with the cross piles in ascending order of their Zobrist keys. Two positions that
+	 * differ only by the order of their cross piles have equal canonical states.
+	 */
+	public GameState canonical() {
+		PersistentStack[] next = piles.clone();
+		for(int i = FIRST_CROSS + 1; i < NUM_PILES; i++) {
+			PersistentStack p = next[i];
+			int j = i - 1;
+			for(; j >= FIRST_CROSS && next[j].getHashKey() > p.getHashKey(); j--) {
+				next[j + 1] = next[j];
+			}
+			next[j + 1] = p;
+		}
+		return new GameState(next, baseRank);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(o == this) return true;
+		if(!(o instanceof GameState)) return false;
+
+		GameState other = (GameState) o;
+		if(baseRank != other.baseRank) return false;
+		for(int i = 0; i < NUM_PILES; i++) {
+			if(!piles[i].equals(other.piles[i])) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		long h = positionKey();
+		return (int) (h ^ (h >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[GameState:base=" + baseRank);
+		for(PersistentStack p : piles) {
+			sb.append(' ').append(p);
+		}
+		return sb.append(']').toString();
+	}
+}
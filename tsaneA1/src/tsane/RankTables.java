@@ -0,0 +1,84 @@
+package tsane;
+
+import ks.common.model.Card;
+
+/**
+ * Round-the-corner rank order of a FourSeasons deal.
+ *
+ * Foundations build up in suit from the base rank of the deal, and the cross piles
+ * build down regardless of suit; both wrap between King and Ace. The successor and
+ * predecessor of every rank are tabulated once per base rank, so a legality check is
+ * a single indexed comparison. Index zero stands for an empty pile: the successor of
+ * an empty foundation is the base rank itself. The position of each rank in the
+ * foundation order (its level, from zero for the base rank) is tabulated as well.
+ */
+public final class RankTables {
+	private static final RankTables[] byBase = new RankTables[Card.KING + 1];
+
+	static {
+		for(int base = Card.ACE; base <= Card.KING; base++) {
+			byBase[base] = new RankTables(base);
+		}
+	}
+
+	final int baseRank;
+	final byte[] up = new byte[Card.KING + 1];
+	final byte[] down = new byte[Card.KING + 1];
+	final byte[] levels = new byte[Card.KING + 1];
+	final byte[] ranksAt = new byte[Card.KING];
+
+	private RankTables(int baseRank) {
+		this.baseRank = baseRank;
+		up[0] = (byte) baseRank;
+		for(int r = Card.ACE; r <= Card.KING; r++) {
+			up[r] = (byte) (r == Card.KING ? Card.ACE : r + 1);
+			down[r] = (byte) (r == Card.ACE ? Card.KING : r - 1);
+		}
+		for(int level = 0, r = baseRank; level < Card.KING; level++, r = up[r]) {
+			levels[r] = (byte) level;
+			ranksAt[level] = (byte) r;
+		}
+	}
+
+	/** Tables for deals whose foundations start at the given rank. */
+	public static RankTables forBase(int baseRank) {
+		if(baseRank < Card.ACE || baseRank > Card.KING) {
+			throw new IllegalArgumentException("RankTables::forBase() received invalid rank " + baseRank);
+		}
+		return byBase[baseRank];
+	}
+
+	public int getBaseRank() {
+		return baseRank;
+	}
+
+	/** Rank that follows the given one on a foundation; the base rank for an empty one (rank zero). */
+	public int successor(int rank) {
+		return up[rank];
+	}
+
+	/** Rank that may be played on the given one on a cross pile. */
+	public int predecessor(int rank) {
+		return down[rank];
+	}
+
+	/** Position of the given rank in the foundation order, from zero for the base rank. */
+	public int level(int rank) {
+		return levels[rank];
+	}
+
+	/** Rank at the given position (0 to 12) in the foundation order. */
+	public int rankAt(int level) {
+		return ranksAt[level];
+	}
+
+	/** Can a card of the given rank go on a foundation topped by topRank (zero if empty)? Suit is not checked. */
+	public boolean buildsOnFoundation(int topRank, int rank) {
+		return up[topRank] == rank;
+	}
+
+	/** Can a card of the given rank go on a cross pile topped by topRank (zero if empty)? */
+	public boolean buildsOnCross(int topRank, int rank) {
+		return topRank == 0 || down[topRank] == rank;
+	}
+}
@@ -6,7 +6,7 @@ import ks.common.model.*;
 public class ToCrossPileMove extends Move {
 	Pile sourcePile;
 	Pile targetCrossPile;
-	Card c;
+	Card c; // null until the card has been taken from sourcePile
 		
 	public ToCrossPileMove(Pile sourcePile, Card c, Pile targetCrossPile) {
 		super();
@@ -14,12 +14,20 @@ public class ToCrossPileMove extends Move {
 		this.targetCrossPile = targetCrossPile;
 		this.c = c;
 	}
+
+	/** Re-target this move; see Move.copy(). */
+	public ToCrossPileMove reset(Pile sourcePile, Card c, Pile targetCrossPile) {
+		this.sourcePile = sourcePile;
+		this.targetCrossPile = targetCrossPile;
+		this.c = c;
+		return this;
+	}
 	
 	@Override
 	public boolean doMove(Solitaire game) {
 		if(!valid(game)) return false;
 		else {
-			targetCrossPile.add(c);
+			targetCrossPile.add(c == null ? sourcePile.get() : c);
 			return true;
 		}
 	}
@@ -32,12 +40,29 @@ public class ToCrossPileMove extends Move {
 
 	@Override
 	public boolean valid(Solitaire game) {
-		if(targetCrossPile.empty()) return !sourcePile.getName().contains("Foundation");
-		else {
-			return !sourcePile.getName().contains("Foundation") &&
-						 (targetCrossPile.peek().compareTo(c) == 1 ||
-						 	targetCrossPile.peek().isAce() && c.getRank() == Card.KING);
-		}
+		if(sourcePile.getRole() == Model.FOUNDATION) return false;
+		if(c == null && (sourcePile.empty() || sourcePile == targetCrossPile)) return false;
+		if(targetCrossPile.empty()) return true;
+
+		int rank = (c == null) ? sourcePile.peekRank() : c.getRank();
+		return ((FourSeasons)game).ranks.buildsOnCross(targetCrossPile.peekRank(), rank);
+	}
+
+	@Override
+	public int encode() {
+		return FourSeasons.encode(FourSeasons.TO_CROSS, sourcePile, targetCrossPile, targetCrossPile.peekCode());
+	}
+
+	// as for ToFoundationMove, the card is implied by the position
+	@Override
+	public boolean equals(Object o) {
+		if(!(o instanceof ToCrossPileMove)) return false;
+		ToCrossPileMove m = (ToCrossPileMove) o;
+		return m.sourcePile == sourcePile && m.targetCrossPile == targetCrossPile;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(sourcePile) * 31 + System.identityHashCode(targetCrossPile);
 	}
-	
 }
@@ -6,7 +6,7 @@ import ks.common.model.*;
 public class ToFoundationMove extends Move {
 	Pile sourcePile;
 	Pile targetFoundation;
-	Card c;
+	Card c; // null until the card has been taken from sourcePile
 	
 	public ToFoundationMove(Pile sourcePile, Card c, Pile targetFoundation){
 		super();
@@ -14,12 +14,20 @@ public class ToFoundationMove extends Move {
 		this.targetFoundation = targetFoundation;
 		this.c = c; 
 	}
+
+	/** Re-target this move; see Move.copy(). */
+	public ToFoundationMove reset(Pile sourcePile, Card c, Pile targetFoundation) {
+		this.sourcePile = sourcePile;
+		this.targetFoundation = targetFoundation;
+		this.c = c;
+		return this;
+	}
 	
 	@Override
 	public boolean doMove(Solitaire game) {
 		if(!valid(game)) return false;
 		else {
-			targetFoundation.add(c);
+			targetFoundation.add(c == null ? sourcePile.get() : c);
 			game.updateScore(1);
 			return true;
 		}
@@ -34,23 +42,33 @@ public class ToFoundationMove extends Move {
 
 	@Override
 	public boolean valid(Solitaire game) {
-		if(targetFoundation.empty()) {
-			int comparator = 0;
-			switch(targetFoundation.getName()) {
-				case "SpadesFoundation": comparator = Card.SPADES; break;
-				case "HeartsFoundation": comparator = Card.HEARTS; break;
-				case "ClubsFoundation": comparator = Card.CLUBS; break;
-				case "DiamondsFoundation": comparator = Card.DIAMONDS; break;
-			}
-			return !sourcePile.getName().contains("Foundation") &&
-						 (c.getRank() == ((FourSeasons)game).getFoundationBaseRank()) && 
-					   (c.getSuit() == comparator);
-		}
-		else {
-			return !sourcePile.getName().contains("Foundation") &&
-						 (targetFoundation.peek().compareTo(c) == -1 ||
-						 	targetFoundation.peek().getRank() == 13 && c.isAce()) &&
-						 targetFoundation.peek().sameSuit(c);
-		}
+		if(sourcePile.getRole() == Model.FOUNDATION) return false;
+		if(c == null && sourcePile.empty()) return false;
+		int rank = (c == null) ? sourcePile.peekRank() : c.getRank();
+		int suit = (c == null) ? sourcePile.peekSuit() : c.getSuit();
+
+		// an empty foundation (rank zero) takes the base rank, in the suit of that foundation
+		FourSeasons fs = (FourSeasons)game;
+		if(!fs.ranks.buildsOnFoundation(targetFoundation.peekRank(), rank)) return false;
+		if(targetFoundation.empty()) return suit == fs.getFoundationSuit(targetFoundation);
+		return targetFoundation.peekSuit() == suit;
+	}
+
+	@Override
+	public int encode() {
+		return FourSeasons.encode(FourSeasons.TO_FOUNDATION, sourcePile, targetFoundation, targetFoundation.peekCode());
+	}
+
+	/** Compares piles only, so a move decoded from the undo log equals the one that was made. */
+	@Override
+	public boolean equals(Object o) {
+		if(!(o instanceof ToFoundationMove)) return false;
+		ToFoundationMove m = (ToFoundationMove) o;
+		return m.sourcePile == sourcePile && m.targetFoundation == targetFoundation;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(sourcePile) * 31 + System.identityHashCode(targetFoundation);
 	}
 }
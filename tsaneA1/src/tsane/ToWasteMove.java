@@ -34,4 +34,22 @@ public class ToWasteMove extends Move {
 	public boolean valid(Solitaire game) {
 		return !stock.empty();
 	}
+
+	@Override
+	public int encode() {
+		return FourSeasons.encode(FourSeasons.TO_WASTE, stock, waste, waste.peekCode());
+	}
+
+	/** Every deal from this stock to this waste is the same move. */
+	@Override
+	public boolean equals(Object o) {
+		if(!(o instanceof ToWasteMove)) return false;
+		ToWasteMove m = (ToWasteMove) o;
+		return m.stock == stock && m.waste == waste;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(stock) * 31 + System.identityHashCode(waste);
+	}
 }
@@ -8,18 +8,21 @@ import tsane.ToWasteMove;
 
 public class DeckController extends java.awt.event.MouseAdapter {
 	Solitaire fs = null;
+	Deck stock;
+	Pile waste;
+	Move deal; // FourSeasons records its moves by their encoding, so this is reused
 
-	public DeckController(Solitaire s) {
+	public DeckController(Solitaire s, Deck stock, Pile waste) {
 		super();
 		fs = s;
+		this.stock = stock;
+		this.waste = waste;
+		this.deal = new ToWasteMove(stock, waste);
 	}
 
 	public void mousePressed(java.awt.event.MouseEvent me) {
-		Deck stock = (Deck) fs.getModelElement("Stock");
-		Pile waste = (Pile) fs.getModelElement("Waste");
 		if(stock.empty()) return;
-		Move m = new ToWasteMove(stock, waste);
-		if(m.doMove(fs)) fs.pushMove(m);
+		if(deal.doMove(fs)) fs.pushMove(deal);
 		fs.refreshWidgets();
 	}
 }
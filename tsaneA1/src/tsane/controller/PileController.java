@@ -2,6 +2,7 @@ package tsane.controller;
 
 import ks.common.games.Solitaire;
 import ks.common.model.Card;
+import ks.common.model.Model;
 import ks.common.model.Move;
 import ks.common.model.Pile;
 import ks.common.view.CardView;
@@ -16,6 +17,10 @@ public class PileController extends java.awt.event.MouseAdapter {
 	Solitaire fs = null;
 	PileView thePileView;
 
+	// FourSeasons records its moves by their encoding, so one instance of each can be re-targeted
+	final ToCrossPileMove toCross = new ToCrossPileMove(null, null, null);
+	final ToFoundationMove toFoundation = new ToFoundationMove(null, null, null);
+
 	public PileController(Solitaire s, PileView thePileView) {
 		super();
 		fs = s;
@@ -24,7 +29,7 @@ public class PileController extends java.awt.event.MouseAdapter {
 
 	public void mousePressed(java.awt.event.MouseEvent me) {
 		Pile toPile = (Pile) thePileView.getModelElement();
-		if(toPile.getName().contains("Foundation")) return;
+		if(toPile.getRole() == Model.FOUNDATION) return;
 		if(toPile.empty()) return;
 		
 		CardView cv = thePileView.getCardViewForTopCard(me);
@@ -50,14 +55,14 @@ public class PileController extends java.awt.event.MouseAdapter {
 		
 		// Try to make the move
 		Move m;
-		if(toPile.getName().contains("Cross")) {
-			m = new ToCrossPileMove(fromPile, card, toPile);
+		if(toPile.getRole() == FourSeasons.CROSS) {
+			m = toCross.reset(fromPile, card, toPile);
 			
 			if(m.doMove(fs)) fs.pushMove(m); 
 			else fromPileView.returnWidget(cv);
 		}
-		else if(toPile.getName().contains("Foundation")) {
-			m = new ToFoundationMove(fromPile, card, toPile);
+		else if(toPile.getRole() == Model.FOUNDATION) {
+			m = toFoundation.reset(fromPile, card, toPile);
 			
 			if(m.doMove(fs)) fs.pushMove(m);
 			else fromPileView.returnWidget(cv);
@@ -15,6 +15,7 @@ import ks.common.model.Deck;
 import ks.common.model.Element;
 import ks.common.model.Move;
 import ks.common.model.Pile;
+import ks.common.model.UndoLog;
 import ks.common.view.CardView;
 import ks.common.view.Container;
 import ks.common.view.PileView;
@@ -175,6 +176,22 @@ public class TestFourSeasons extends KSTestCase {
 		assertEquals(1, fs.getScoreValue());	
 	}
 	
+	@Test
+	public void testResetMove() {
+		// the deal puts the king of spades, which the foundations start from, atop the cross
+		ToFoundationMove probe = new ToFoundationMove(fs.crossTop, null, fs.spadeF);
+		assertTrue(probe.valid(fs));
+		ToFoundationMove copy = (ToFoundationMove) probe.copy();
+		assertNotSame(probe, copy);
+
+		// re-targeting the probe leaves the copy untouched
+		assertSame(probe, probe.reset(fs.crossLeft, null, fs.clubF));
+		assertFalse(probe.valid(fs));
+		assertSame(fs.crossTop, copy.sourcePile);
+		assertSame(fs.spadeF, copy.targetFoundation);
+		assertTrue(copy.valid(fs));
+	}
+
 	@Test
 	public void testToCrossPileMove() {
 		for(Pile p : foundations) {
@@ -234,6 +251,87 @@ public class TestFourSeasons extends KSTestCase {
 		assertEquals(c, fs.crossLeft.peek()); // undo full to full same suit
 	}
 	
+	@Test
+	public void testGenerateMoves() {
+		int[] moves = new int[FourSeasons.MAX_MOVES];
+		int n = fs.generateMoves(moves);
+		
+		// King of spades from the top cross pile starts its foundation; dealing comes last
+		assertEquals(FourSeasons.TO_FOUNDATION, UndoLog.kind(moves[0]));
+		assertEquals(fs.crossTop.getHandle(), UndoLog.source(moves[0]));
+		assertEquals(fs.spadeF.getHandle(), UndoLog.target(moves[0]));
+		assertEquals(FourSeasons.TO_WASTE, UndoLog.kind(moves[n-1]));
+		
+		int count = 0;
+		for(Enumeration<Move> e = fs.availableMoves(); e.hasMoreElements(); count++) {
+			assertTrue(e.nextElement().valid(fs));
+		}
+		assertEquals(n, count);
+		
+		try {
+			fs.generateMoves(new int[1]);
+			fail("Buffer is too small.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+	
+	@Test
+	public void testSafeMove() {
+		fs.waste.removeAll();
+		for(Pile p : crossPiles) p.removeAll();
+		for(Pile f : foundations) f.removeAll();
+		int base = fs.getFoundationBaseRank();
+		int next = fs.getRankTables().successor(base);
+		
+		// a card of the base rank could still take the top rank of the foundations
+		fs.waste.add(new Card(base, fs.getFoundationSuit(fs.heartF)));
+		assertNull(fs.safeMove());
+		fs.heartF.add(fs.waste.get());
+		
+		// the next rank is safe once every foundation is started
+		fs.crossTop.add(new Card(next, fs.getFoundationSuit(fs.heartF)));
+		fs.spadeF.add(new Card(base, fs.getFoundationSuit(fs.spadeF)));
+		fs.clubF.add(new Card(base, fs.getFoundationSuit(fs.clubF)));
+		assertNull(fs.safeMove());
+		
+		fs.diamondF.add(new Card(base, fs.getFoundationSuit(fs.diamondF)));
+		Move m = fs.safeMove();
+		assertTrue(m instanceof ToFoundationMove);
+		assertTrue(m.doMove(fs));
+		assertEquals(2, fs.heartF.count());
+		assertNull(fs.safeMove());
+	}
+	
+	@Test
+	public void testCrossSymmetry() {
+		long key = fs.getPositionKey();
+		
+		// exchanging the cards of two cross piles leaves the position unchanged
+		Card top = fs.crossTop.get(), left = fs.crossLeft.get();
+		fs.crossTop.add(left);
+		fs.crossLeft.add(top);
+		assertEquals(key, fs.getPositionKey());
+		
+		// with two empty cross piles, only the first is a target, and only for the waste
+		fs.crossMid.removeAll();
+		fs.crossRight.removeAll();
+		twm.doMove(fs);
+		int[] moves = new int[FourSeasons.MAX_MOVES];
+		int n = fs.generateMoves(moves);
+		int toEmpty = 0;
+		for(int i = 0; i < n; i++) {
+			if(UndoLog.kind(moves[i]) != FourSeasons.TO_CROSS) continue;
+			
+			assertTrue(UndoLog.target(moves[i]) != fs.crossRight.getHandle());
+			if(UndoLog.target(moves[i]) == fs.crossMid.getHandle()) {
+				assertEquals(fs.waste.getHandle(), UndoLog.source(moves[i]));
+				toEmpty++;
+			}
+		}
+		assertEquals(1, toEmpty);
+	}
+	
 	@Test
 	public void testDeckController() {
 		MouseEvent press = createPressed(fs, fs.stockView, 0, 0);
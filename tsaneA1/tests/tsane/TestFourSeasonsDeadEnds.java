@@ -0,0 +1,63 @@
+package tsane;
+
+import junit.framework.TestCase;
+import ks.common.model.Card;
+import ks.common.model.Pile;
+
+public class TestFourSeasonsDeadEnds extends TestCase {
+	FourSeasons fs;
+	FourSeasonsDeadEnds detector = new FourSeasonsDeadEnds();
+
+	@Override
+	protected void setUp() {
+		fs = new FourSeasons();
+		fs.setSeed(1);
+		assertTrue(fs.resetHeadless());
+	}
+
+	Card card(int level, int suit) {
+		return new Card(fs.ranks.rankAt(level), suit);
+	}
+
+	public void testDeal() {
+		long key = fs.getPositionKey();
+		assertFalse(detector.isDeadEnd(fs));
+		assertEquals(key, fs.getPositionKey());
+	}
+
+	public void testGameDetector() {
+		assertTrue(fs.getDeadEndDetector() instanceof FourSeasonsDeadEnds);
+	}
+
+	public void testStuck() {
+		fs.stock.removeAll();
+		fs.waste.removeAll();
+		for(Pile p : fs.crossPiles) p.removeAll();
+		for(Pile p : fs.foundations) p.removeAll();
+
+		// no cross pile takes the top of another, and none can go up
+		int[] levels = {2, 4, 6, 8, 10};
+		for(int i = 0; i < levels.length; i++) {
+			fs.crossPiles[i].add(card(levels[i], Card.CLUBS));
+		}
+
+		// every other card is in the waste, topped by the last of the foundation order
+		for(int suit = Card.CLUBS; suit <= Card.SPADES; suit++) {
+			for(int level = 0; level < 13; level++) {
+				boolean crossed = suit == Card.CLUBS && level % 2 == 0 && level >= 2 && level <= 10;
+				if(!crossed && !(suit == Card.SPADES && level == 12)) fs.waste.add(card(level, suit));
+			}
+		}
+		fs.waste.add(card(12, Card.SPADES));
+		assertTrue(detector.isDeadEnd(fs));
+
+		// a card of the base rank still to be dealt would take the top of the waste
+		Pile hold = new Pile();
+		while(fs.ranks.rankAt(0) != fs.waste.peekRank() || fs.waste.peekSuit() != Card.HEARTS) {
+			hold.add(fs.waste.get());
+		}
+		fs.stock.add(fs.waste.get());
+		while(!hold.empty()) fs.waste.add(hold.get());
+		assertFalse(detector.isDeadEnd(fs));
+	}
+}
@@ -0,0 +1,64 @@
+package tsane;
+
+import junit.framework.TestCase;
+import ks.common.model.Card;
+import ks.common.model.CardCode;
+import ks.common.model.Pile;
+
+public class TestFourSeasonsHeuristic extends TestCase {
+
+	public void testBlockers() {
+		int five = CardCode.code(Card.FIVE, Card.HEARTS);
+		Pile p = new Pile();
+		p.add(new Card(Card.FIVE, Card.HEARTS));
+		p.add(new Card(Card.KING, Card.CLUBS));
+		p.add(new Card(Card.TWO, Card.SPADES));
+
+		// king and two cover the five
+		assertEquals(2, FourSeasonsHeuristic.blockers(p, new int[] {five}));
+
+		// nothing needed, or the needed card on top
+		assertEquals(0, FourSeasonsHeuristic.blockers(p, new int[] {CardCode.code(Card.ACE, Card.DIAMONDS)}));
+		assertEquals(0, FourSeasonsHeuristic.blockers(p, new int[] {CardCode.code(Card.TWO, Card.SPADES)}));
+
+		// the deepest needed card counts
+		assertEquals(2, FourSeasonsHeuristic.blockers(p, new int[] {CardCode.code(Card.TWO, Card.SPADES), five}));
+		assertEquals(0, FourSeasonsHeuristic.blockers(new Pile(), new int[] {five}));
+	}
+
+	public void testEstimate() {
+		FourSeasons fs = new FourSeasons();
+		fs.setSeed(1);
+		assertTrue(fs.resetHeadless());
+
+		// one card dealt to a foundation, none of the others there yet
+		FourSeasonsHeuristic h = new FourSeasonsHeuristic();
+		int remaining = FourSeasonsHeuristic.REMAINING * (52 - fs.getScoreValue());
+		assertTrue(h.estimate(fs) >= remaining);
+		assertTrue(h.estimate(fs) > 0);
+	}
+
+	public void testStockAndEmptyCross() {
+		FourSeasons fs = new FourSeasons();
+		fs.setSeed(1);
+		assertTrue(fs.resetHeadless());
+		fs.stock.removeAll();
+		fs.waste.removeAll();
+		for(Pile p : fs.crossPiles) p.removeAll();
+
+		FourSeasonsHeuristic h = new FourSeasonsHeuristic();
+		int remaining = FourSeasonsHeuristic.REMAINING * (52 - fs.getScoreValue());
+		assertEquals(remaining - 5 * FourSeasonsHeuristic.EMPTY_CROSS, h.estimate(fs));
+
+		// a card on a cross pile, then another in the stock
+		fs.crossMid.add(new Card(Card.KING, Card.CLUBS));
+		assertEquals(remaining - 4 * FourSeasonsHeuristic.EMPTY_CROSS, h.estimate(fs));
+		fs.stock.add(new Card(Card.QUEEN, Card.CLUBS));
+		assertEquals(remaining - 4 * FourSeasonsHeuristic.EMPTY_CROSS + FourSeasonsHeuristic.STOCK, h.estimate(fs));
+	}
+
+	public void testGameHeuristic() {
+		FourSeasons fs = new FourSeasons();
+		assertTrue(fs.getHeuristic() instanceof FourSeasonsHeuristic);
+	}
+}
@@ -0,0 +1,122 @@
+package tsane;
+
+import junit.framework.TestCase;
+import ks.common.model.Card;
+import ks.common.model.CardCode;
+import ks.common.model.Move;
+import ks.common.model.PersistentStack;
+
+import java.util.Enumeration;
+
+public class TestGameState extends TestCase {
+	GameState gs;
+
+	static PersistentStack of(int... codes) {
+		PersistentStack ps = PersistentStack.EMPTY;
+		for(int c : codes) ps = ps.push(c);
+		return ps;
+	}
+
+	@Override
+	protected void setUp() {
+		// Four of hearts already on its foundation; five of hearts on top of the stock.
+		PersistentStack[] piles = new PersistentStack[GameState.NUM_PILES];
+		for(int i = 0; i < piles.length; i++) piles[i] = PersistentStack.EMPTY;
+		piles[GameState.STOCK] = of(CardCode.code(Card.KING, Card.CLUBS), CardCode.code(Card.FIVE, Card.HEARTS));
+		piles[GameState.FIRST_FOUNDATION + 2] = of(CardCode.code(Card.FOUR, Card.HEARTS));
+		piles[GameState.FIRST_CROSS] = of(CardCode.code(Card.SIX, Card.SPADES));
+		piles[GameState.FIRST_CROSS + 1] = of(CardCode.code(Card.ACE, Card.DIAMONDS));
+		gs = new GameState(piles, Card.FOUR);
+	}
+
+	public void testDraw() {
+		GameState next = gs.draw();
+		assertEquals(1, next.getNumLeft());
+		assertEquals(Card.FIVE, next.pile(GameState.WASTE).peekRank());
+
+		// parent is untouched and untouched piles are shared
+		assertEquals(2, gs.getNumLeft());
+		assertTrue(gs.pile(GameState.WASTE).empty());
+		assertSame(gs.pile(GameState.FIRST_CROSS), next.pile(GameState.FIRST_CROSS));
+	}
+
+	public void testFoundation() {
+		GameState next = gs.draw();
+		assertFalse(next.canMoveToFoundation(GameState.WASTE, GameState.FIRST_FOUNDATION));
+		assertTrue(next.canMoveToFoundation(GameState.WASTE, GameState.FIRST_FOUNDATION + 2));
+		assertFalse(next.canMoveToFoundation(GameState.STOCK, GameState.FIRST_FOUNDATION + 2));
+
+		GameState after = next.moveToFoundation(GameState.WASTE, GameState.FIRST_FOUNDATION + 2);
+		assertEquals(2, after.getScore());
+		assertEquals(1, next.getScore());
+
+		try {
+			after.moveToFoundation(GameState.WASTE, GameState.FIRST_FOUNDATION + 2);
+			fail("Empty waste cannot be played.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+
+	public void testCross() {
+		GameState next = gs.draw();
+		int six = GameState.FIRST_CROSS, ace = GameState.FIRST_CROSS + 1, empty = GameState.FIRST_CROSS + 2;
+
+		assertTrue(next.canMoveToCross(GameState.WASTE, six));
+		assertFalse(next.canMoveToCross(GameState.WASTE, ace));
+		assertTrue(next.canMoveToCross(GameState.WASTE, empty));
+		assertFalse(next.canMoveToCross(six, six));
+
+		// King wraps onto Ace
+		GameState king = next.moveToCross(GameState.WASTE, empty).draw();
+		assertTrue(king.canMoveToCross(GameState.WASTE, ace));
+		assertFalse(gs.canMoveToFoundation(six, GameState.FIRST_FOUNDATION));
+	}
+
+	public void testEquality() {
+		GameState a = gs.draw().moveToCross(GameState.WASTE, GameState.FIRST_CROSS + 2);
+		GameState b = gs.draw().moveToCross(GameState.WASTE, GameState.FIRST_CROSS + 2);
+		assertNotSame(a, b);
+		assertEquals(a, b);
+		assertEquals(a.positionKey(), b.positionKey());
+		assertFalse(a.equals(gs.draw()));
+		assertFalse(a.positionKey() == gs.draw().positionKey());
+	}
+
+	public void testCrossSymmetry() {
+		// the six of spades moves from the first cross pile to the last one
+		PersistentStack[] piles = gs.piles.clone();
+		piles[GameState.NUM_PILES - 1] = piles[GameState.FIRST_CROSS];
+		piles[GameState.FIRST_CROSS] = PersistentStack.EMPTY;
+		GameState moved = new GameState(piles, Card.FOUR);
+
+		assertFalse(moved.equals(gs));
+		assertEquals(gs.positionKey(), moved.positionKey());
+		assertEquals(gs.canonical(), moved.canonical());
+		assertEquals(gs.positionKey(), gs.canonical().positionKey());
+
+		// the same cards on a foundation are a different position
+		piles = gs.piles.clone();
+		piles[GameState.FIRST_FOUNDATION] = piles[GameState.FIRST_CROSS];
+		piles[GameState.FIRST_CROSS] = PersistentStack.EMPTY;
+		assertFalse(gs.positionKey() == new GameState(piles, Card.FOUR).positionKey());
+	}
+
+	public void testGameKey() {
+		FourSeasons fs = new FourSeasons();
+		fs.setSeed(1);
+		assertTrue(fs.resetHeadless());
+		assertEquals(GameState.fromGame(fs).positionKey(), fs.getPositionKey());
+
+		// make the last available move a few dozen times, dealing and playing cards
+		for(int i = 0; i < 40; i++) {
+			Move last = null;
+			for(Enumeration<Move> e = fs.availableMoves(); e.hasMoreElements(); ) {
+				last = e.nextElement();
+			}
+			if(last == null) break;
+			assertTrue(last.doMove(fs));
+			assertEquals(GameState.fromGame(fs).positionKey(), fs.getPositionKey());
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package tsane;
+
+import junit.framework.TestCase;
+import ks.common.model.Card;
+
+public class TestRankTables extends TestCase {
+
+	public void testRoundTheCorner() {
+		RankTables t = RankTables.forBase(Card.JACK);
+		assertEquals(Card.JACK, t.getBaseRank());
+		assertSame(t, RankTables.forBase(Card.JACK));
+
+		assertEquals(Card.ACE, t.successor(Card.KING));
+		assertEquals(Card.KING, t.predecessor(Card.ACE));
+		assertEquals(Card.SIX, t.successor(Card.FIVE));
+		assertEquals(Card.FOUR, t.predecessor(Card.FIVE));
+	}
+
+	public void testLevels() {
+		RankTables t = RankTables.forBase(Card.JACK);
+		assertEquals(0, t.level(Card.JACK));
+		assertEquals(2, t.level(Card.KING));
+		assertEquals(3, t.level(Card.ACE));
+		assertEquals(12, t.level(Card.TEN));
+		for(int level = 0; level < 13; level++) {
+			assertEquals(level, t.level(t.rankAt(level)));
+		}
+		assertEquals(Card.ACE, RankTables.forBase(Card.ACE).rankAt(0));
+		assertEquals(Card.KING, RankTables.forBase(Card.ACE).rankAt(12));
+	}
+
+	public void testFoundation() {
+		RankTables t = RankTables.forBase(Card.QUEEN);
+		assertTrue(t.buildsOnFoundation(0, Card.QUEEN));
+		assertFalse(t.buildsOnFoundation(0, Card.ACE));
+		assertTrue(t.buildsOnFoundation(Card.QUEEN, Card.KING));
+		assertTrue(t.buildsOnFoundation(Card.KING, Card.ACE));
+		assertFalse(t.buildsOnFoundation(Card.KING, Card.QUEEN));
+	}
+
+	public void testCross() {
+		RankTables t = RankTables.forBase(Card.ACE);
+		for(int r = Card.ACE; r <= Card.KING; r++) {
+			assertTrue(t.buildsOnCross(0, r));
+		}
+		assertTrue(t.buildsOnCross(Card.ACE, Card.KING));
+		assertTrue(t.buildsOnCross(Card.TEN, Card.NINE));
+		assertFalse(t.buildsOnCross(Card.NINE, Card.TEN));
+		assertFalse(t.buildsOnCross(Card.KING, Card.ACE));
+	}
+
+	public void testInvalidBase() {
+		try {
+			RankTables.forBase(0);
+			fail("There is no base rank before the deal.");
+		} catch (IllegalArgumentException iae) {
+			// success
+		}
+	}
+}